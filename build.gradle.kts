@@ -21,7 +21,23 @@ dependencies {
 }
 
 tasks.test {
-    useJUnitPlatform()
+    useJUnitPlatform {
+        excludeTags("benchmark")
+    }
+}
+
+// Benchmarks are timing-sensitive, so they run on demand instead of with every build
+tasks.register<Test>("benchmark") {
+    description = "Runs the performance benchmarks"
+    group = "verification"
+    testClassesDirs = sourceSets["test"].output.classesDirs
+    classpath = sourceSets["test"].runtimeClasspath
+    useJUnitPlatform {
+        includeTags("benchmark")
+    }
+    testLogging {
+        showStandardStreams = true
+    }
 }
 kotlin {
     jvmToolchain(20)
@@ -185,7 +201,16 @@ tasks.register<Exec>("jpackage") {
     )
     
     doLast {
-        val targetBinary = file("${jpackageDir.absolutePath}/contract-coverage/bin/contract-coverage")
+        // The launcher hands command lines to a running daemon before starting the JVM of the app image
+        val binDir = file("${jpackageDir.absolutePath}/contract-coverage/bin")
+        if (binDir.exists()) {
+            copy {
+                from("src/main/launcher")
+                into(binDir)
+                fileMode = 0b111101101 // 755 in octal
+            }
+        }
+        val targetBinary = file("${jpackageDir.absolutePath}/contract-coverage/bin/contract-coverage-launcher")
         if (targetBinary.exists()) {
             // Create a symlink in project root for convenience (Linux/Mac only)
             if (!System.getProperty("os.name").lowercase().contains("win")) {
@@ -208,14 +233,14 @@ tasks.register<Exec>("jpackage") {
                     println("✓ Symlink created: ./contract-coverage -> ${relativePath}")
                     println("\nTo use:")
                     println("  ./contract-coverage <code-path> <pact-file>")
-                    println("  Or: ${jpackageDir.absolutePath}/contract-coverage/bin/contract-coverage <code-path> <pact-file>")
+                    println("  Or: ${jpackageDir.absolutePath}/contract-coverage/bin/contract-coverage-launcher <code-path> <pact-file>")
                     println("\nNote: Includes bundled JRE, no system Java required!")
                 } catch (e: Exception) {
                     println("\n✓ Native package created successfully!")
                     println("✓ Package location: ${jpackageDir.absolutePath}")
                     println("⚠ Could not create symlink: ${e.message}")
                     println("\nTo use:")
-                    println("  ${jpackageDir.absolutePath}/contract-coverage/bin/contract-coverage <code-path> <pact-file>")
+                    println("  ${jpackageDir.absolutePath}/contract-coverage/bin/contract-coverage-launcher <code-path> <pact-file>")
                     println("\nNote: Includes bundled JRE, no system Java required!")
                 }
             } else {
@@ -1,8 +1,12 @@
 package org.example
 
 import org.example.core.entities.Coverage
+import org.example.core.entities.CoverageDelta
+import org.example.core.entities.Report
+import org.example.core.entities.pact.Pact
 import org.example.core.services.pact.PactReader
 import org.example.core.services.pact.PactEndpointMapper
+import org.example.core.services.coverage.CoverageDeltaCalculator
 import org.example.core.services.coverage.EndpointsComparator
 import org.example.core.wrappers.StaticCodeAnalyzer
 import org.example.core.services.reports.ReportWriter
@@ -11,11 +15,11 @@ import java.io.File
 
 class ContractCoverageApp(
     private val analyzer: StaticCodeAnalyzer,
-    private val reportWriter: ReportWriter
+    private val reportWriter: ReportWriter,
+    /** Shared by the runs of a long-running process, so its JSON mapper is set up once */
+    private val pactReader: PactReader = PactReader()
 ) {
     fun run(reportOutput: String, pactPath: String): Coverage {
-        val pactReader = PactReader()
-        
         // Read all Pacts from directory
         val pacts = if (File(pactPath).isDirectory) {
             pactReader.readDirectory(pactPath)
@@ -24,9 +28,59 @@ class ContractCoverageApp(
             listOf(pactReader.read(pactPath))
         }
         
-        val sourceCodeAnalyzer = RestTemplateJavaAnalyzer(analyzer)
-        val report = sourceCodeAnalyzer.process()
+        return coverageOf(analyze(), pacts, reportOutput)
+    }
+
+    /**
+     * Run with Pact files that were already listed (e.g. while validating the input directory).
+     */
+    fun run(reportOutput: String, pactFiles: List<File>): Coverage {
+        return compare(analyze(), reportOutput, pactFiles)
+    }
+
+    /**
+     * The endpoints of the code, to [compare] with Pact files (again whenever only those change).
+     */
+    fun analyze(): Report = RestTemplateJavaAnalyzer(analyzer).process()
+
+    /**
+     * Compare the endpoints of a [report] from [analyze] with [pactFiles] and write the report.
+     */
+    fun compare(report: Report, reportOutput: String, pactFiles: List<File>): Coverage {
+        return coverageOf(report, pactReader.readFiles(pactFiles), reportOutput)
+    }
+
+    /**
+     * Run on a slice of the code and report how coverage changed since a [baseline] report.
+     * The analyzer's endpoints replace the baseline endpoints reported only under [replacedSourceFiles];
+     * the other baseline endpoints are kept, attributed to the files that were not replaced.
+     */
+    fun runDelta(reportOutput: String, pactFiles: List<File>, baseline: Coverage, replacedSourceFiles: Set<String>): CoverageDelta {
+        val pacts = pactReader.readFiles(pactFiles)
+        val report = analyze()
+
+        val pactEndpoints = pacts.flatMap { pact ->
+            PactEndpointMapper().interactionsToEndpoints(pact)
+        }
+
+        val keptEndpoints = (baseline.matchedEndpoints + baseline.missingEndpoints).mapNotNull { endpoint ->
+            val files = listOfNotNull(endpoint.sourceFile) + endpoint.otherSourceFiles
+            val keptFiles = files.filter { it !in replacedSourceFiles }
+            when {
+                files.isEmpty() -> endpoint
+                keptFiles.isEmpty() -> null
+                else -> endpoint.copy(sourceFile = keptFiles.first(), otherSourceFiles = keptFiles.drop(1).toSet())
+            }
+        }
+        val coverage = EndpointsComparator().compare(keptEndpoints + report.getEndpoints(), pactEndpoints)
+        val delta = CoverageDeltaCalculator().compare(baseline, coverage)
+
+        reportWriter.writeDeltaReport(delta, reportOutput)
+
+        return delta
+    }
 
+    private fun coverageOf(report: Report, pacts: List<Pact>, reportOutput: String): Coverage {
         // Map all pact interactions to endpoints and combine them
         val pactEndpoints = pacts.flatMap { pact ->
             PactEndpointMapper().interactionsToEndpoints(pact)
@@ -1,15 +1,21 @@
 package org.example
 
+import org.example.infraestructure.daemon.DaemonClient
 import org.example.infraestructure.interfaces.ContractCoverageCommand
+import org.example.infraestructure.interfaces.DaemonCommand
 import picocli.CommandLine
 import kotlin.system.exitProcess
 
 fun main(args: Array<String>) {
     try {
-        val command = ContractCoverageCommand()
-        val commandLine = CommandLine(command)
-        commandLine.isUnmatchedArgumentsAllowed = false
-        commandLine.isStopAtUnmatched = false
+        if (args.firstOrNull() == "daemon") {
+            exitProcess(CommandLine(DaemonCommand()).execute(*args.copyOfRange(1, args.size)))
+        }
+        // A running daemon has everything loaded and warmed up already; the launcher asks it before
+        // starting this JVM, so this only forwards when started otherwise (java -jar, no python3)
+        DaemonClient.forward(args)?.let { exitProcess(it) }
+
+        val commandLine = ContractCoverageCommand.commandLine()
         val exitCode = commandLine.execute(*args)
         exitProcess(exitCode)
     } catch (e: Exception) {
@@ -17,4 +23,4 @@ fun main(args: Array<String>) {
         e.printStackTrace()
         exitProcess(CommandLine.ExitCode.SOFTWARE)
     }
-}
\ No newline at end of file
+}
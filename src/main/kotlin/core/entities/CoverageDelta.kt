@@ -0,0 +1,22 @@
+package org.example.core.entities
+
+/**
+ * How contract coverage changed between a baseline report and the current code.
+ */
+data class CoverageDelta(
+    val baselineCoveragePercent: Double,
+    val coverage: Coverage,
+    /** Endpoints found now but not in the baseline */
+    val added: List<EndpointStatus>,
+    /** Endpoints of the baseline not found anymore, with their baseline status */
+    val removed: List<EndpointStatus>,
+    /** Endpoints of both whose matched or missing status changed, with their current status */
+    val statusChanged: List<EndpointStatus>
+) {
+    val isEmpty: Boolean get() = added.isEmpty() && removed.isEmpty() && statusChanged.isEmpty()
+}
+
+data class EndpointStatus(
+    val endpoint: Endpoint,
+    val matched: Boolean
+)
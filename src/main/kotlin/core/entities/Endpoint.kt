@@ -4,4 +4,10 @@ data class Endpoint(
     val path: String,
     val method: HttpMethod,
     val sourceFile: String? = null,
-)
+    /** Why the path could not be resolved statically, when it is [UnresolvedMarkers.UNRESOLVED_URL] */
+    val dynamicReason: String? = null,
+    /** Files other than [sourceFile] reporting the same endpoint, merged into this one by deduplication */
+    val otherSourceFiles: Set<String> = emptySet(),
+) {
+    val isDynamic: Boolean get() = path == UnresolvedMarkers.UNRESOLVED_URL
+}
@@ -1,5 +1,7 @@
 package org.example.core.entities
 
+import com.fasterxml.jackson.annotation.JsonInclude
+
 data class ReportData(
     val timestamp: String,
     val coverage: CoverageData? = null
@@ -16,5 +18,32 @@ data class CoverageData(
 data class EndpointData(
     val path: String,
     val method: String,
-    val sourceFile: String? = null
+    val sourceFile: String? = null,
+    @get:JsonInclude(JsonInclude.Include.NON_NULL)
+    val dynamicReason: String? = null,
+    @get:JsonInclude(JsonInclude.Include.NON_EMPTY)
+    val otherSourceFiles: List<String> = emptyList()
+)
+
+data class DeltaReportData(
+    val timestamp: String,
+    val baselineCoveragePercent: Double,
+    val coverage: CoverageSummaryData,
+    val added: List<DeltaEndpointData>,
+    val removed: List<DeltaEndpointData>,
+    val statusChanged: List<DeltaEndpointData>
+)
+
+data class CoverageSummaryData(
+    val totalEndpoints: Int,
+    val matchedByPact: Int,
+    val coveragePercent: Double
+)
+
+data class DeltaEndpointData(
+    val path: String,
+    val method: String,
+    val sourceFile: String? = null,
+    /** `matched` or `missing` */
+    val status: String
 )
@@ -0,0 +1,183 @@
+package org.example.core.entities
+
+/**
+ * Result of statically resolving a String expression (URL, path, HTTP method).
+ *
+ * The kind of a value follows from how it was built, so it never has to be found again by
+ * scanning the text. [text] renders the value as it appears in reported paths: placeholders
+ * as `{name}` and unresolved parts as the [UnresolvedMarkers] constants.
+ */
+sealed class ResolvedValue {
+    abstract val segments: List<Segment>
+
+    /**
+     * True when part of the value is only known at runtime. The empty string also counts
+     * as unresolved, since it is what failed resolutions fall back to.
+     */
+    abstract val isUnresolved: Boolean
+
+    /** Why the value is unresolved, if it is */
+    open val dynamicReason: String? get() = null
+
+    val text: String by lazy(LazyThreadSafetyMode.PUBLICATION) { segments.joinToString("") { it.text } }
+
+    /** A fully known string */
+    data class Literal(val value: String) : ResolvedValue() {
+        override val segments: List<Segment> get() = if (value.isEmpty()) emptyList() else listOf(Segment.Text(value))
+        override val isUnresolved: Boolean get() = value.isEmpty()
+    }
+
+    /** Known text with placeholders for parts only known at runtime, e.g. `/users/{dynamic}` */
+    data class Template(override val segments: List<Segment>) : ResolvedValue() {
+        override val isUnresolved: Boolean get() = false
+    }
+
+    /** A value computed at runtime; [segments] keep the known text around the unresolved parts */
+    data class Dynamic(val reason: String, override val segments: List<Segment>) : ResolvedValue() {
+        override val isUnresolved: Boolean get() = true
+        override val dynamicReason: String get() = reason
+    }
+
+    /** An expression the resolver does not handle */
+    object Unknown : ResolvedValue() {
+        override val segments: List<Segment> = listOf(Segment.Unresolved(UnresolvedMarkers.UNRESOLVED_EXPRESSION))
+        override val isUnresolved: Boolean get() = true
+        override val dynamicReason: String get() = "unsupported expression"
+    }
+
+    sealed class Segment {
+        abstract val text: String
+
+        data class Text(override val text: String) : Segment()
+
+        data class Placeholder(val name: String) : Segment() {
+            override val text: String get() = "{$name}"
+        }
+
+        data class Unresolved(val marker: String) : Segment() {
+            override val text: String get() = marker
+        }
+    }
+
+    /**
+     * Unresolved as a path: also true for blank text.
+     */
+    val isUnresolvedPath: Boolean get() = isUnresolved || text.isBlank()
+
+    fun hasPlaceholder(name: String): Boolean = segments.any { it is Segment.Placeholder && it.name == name }
+
+    operator fun plus(other: ResolvedValue): ResolvedValue = concat(listOf(this, other))
+
+    /**
+     * Turn the unresolved parts rendered as [marker] into `{dynamic}` placeholders.
+     */
+    fun withPlaceholdersFor(marker: String): ResolvedValue {
+        if (segments.none { it is Segment.Unresolved && it.marker == marker }) return this
+        return of(segments.map { if (it is Segment.Unresolved && it.marker == marker) DYNAMIC_PLACEHOLDER else it }, dynamicReason)
+    }
+
+    /**
+     * The part of the value between the [start] and [end] offsets of [text].
+     */
+    fun slice(start: Int, end: Int = text.length): ResolvedValue {
+        val sliced = mutableListOf<Segment>()
+        var offset = 0
+        for (segment in segments) {
+            val segmentEnd = offset + segment.text.length
+            val from = maxOf(start, offset)
+            val to = minOf(end, segmentEnd)
+            if (from < to) {
+                sliced.add(
+                    if (from == offset && to == segmentEnd) segment
+                    else Segment.Text(segment.text.substring(from - offset, to - offset))
+                )
+            }
+            offset = segmentEnd
+        }
+        return of(sliced, dynamicReason)
+    }
+
+    /**
+     * Drop trailing [char]s from the known text at the end of the value.
+     */
+    fun trimEnd(char: Char): ResolvedValue {
+        val trimmed = segments.toMutableList()
+        while (trimmed.isNotEmpty()) {
+            val last = trimmed.last() as? Segment.Text ?: break
+            val text = last.text.trimEnd(char)
+            if (text.isNotEmpty()) {
+                trimmed[trimmed.size - 1] = Segment.Text(text)
+                break
+            }
+            trimmed.removeAt(trimmed.size - 1)
+        }
+        return of(trimmed, dynamicReason)
+    }
+
+    final override fun toString(): String = text
+
+    companion object {
+        val EMPTY = Literal("")
+
+        private val DYNAMIC_PLACEHOLDER = Segment.Placeholder("dynamic")
+
+        fun literal(value: String): ResolvedValue = Literal(value)
+
+        fun placeholder(name: String): ResolvedValue = Template(listOf(Segment.Placeholder(name)))
+
+        /** The `{dynamic}` placeholder */
+        val DYNAMIC: ResolvedValue = Template(listOf(DYNAMIC_PLACEHOLDER))
+
+        fun dynamic(reason: String, marker: String = UnresolvedMarkers.UNRESOLVED_URL): ResolvedValue {
+            return Dynamic(reason, listOf(Segment.Unresolved(marker)))
+        }
+
+        fun concat(values: List<ResolvedValue>): ResolvedValue {
+            if (values.size == 1) return values.single()
+            return of(values.flatMap { it.segments }, values.firstNotNullOfOrNull { it.dynamicReason })
+        }
+
+        /**
+         * Join [values] with a literal [separator], starting with [prefix].
+         */
+        fun join(values: List<ResolvedValue>, separator: String, prefix: String = ""): ResolvedValue {
+            val parts = mutableListOf<ResolvedValue>(literal(prefix))
+            values.forEachIndexed { i, value ->
+                if (i > 0) parts.add(literal(separator))
+                parts.add(value)
+            }
+            return concat(parts)
+        }
+
+        /**
+         * Build the value of [segments], merging adjacent text. [reason] is kept if a part is unresolved.
+         */
+        fun of(segments: List<Segment>, reason: String? = null): ResolvedValue {
+            val merged = mutableListOf<Segment>()
+            var unresolved = false
+            var placeholders = false
+            for (segment in segments) {
+                when (segment) {
+                    is Segment.Text -> {
+                        if (segment.text.isEmpty()) continue
+                        val last = merged.lastOrNull()
+                        if (last is Segment.Text) {
+                            merged[merged.size - 1] = Segment.Text(last.text + segment.text)
+                        } else {
+                            merged.add(segment)
+                        }
+                        continue
+                    }
+                    is Segment.Placeholder -> placeholders = true
+                    is Segment.Unresolved -> unresolved = true
+                }
+                merged.add(segment)
+            }
+            return when {
+                unresolved -> Dynamic(reason ?: "unresolved value", merged)
+                placeholders -> Template(merged)
+                else -> Literal((merged.singleOrNull() as? Segment.Text)?.text ?: "")
+            }
+        }
+    }
+}
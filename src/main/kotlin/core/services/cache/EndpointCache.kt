@@ -0,0 +1,83 @@
+package org.example.core.services.cache
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.module.kotlin.kotlinModule
+import org.example.core.entities.Endpoint
+import org.example.core.entities.EndpointData
+import org.example.core.entities.HttpMethod
+import java.io.File
+import java.nio.file.Files
+import java.nio.file.StandardCopyOption
+import java.security.MessageDigest
+
+/**
+ * A cache entry: the endpoints found in one client file, and the fingerprint of the files they
+ * were resolved from.
+ */
+data class CachedEndpoints(
+    val fingerprint: String,
+    val endpoints: List<EndpointData>
+)
+
+/**
+ * On-disk cache of the endpoints found in each client file, valid while the fingerprint of the
+ * files they were resolved from (see [org.example.core.services.filedetection.ClientDependencies])
+ * is unchanged.
+ *
+ * Each client file has one JSON entry in [directory], named after its path and the analysis
+ * [settings], which a later run overwrites when the fingerprint changed. Entries are replaced
+ * atomically, and entries that cannot be read count as misses.
+ */
+class EndpointCache(
+    private val directory: File,
+    /** Options the endpoints depend on (e.g. the caller depth); other settings use other entries */
+    private val settings: String
+) {
+    private val objectMapper = ObjectMapper().registerModule(kotlinModule())
+
+    /**
+     * The cached endpoints of the client file at [clientPath], or null if there are none for
+     * this [fingerprint].
+     */
+    fun load(clientPath: String, fingerprint: String): List<Endpoint>? {
+        val entryFile = entryFile(clientPath)
+        if (!entryFile.isFile) return null
+        val entry = try {
+            objectMapper.readValue(entryFile, CachedEndpoints::class.java)
+        } catch (e: Exception) {
+            return null
+        }
+        if (entry.fingerprint != fingerprint) return null
+        return entry.endpoints.map { data ->
+            val method = HttpMethod.fromString(data.method) ?: return null
+            Endpoint(data.path, method, data.sourceFile, data.dynamicReason, data.otherSourceFiles.toSet())
+        }
+    }
+
+    fun store(clientPath: String, fingerprint: String, endpoints: List<Endpoint>) {
+        val entry = CachedEndpoints(
+            fingerprint,
+            endpoints.map { EndpointData(it.path, it.method.value, it.sourceFile, it.dynamicReason, it.otherSourceFiles.sorted()) }
+        )
+        val target = entryFile(clientPath).toPath()
+        Files.createDirectories(directory.toPath())
+        // Concurrent runs sharing the directory never see a partly written entry
+        val temp = Files.createTempFile(directory.toPath(), target.fileName.toString(), ".tmp")
+        try {
+            objectMapper.writeValue(temp.toFile(), entry)
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+        } finally {
+            Files.deleteIfExists(temp)
+        }
+    }
+
+    private fun entryFile(clientPath: String): File {
+        val digest = MessageDigest.getInstance("SHA-256").digest("$FORMAT_VERSION\n$settings\n$clientPath".toByteArray())
+        return File(directory, digest.joinToString("") { "%02x".format(it) } + ".json")
+    }
+
+    private companion object {
+        /** Changed whenever the analysis gives different endpoints for the same sources, or entries hold other fields */
+        const val FORMAT_VERSION = 2
+    }
+}
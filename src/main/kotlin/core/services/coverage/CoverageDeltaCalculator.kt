@@ -0,0 +1,38 @@
+package org.example.core.services.coverage
+
+import org.example.core.entities.Coverage
+import org.example.core.entities.CoverageDelta
+import org.example.core.entities.Endpoint
+import org.example.core.entities.EndpointStatus
+import org.example.core.entities.HttpMethod
+
+class CoverageDeltaCalculator {
+
+    /**
+     * Endpoints added, removed or with a different matched status in [current] than in [baseline].
+     * Endpoints are the same when they share path and method; dynamic ones also need the same sourceFile.
+     */
+    fun compare(baseline: Coverage, current: Coverage): CoverageDelta {
+        val before = statusesByKey(baseline)
+        val after = statusesByKey(current)
+
+        return CoverageDelta(
+            baselineCoveragePercent = baseline.coveragePercent,
+            coverage = current,
+            added = after.filterKeys { it !in before }.values.toList(),
+            removed = before.filterKeys { it !in after }.values.toList(),
+            statusChanged = after.filter { (key, status) -> before[key]?.let { it.matched != status.matched } == true }.values.toList()
+        )
+    }
+
+    private fun statusesByKey(coverage: Coverage): Map<Triple<String, HttpMethod, String?>, EndpointStatus> {
+        val statuses = LinkedHashMap<Triple<String, HttpMethod, String?>, EndpointStatus>()
+        coverage.matchedEndpoints.forEach { statuses.putIfAbsent(keyOf(it), EndpointStatus(it, matched = true)) }
+        coverage.missingEndpoints.forEach { statuses.putIfAbsent(keyOf(it), EndpointStatus(it, matched = false)) }
+        return statuses
+    }
+
+    private fun keyOf(endpoint: Endpoint): Triple<String, HttpMethod, String?> {
+        return Triple(endpoint.path, endpoint.method, if (endpoint.isDynamic) endpoint.sourceFile else null)
+    }
+}
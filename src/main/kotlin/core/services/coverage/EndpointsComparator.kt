@@ -2,14 +2,13 @@ package org.example.core.services.coverage
 
 import org.example.core.entities.Endpoint
 import org.example.core.entities.Coverage
-import org.example.core.entities.UnresolvedMarkers
 import kotlin.math.round
 
 class EndpointsComparator {
     fun compare(codeEndpoints: List<Endpoint>, pactEndpoints: List<Endpoint>): Coverage {
         // Deduplicate: for dynamic URLs, keep separate per sourceFile; for resolved URLs, dedupe by path+method
         val codeSet = codeEndpoints.distinctBy { endpoint ->
-            if (UnresolvedMarkers.isUnresolved(endpoint.path)) {
+            if (endpoint.isDynamic) {
                 Triple(endpoint.path, endpoint.method, endpoint.sourceFile)
             } else {
                 Triple(endpoint.path, endpoint.method, null)
@@ -0,0 +1,95 @@
+package org.example.core.services.filedetection
+
+import java.nio.ByteBuffer
+
+/**
+ * Finds any number of byte patterns in a single pass over the input (Aho-Corasick).
+ *
+ * The automaton is built once as a full transition table, so scanning costs one table
+ * lookup per input byte no matter how many patterns there are. Instances are immutable
+ * and can be shared between threads.
+ */
+class AhoCorasickMatcher(patterns: List<ByteArray>) {
+
+    /** Next state for (state * 256 + byte) */
+    private val transitions: IntArray
+
+    /** Indexes of the patterns ending at each state, including those reached through failure links */
+    private val outputs: Array<IntArray>
+
+    init {
+        require(patterns.none { it.isEmpty() }) { "Patterns must not be empty" }
+
+        // Trie of all patterns
+        val children = mutableListOf(IntArray(ALPHABET) { NO_STATE })
+        val ownOutputs = mutableListOf(mutableListOf<Int>())
+        patterns.forEachIndexed { patternIndex, pattern ->
+            var state = 0
+            for (byte in pattern) {
+                val symbol = byte.toInt() and 0xFF
+                if (children[state][symbol] == NO_STATE) {
+                    children[state][symbol] = children.size
+                    children.add(IntArray(ALPHABET) { NO_STATE })
+                    ownOutputs.add(mutableListOf())
+                }
+                state = children[state][symbol]
+            }
+            ownOutputs[state].add(patternIndex)
+        }
+
+        // Breadth-first: complete the transitions with failure links and merge outputs
+        val stateCount = children.size
+        val table = IntArray(stateCount * ALPHABET)
+        val failure = IntArray(stateCount)
+        val merged = arrayOfNulls<IntArray>(stateCount)
+        merged[0] = ownOutputs[0].toIntArray()
+        val queue = ArrayDeque<Int>()
+        for (symbol in 0 until ALPHABET) {
+            val child = children[0][symbol]
+            if (child == NO_STATE) {
+                table[symbol] = 0
+            } else {
+                table[symbol] = child
+                failure[child] = 0
+                queue.addLast(child)
+            }
+        }
+        while (queue.isNotEmpty()) {
+            val state = queue.removeFirst()
+            merged[state] = (ownOutputs[state] + merged[failure[state]]!!.toList()).distinct().toIntArray()
+            for (symbol in 0 until ALPHABET) {
+                val child = children[state][symbol]
+                val fallback = table[failure[state] * ALPHABET + symbol]
+                if (child == NO_STATE) {
+                    table[state * ALPHABET + symbol] = fallback
+                } else {
+                    table[state * ALPHABET + symbol] = child
+                    failure[child] = fallback
+                    queue.addLast(child)
+                }
+            }
+        }
+
+        transitions = table
+        outputs = Array(stateCount) { merged[it]!! }
+    }
+
+    /**
+     * Scan the remaining bytes of [input], calling [onMatch] with the index of every pattern
+     * occurrence. Scanning stops early when [onMatch] returns false.
+     */
+    fun scan(input: ByteBuffer, onMatch: (Int) -> Boolean) {
+        var state = 0
+        for (position in input.position() until input.limit()) {
+            state = transitions[state * ALPHABET + (input.get(position).toInt() and 0xFF)]
+            for (patternIndex in outputs[state]) {
+                if (!onMatch(patternIndex)) return
+            }
+        }
+    }
+
+    private companion object {
+        const val ALPHABET = 256
+        const val NO_STATE = -1
+    }
+}
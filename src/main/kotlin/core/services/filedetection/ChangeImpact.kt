@@ -0,0 +1,56 @@
+package org.example.core.services.filedetection
+
+import java.io.File
+
+/**
+ * The client files whose endpoints a [ChangeSet] can change, found through the same import
+ * graph as their [dependencies][ClientDependencies.dependenciesOf].
+ *
+ * A client file is affected when one of its dependencies changed, or when a deleted file
+ * mentioned one of its types (deleted callers cannot be followed through imports anymore).
+ * Endpoints report the file of their call site, and a caller may call into several client
+ * files: every client file with a caller in the slice joins it, so that all the endpoints
+ * reported under [Slice.sourceFileNames] are found again.
+ */
+class ChangeImpact(private val dependencies: ClientDependencies) {
+
+    /**
+     * @property clientFiles Client files to analyze again, in project order
+     * @property sourceFileNames Names of the files whose endpoints the analysis of [clientFiles] replaces
+     */
+    class Slice(val clientFiles: List<File>, val sourceFileNames: Set<String>)
+
+    fun sliceOf(clientFiles: List<File>, changes: ChangeSet): Slice {
+        val changed = changes.changedFiles.mapTo(HashSet()) { it.absoluteFile.normalize() }
+        val deletedIdentifiers = HashSet<String>()
+        changes.deletedFiles.values.forEach { text -> IDENTIFIER_PATTERN.findAll(text).mapTo(deletedIdentifiers) { it.value } }
+
+        val slice = clientFiles.filterTo(LinkedHashSet()) { clientFile ->
+            dependencies.dependenciesOf(clientFile).any { it.absoluteFile.normalize() in changed } ||
+                dependencies.declaredTypeNames(clientFile).any { it in deletedIdentifiers }
+        }
+
+        // Endpoints of changed and deleted files are replaced even if no client file reports them anymore
+        val names = HashSet<String>()
+        changes.changedFiles.mapTo(names) { it.name }
+        changes.deletedFiles.keys.mapTo(names) { it.name }
+        val callers = clientFiles.associateWith { dependencies.callersOf(it) }
+        slice.forEach { clientFile -> callers.getValue(clientFile).mapTo(names) { it.name } }
+
+        var grown = true
+        while (grown) {
+            grown = false
+            for (clientFile in clientFiles) {
+                if (clientFile in slice || callers.getValue(clientFile).none { it.name in names }) continue
+                slice.add(clientFile)
+                callers.getValue(clientFile).mapTo(names) { it.name }
+                grown = true
+            }
+        }
+        return Slice(clientFiles.filter { it in slice }, names)
+    }
+
+    private companion object {
+        val IDENTIFIER_PATTERN = Regex("""\w+""")
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.core.services.filedetection
+
+import java.io.File
+import java.security.MessageDigest
+import kotlin.io.path.invariantSeparatorsPathString
+
+/**
+ * The files that the endpoints of a client file are resolved from, and a fingerprint of their contents.
+ *
+ * Besides the client file itself, these are its callers up to [callerDepth] levels (call site
+ * arguments, and the call sites that make public methods count), the files that any of those
+ * reference (wrapper types, fields, constants), and the files declaring constants that those
+ * constants refer to, followed transitively. Editing, adding or removing any of them changes
+ * the fingerprint.
+ */
+class ClientDependencies(
+    private val inventory: FileInventory,
+    private val constantIndex: LexicalConstantIndex,
+    private val callerDepth: Int,
+    private val callerResolver: CallerResolver = CallerResolver()
+) {
+    private val importIndex = ImportIndex(inventory.files)
+    private val root = inventory.root.absoluteFile.toPath().normalize()
+
+    /**
+     * The files the endpoints of [clientFile] depend on, [clientFile] included.
+     */
+    fun dependenciesOf(clientFile: File): Set<File> {
+        val callers = callersOf(clientFile)
+        val result = LinkedHashSet(callers)
+        callers.forEach { result.addAll(importIndex.referencedFiles(it)) }
+
+        // Constants built from constants of other files
+        val pending = ArrayDeque(result.filter { constantIndex.declaresConstants(it) })
+        while (pending.isNotEmpty()) {
+            for (referenced in importIndex.referencedFiles(pending.removeFirst())) {
+                if (constantIndex.declaresConstants(referenced) && result.add(referenced)) pending.addLast(referenced)
+            }
+        }
+        return result
+    }
+
+    /**
+     * [clientFile] and its callers up to [callerDepth] levels: the files whose names endpoints
+     * of [clientFile] report as their source.
+     */
+    fun callersOf(clientFile: File): Set<File> = callerResolver.findCallers(listOf(clientFile), importIndex, callerDepth)
+
+    /**
+     * Simple names of the types declared in [file].
+     */
+    fun declaredTypeNames(file: File): List<String> = importIndex.declaredTypes(file).map { it.className }
+
+    /**
+     * SHA-256, as lowercase hex, of the paths (relative to the inventory root) and contents of
+     * the [dependenciesOf] of [clientFile].
+     */
+    fun fingerprint(clientFile: File): String {
+        val digest = MessageDigest.getInstance("SHA-256")
+        dependenciesOf(clientFile)
+            .map { pathOf(it) to inventory.sourceFile(it).contentHash }
+            .sortedBy { it.first }
+            .forEach { (path, hash) -> digest.update("$path $hash\n".toByteArray()) }
+        return digest.digest().joinToString("") { "%02x".format(it) }
+    }
+
+    /**
+     * Path of [file] relative to the inventory root, with `/` separators on every platform.
+     */
+    fun pathOf(file: File): String = root.relativize(file.absoluteFile.toPath().normalize()).invariantSeparatorsPathString
+}
@@ -22,7 +22,9 @@ interface ClientFileDetector {
     fun mightContainClient(file: File): Boolean
     
     /**
-     * Get the patterns used for detection (for logging/debugging)
+     * Get the patterns used for detection.
+     * [ClientPrefilter] matches these on the raw file bytes for all detectors in one pass;
+     * a detector without patterns is checked with [mightContainClient] instead.
      */
     fun getDetectionPatterns(): List<String>
 }
@@ -0,0 +1,61 @@
+package org.example.core.services.filedetection
+
+/**
+ * Checks a file against all [ClientFileDetector]s at once.
+ *
+ * The detection patterns of every detector are compiled into one [AhoCorasickMatcher], and each
+ * file is scanned once over its raw bytes (memory-mapped when large, see [SourceFile.contents]),
+ * so registering another client type adds almost nothing to the cost per file. Detectors
+ * without patterns fall back to their own [ClientFileDetector.mightContainClient] check.
+ */
+class ClientPrefilter(private val detectors: List<ClientFileDetector>) {
+
+    /** Index of the detector owning each pattern of [matcher] */
+    private val patternOwners: IntArray
+    private val matcher: AhoCorasickMatcher
+    private val unpatterned = detectors.filter { it.getDetectionPatterns().isEmpty() }
+
+    init {
+        val owners = mutableListOf<Int>()
+        val patterns = mutableListOf<ByteArray>()
+        detectors.forEachIndexed { detectorIndex, detector ->
+            detector.getDetectionPatterns().filter { it.isNotEmpty() }.forEach { pattern ->
+                owners.add(detectorIndex)
+                patterns.add(pattern.toByteArray(Charsets.UTF_8))
+            }
+        }
+        patternOwners = owners.toIntArray()
+        matcher = AhoCorasickMatcher(patterns)
+    }
+
+    /**
+     * Detectors whose client might be used in [file], in the order they were registered.
+     * Unreadable files match no detector.
+     */
+    fun matchingDetectors(file: SourceFile): List<ClientFileDetector> {
+        val matched = BooleanArray(detectors.size)
+        try {
+            scanPatterns(file, matched)
+        } catch (e: Exception) {
+            return emptyList()
+        }
+        return detectors.filterIndexed { i, detector ->
+            matched[i] || (detector in unpatterned && detector.mightContainClient(file.file))
+        }
+    }
+
+    private fun scanPatterns(file: SourceFile, matched: BooleanArray) {
+        if (patternOwners.isEmpty()) return
+        val patternedCount = detectors.size - unpatterned.size
+        var matchedCount = 0
+        matcher.scan(file.contents) { patternIndex ->
+            val owner = patternOwners[patternIndex]
+            if (!matched[owner]) {
+                matched[owner] = true
+                matchedCount++
+            }
+            // Nothing left to learn once every detector matched
+            matchedCount < patternedCount
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package org.example.core.services.filedetection
+
+import java.io.Closeable
+import java.io.IOException
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardWatchEventKinds.ENTRY_CREATE
+import java.nio.file.StandardWatchEventKinds.ENTRY_DELETE
+import java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY
+import java.nio.file.StandardWatchEventKinds.OVERFLOW
+import java.nio.file.WatchKey
+import java.nio.file.WatchService
+import java.util.concurrent.TimeUnit
+
+/**
+ * Waits for changes to the Java files under a source directory and to the Pact files directly
+ * inside a Pact directory, with a [WatchService].
+ *
+ * Edits come in bursts (an IDE saving several files, a branch checkout): events are gathered
+ * until none arrives for [quietMillis], and reported as one [Changes]. Directories created under
+ * the source directory are watched as they appear. Directories and files that [JavaFileWalker]
+ * leaves out (`.git`, `.gitignore` rules and [excludes]) are neither watched nor reported; the
+ * `.gitignore` files are read when a directory starts being watched.
+ */
+class DirectoryWatcher(
+    sourceDir: Path,
+    pactDir: Path,
+    private val quietMillis: Long = DEFAULT_QUIET_MILLIS,
+    /** Files whose changes are never reported, e.g. the report written after each change */
+    ignoredFiles: Set<Path> = emptySet(),
+    /** Exclude globs relative to the source directory, as for [JavaFileWalker] */
+    excludes: List<String> = emptyList()
+) : Closeable {
+
+    /**
+     * Files changed during one burst. After lost events, the source or Pact directory itself
+     * stands for all its files.
+     */
+    class Changes(val sourceFiles: Set<Path>, val pactFiles: Set<Path>) {
+        val sourcesChanged: Boolean get() = sourceFiles.isNotEmpty()
+        val pactsChanged: Boolean get() = pactFiles.isNotEmpty()
+    }
+
+    private val sourceRoot = sourceDir.toAbsolutePath().normalize()
+    private val pactRoot = pactDir.toAbsolutePath().normalize()
+    private val ignored = ignoredFiles.mapTo(HashSet()) { it.toAbsolutePath().normalize() }
+    private val walker = JavaFileWalker(excludes)
+    private val watchService: WatchService = sourceRoot.fileSystem.newWatchService()
+
+    /** Watched directories, by the key of their registration */
+    private val keys = HashMap<WatchKey, Path>()
+
+    /** Watched source directories, kept after their key is cancelled to recognize their deletion */
+    private val sourceDirectories = HashSet<Path>()
+
+    init {
+        registerTree(sourceRoot)
+        register(pactRoot)
+    }
+
+    /**
+     * Block until a Java or Pact file changes, then until no event arrived for [quietMillis].
+     */
+    fun awaitChanges(): Changes {
+        val sources = LinkedHashSet<Path>()
+        val pacts = LinkedHashSet<Path>()
+        while (sources.isEmpty() && pacts.isEmpty()) {
+            var key: WatchKey? = watchService.take()
+            while (key != null) {
+                collect(key, sources, pacts)
+                key = watchService.poll(quietMillis, TimeUnit.MILLISECONDS)
+            }
+        }
+        return Changes(sources, pacts)
+    }
+
+    override fun close() {
+        watchService.close()
+    }
+
+    private fun collect(key: WatchKey, sources: MutableSet<Path>, pacts: MutableSet<Path>) {
+        val directory = keys[key]
+        for (event in key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                sources.add(sourceRoot)
+                pacts.add(pactRoot)
+                continue
+            }
+            if (directory == null) continue
+            val path = directory.resolve(event.context() as Path)
+            if (path in ignored) continue
+
+            val name = path.fileName.toString()
+            if (directory == pactRoot && name.endsWith(".json", ignoreCase = true)) {
+                pacts.add(path)
+            }
+            if (!path.startsWith(sourceRoot)) continue
+            when {
+                name.endsWith(".java") -> if (!walker.isExcluded(sourceRoot, path, false)) sources.add(path)
+                event.kind() == ENTRY_CREATE && Files.isDirectory(path) -> {
+                    if (walker.isExcluded(sourceRoot, path, true)) continue
+                    // Files may have been created (or moved in with it) before the directory is watched
+                    registerTree(path)
+                    sources.add(path)
+                }
+                event.kind() == ENTRY_DELETE && sourceDirectories.remove(path) -> sources.add(path)
+            }
+        }
+        if (!key.reset()) {
+            keys.remove(key)
+        }
+    }
+
+    private fun registerTree(root: Path) {
+        walker.visitDirectories(sourceRoot, root) { dir ->
+            try {
+                register(dir)
+                sourceDirectories.add(dir)
+            } catch (e: IOException) {
+                // Deleted while being walked; its parent reports the deletion
+            }
+        }
+    }
+
+    private fun register(directory: Path) {
+        keys[directory.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY)] = directory
+    }
+
+    companion object {
+        const val DEFAULT_QUIET_MILLIS = 300L
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.core.services.filedetection
+
+import java.io.File
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption
+import java.nio.file.attribute.BasicFileAttributes
+import java.security.MessageDigest
+
+/**
+ * A Java file of the project: its metadata from the walk, and its contents loaded on first use.
+ * Every stage reading the file shares the loaded contents, so each file is read at most once per run.
+ */
+class SourceFile(
+    val file: File,
+    val size: Long,
+    /** Last modification time, in milliseconds since the epoch */
+    val lastModified: Long
+) {
+    val path: Path get() = file.toPath()
+
+    private val loaded: ByteBuffer by lazy { load() }
+
+    /**
+     * Read-only view of the raw contents, positioned at the start. Large files are memory-mapped.
+     */
+    val contents: ByteBuffer get() = loaded.asReadOnlyBuffer()
+
+    /** Contents decoded as UTF-8 */
+    val text: String get() = Charsets.UTF_8.decode(contents).toString()
+
+    /** SHA-256 of the contents, as lowercase hex */
+    val contentHash: String by lazy {
+        val digest = MessageDigest.getInstance("SHA-256")
+        digest.update(contents)
+        digest.digest().joinToString("") { "%02x".format(it) }
+    }
+
+    private fun load(): ByteBuffer {
+        FileChannel.open(path, StandardOpenOption.READ).use { channel ->
+            val length = channel.size()
+            if (length >= MAP_THRESHOLD) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, length)
+            }
+            return ByteBuffer.wrap(Files.readAllBytes(path))
+        }
+    }
+
+    override fun toString(): String = file.path
+
+    companion object {
+        /** Smaller files are cheaper to read than to map */
+        private const val MAP_THRESHOLD = 64L * 1024
+
+        fun of(file: File): SourceFile {
+            val attrs = Files.readAttributes(file.toPath(), BasicFileAttributes::class.java)
+            return SourceFile(file, attrs.size(), attrs.lastModifiedTime().toMillis())
+        }
+    }
+}
+
+/**
+ * The Java files of a project, collected in one walk (see [JavaFileWalker]) and shared by
+ * every stage of a run: file counting, client detection and caller resolution.
+ */
+class FileInventory(
+    val root: File,
+    val files: List<SourceFile>,
+    /** Directories pruned by an ignore rule or exclude pattern; their contents were never read */
+    val skippedDirectories: Int = 0,
+    /** Java files left out by an ignore rule or exclude pattern */
+    val skippedFiles: Int = 0,
+    val walkMillis: Long = 0
+) {
+    private val byFile = files.associateBy { it.file }
+
+    /**
+     * The inventory entry of [file], or a fresh one for a file outside the inventory.
+     */
+    fun sourceFile(file: File): SourceFile = byFile[file] ?: SourceFile.of(file)
+}
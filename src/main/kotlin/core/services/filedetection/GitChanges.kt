@@ -0,0 +1,84 @@
+package org.example.core.services.filedetection
+
+import java.io.File
+import java.nio.file.Files
+import java.util.concurrent.TimeUnit
+
+/**
+ * Java files of a source tree that differ from a git revision.
+ */
+class ChangeSet(
+    /** Files added or modified since the revision, untracked ones included */
+    val changedFiles: Set<File>,
+    /** Files deleted since the revision, with their contents at the revision */
+    val deletedFiles: Map<File, String>
+) {
+    val isEmpty: Boolean get() = changedFiles.isEmpty() && deletedFiles.isEmpty()
+}
+
+/**
+ * Reads the changes of the working tree under [directory] from the local git repository, without
+ * fetching anything. Paths are resolved against [directory], and only the files under it count.
+ * Git runs with [environment] (`GIT_DIR`, `HOME` for its configuration...).
+ */
+class GitChanges(
+    private val directory: File,
+    private val environment: Map<String, String> = System.getenv()
+) {
+
+    /**
+     * The Java files changed since [revision], committed or not.
+     *
+     * @throws IllegalArgumentException if git fails, e.g. outside a repository or for an unknown revision
+     */
+    fun since(revision: String): ChangeSet {
+        val changed = LinkedHashSet<File>()
+        val deleted = LinkedHashMap<File, String>()
+
+        for (line in git("diff", "--name-status", "--no-renames", "--relative", revision, "--").lines()) {
+            val status = line.substringBefore('\t')
+            val path = line.substringAfter('\t', "")
+            if (!path.endsWith(".java")) continue
+            if (status == "D") {
+                deleted[File(directory, path)] = git("show", "$revision:./$path")
+            } else {
+                changed.add(File(directory, path))
+            }
+        }
+        git("ls-files", "--others", "--exclude-standard").lines()
+            .filter { it.endsWith(".java") }
+            .forEach { changed.add(File(directory, it)) }
+
+        return ChangeSet(changed, deleted)
+    }
+
+    private fun git(vararg args: String): String {
+        // Errors go to a file, so that a chatty stderr cannot block the process while stdout is read
+        val errors = Files.createTempFile("contract-coverage-git", ".err")
+        try {
+            val builder = ProcessBuilder(listOf("git") + args)
+                .directory(directory)
+                .redirectError(errors.toFile())
+            builder.environment().apply {
+                clear()
+                putAll(environment)
+            }
+            val process = builder.start()
+            val output = process.inputStream.bufferedReader().use { it.readText() }
+            if (!process.waitFor(GIT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                process.destroyForcibly()
+                throw IllegalArgumentException("git ${args.first()} did not finish within $GIT_TIMEOUT_SECONDS seconds")
+            }
+            if (process.exitValue() != 0) {
+                throw IllegalArgumentException("git ${args.joinToString(" ")} failed: ${Files.readString(errors).trim()}")
+            }
+            return output
+        } finally {
+            Files.deleteIfExists(errors)
+        }
+    }
+
+    private companion object {
+        const val GIT_TIMEOUT_SECONDS = 60L
+    }
+}
@@ -0,0 +1,87 @@
+package org.example.core.services.filedetection
+
+/**
+ * The rules of one `.gitignore` file.
+ *
+ * Supports the usual syntax: comments, `!` negation, a trailing `/` for directories only,
+ * patterns anchored to the file's directory by a leading or inner `/`, and the `*`, `?`,
+ * `[...]` and `**` wildcards.
+ */
+class IgnoreRules(lines: List<String>) {
+
+    private class Rule(val regex: Regex, val negated: Boolean, val directoryOnly: Boolean)
+
+    private val rules = lines.mapNotNull { parse(it) }
+
+    val isEmpty: Boolean get() = rules.isEmpty()
+
+    /**
+     * Whether [relativePath] (relative to the `.gitignore` directory, `/`-separated) is ignored,
+     * or null when no rule matches it. The last matching rule wins.
+     */
+    fun match(relativePath: String, isDirectory: Boolean): Boolean? {
+        var ignored: Boolean? = null
+        for (rule in rules) {
+            if (rule.directoryOnly && !isDirectory) continue
+            if (rule.regex.matches(relativePath)) ignored = !rule.negated
+        }
+        return ignored
+    }
+
+    private fun parse(line: String): Rule? {
+        var pattern = line.trimEnd()
+        if (pattern.isEmpty() || pattern.startsWith("#")) return null
+
+        val negated = pattern.startsWith("!")
+        if (negated) pattern = pattern.substring(1)
+        if (pattern.startsWith("\\")) pattern = pattern.substring(1)
+
+        val directoryOnly = pattern.endsWith("/")
+        pattern = pattern.trimEnd('/')
+        if (pattern.isEmpty()) return null
+
+        // A slash anywhere but at the end anchors the pattern to the .gitignore directory
+        val anchored = pattern.contains('/')
+        pattern = pattern.removePrefix("/")
+
+        val prefix = if (anchored) "" else "(?:.*/)?"
+        return Rule(Regex(prefix + globToRegex(pattern)), negated, directoryOnly)
+    }
+
+    private fun globToRegex(glob: String): String {
+        val regex = StringBuilder()
+        var i = 0
+        while (i < glob.length) {
+            val c = glob[i]
+            when {
+                glob.startsWith("**/", i) && (i == 0 || glob[i - 1] == '/') -> {
+                    regex.append("(?:.*/)?")
+                    i += 3
+                    continue
+                }
+                glob.startsWith("**", i) -> {
+                    regex.append(".*")
+                    i += 2
+                    continue
+                }
+                c == '*' -> regex.append("[^/]*")
+                c == '?' -> regex.append("[^/]")
+                c == '[' && glob.indexOf(']', i + 1) > i + 1 -> {
+                    val end = glob.indexOf(']', i + 1)
+                    val body = glob.substring(i + 1, end)
+                    val negatedClass = body.startsWith("!") || body.startsWith("^")
+                    val members = (if (negatedClass) body.substring(1) else body).replace("\\", "\\\\")
+                    regex.append(if (negatedClass) "[^" else "[").append(members).append("]")
+                    i = end
+                }
+                c == '\\' && i + 1 < glob.length -> {
+                    regex.append(Regex.escape(glob[i + 1].toString()))
+                    i++
+                }
+                else -> regex.append(Regex.escape(c.toString()))
+            }
+            i++
+        }
+        return regex.toString()
+    }
+}
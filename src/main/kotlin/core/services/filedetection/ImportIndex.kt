@@ -0,0 +1,157 @@
+package org.example.core.services.filedetection
+
+import java.io.File
+
+/**
+ * Inverted index of the type declarations and references of a set of Java files.
+ *
+ * Every file is read once when the index is built. Afterwards, the files referencing a type
+ * (through an exact import, a wildcard import of its package, or by simple name from the same
+ * package) are found with map lookups instead of rescanning the project.
+ */
+class ImportIndex(files: List<SourceFile>) {
+
+    /**
+     * What one file declares and references.
+     *
+     * @property declaredTypes Types declared by the file, with the package they were declared in
+     * @property imports Trimmed `import ...;` lines
+     * @property referencePackage Package in which [identifiers] refer to types without an import
+     * @property identifiers Identifiers appearing in the file
+     */
+    private class FileEntry(
+        val file: File,
+        val declaredTypes: List<QualifiedClass>,
+        val imports: Set<String>,
+        val referencePackage: String,
+        val identifiers: Set<String>
+    )
+
+    private val entries = files.map { readEntry(it) }
+    private val positions = HashMap<File, Int>()
+    private val importers = HashMap<String, MutableList<Int>>()
+    private val filesByPackage = HashMap<String, MutableList<Int>>()
+    private val declarers = HashMap<String, MutableList<Int>>()
+
+    init {
+        entries.forEachIndexed { position, entry ->
+            positions.putIfAbsent(entry.file, position)
+            entry.declaredTypes.forEach { declarers.getOrPut(it.fullyQualifiedName) { mutableListOf() }.add(position) }
+            entry.imports.forEach { importers.getOrPut(it) { mutableListOf() }.add(position) }
+            if (entry.referencePackage.isNotEmpty()) {
+                filesByPackage.getOrPut(entry.referencePackage) { mutableListOf() }.add(position)
+            }
+        }
+    }
+
+    /**
+     * Types declared in [file]. Files outside the index are read on demand.
+     */
+    fun declaredTypes(file: File): List<QualifiedClass> {
+        return positions[file]?.let { entries[it].declaredTypes } ?: readEntry(SourceFile.of(file)).declaredTypes
+    }
+
+    /**
+     * Indexed files that import any of [types] (exactly or with a wildcard) or use one by simple
+     * name from the same package, in index order. With [mentioning], only files that also
+     * contain that identifier are returned.
+     */
+    fun filesReferencingAny(types: Collection<QualifiedClass>, mentioning: String? = null): List<File> {
+        val found = sortedSetOf<Int>()
+        types.forEach { found.addAll(referencingPositions(it)) }
+        return found
+            .filter { mentioning == null || mentioning in entries[it].identifiers }
+            .map { entries[it].file }
+    }
+
+    /**
+     * Indexed files declaring the type named [qualifiedName], in index order.
+     */
+    fun filesDeclaring(qualifiedName: String): List<File> {
+        return declarers[qualifiedName].orEmpty().map { entries[it].file }
+    }
+
+    /**
+     * Indexed files declaring the types [file] references: through its imports (static ones
+     * included), or by simple name from its own package. Empty for files outside the index.
+     */
+    fun referencedFiles(file: File): List<File> {
+        val position = positions[file] ?: return emptyList()
+        val entry = entries[position]
+        val found = sortedSetOf<Int>()
+        for (import in entry.imports) {
+            val match = IMPORT_PATTERN.find(import) ?: continue
+            val name = match.groupValues[2]
+            if (match.groupValues[1].isEmpty() && match.groupValues[3].isNotEmpty()) {
+                filesByPackage[name]?.filterTo(found) { declaresAnyOf(it, entry.identifiers) }
+                continue
+            }
+            // Members of static imports and nested types: the longest prefix naming a declared type
+            var typeName = name
+            while (typeName.isNotEmpty()) {
+                val declaring = declarers[typeName]
+                if (declaring != null) {
+                    found.addAll(declaring)
+                    break
+                }
+                typeName = typeName.substringBeforeLast('.', "")
+            }
+        }
+        filesByPackage[entry.referencePackage]?.filterTo(found) { it != position && declaresAnyOf(it, entry.identifiers) }
+        return found.map { entries[it].file }
+    }
+
+    private fun declaresAnyOf(position: Int, identifiers: Set<String>): Boolean {
+        return entries[position].declaredTypes.any { it.className in identifiers }
+    }
+
+    private fun referencingPositions(type: QualifiedClass): Set<Int> {
+        val found = HashSet<Int>()
+        importers["import ${type.fullyQualifiedName};"]?.let { found.addAll(it) }
+        if (type.packageName.isNotEmpty()) {
+            importers["import ${type.packageName}.*;"]?.let { found.addAll(it) }
+            filesByPackage[type.packageName]?.filterTo(found) { type.className in entries[it].identifiers }
+        }
+        return found
+    }
+
+    private fun readEntry(sourceFile: SourceFile): FileEntry {
+        val declaredTypes = mutableListOf<QualifiedClass>()
+        val imports = HashSet<String>()
+        val identifiers = HashSet<String>()
+        var declaredPackage = ""
+        var referencePackage = ""
+
+        try {
+            sourceFile.text.lineSequence().forEach { line ->
+                PACKAGE_PATTERN.find(line)?.let { match ->
+                    declaredPackage = match.groupValues[1]
+                }
+                CLASS_PATTERN.find(line)?.let { match ->
+                    declaredTypes.add(QualifiedClass(declaredPackage, match.groupValues[1]))
+                }
+
+                val trimmedLine = line.trim()
+                if (trimmedLine.startsWith("package ")) {
+                    referencePackage = PACKAGE_STATEMENT_PATTERN.find(trimmedLine)?.groupValues?.get(1) ?: ""
+                }
+                if (trimmedLine.startsWith("import ")) {
+                    imports.add(trimmedLine)
+                }
+                IDENTIFIER_PATTERN.findAll(line).forEach { identifiers.add(it.value) }
+            }
+        } catch (e: Exception) {
+            // Ignore read errors
+        }
+
+        return FileEntry(sourceFile.file, declaredTypes, imports, referencePackage, identifiers)
+    }
+
+    private companion object {
+        val CLASS_PATTERN = Regex("""^\s*(?:public\s+)?(?:abstract\s+)?(?:final\s+)?(?:class|interface|enum)\s+(\w+)""")
+        val PACKAGE_PATTERN = Regex("""^\s*package\s+([\w.]+)\s*;""")
+        val PACKAGE_STATEMENT_PATTERN = Regex("""^package\s+([\w.]+)\s*;""")
+        val IDENTIFIER_PATTERN = Regex("""\w+""")
+        val IMPORT_PATTERN = Regex("""^import\s+(static\s+)?([\w.]+?)(\.\*)?\s*;""")
+    }
+}
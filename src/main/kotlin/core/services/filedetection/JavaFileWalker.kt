@@ -0,0 +1,152 @@
+package org.example.core.services.filedetection
+
+import java.io.IOException
+import java.nio.file.FileSystems
+import java.nio.file.FileVisitOption
+import java.nio.file.FileVisitResult
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.PathMatcher
+import java.nio.file.SimpleFileVisitor
+import java.nio.file.attribute.BasicFileAttributes
+import java.util.EnumSet
+
+/**
+ * Collects the `.java` files of a project, following symbolic links.
+ *
+ * Directories matched by a `.gitignore` rule (of their own or any parent directory up to the
+ * root), by one of the [excludes] globs, or named `.git` are pruned before they are opened.
+ * Exclude globs are relative to the walked root, e.g. `legacy/**` or `**/generated-sources`.
+ */
+class JavaFileWalker(excludes: List<String> = emptyList()) {
+
+    private val fileExcludes: List<PathMatcher> = excludes.map { matcher(it) }
+
+    /** `dir/**` also prunes `dir` itself, so its subtree is never opened */
+    private val directoryExcludes: List<PathMatcher> = excludes.map { matcher(it.removeSuffix("/**")) }
+
+    /**
+     * The `.gitignore` rules of one directory
+     */
+    private class IgnoreScope(val directory: Path, val rules: IgnoreRules)
+
+    /**
+     * Collect the Java files under [root] into a [FileInventory], with their size and modification time.
+     */
+    fun walk(root: Path): FileInventory {
+        val walkStart = System.nanoTime()
+        val files = mutableListOf<SourceFile>()
+        var skippedDirectories = 0
+        var skippedFiles = 0
+        val scopes = ArrayDeque<IgnoreScope>()
+
+        Files.walkFileTree(root, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Int.MAX_VALUE, object : SimpleFileVisitor<Path>() {
+            override fun preVisitDirectory(dir: Path, attrs: BasicFileAttributes): FileVisitResult {
+                if (dir != root && isExcluded(root, dir, true, scopes)) {
+                    skippedDirectories++
+                    return FileVisitResult.SKIP_SUBTREE
+                }
+                scopes.addLast(IgnoreScope(dir, readIgnoreRules(dir)))
+                return FileVisitResult.CONTINUE
+            }
+
+            override fun postVisitDirectory(dir: Path, exc: IOException?): FileVisitResult {
+                scopes.removeLastOrNull()
+                return FileVisitResult.CONTINUE
+            }
+
+            override fun visitFile(file: Path, attrs: BasicFileAttributes): FileVisitResult {
+                if (attrs.isRegularFile && file.fileName.toString().endsWith(".java")) {
+                    if (isExcluded(root, file, false, scopes)) {
+                        skippedFiles++
+                    } else {
+                        files.add(SourceFile(file.toFile(), attrs.size(), attrs.lastModifiedTime().toMillis()))
+                    }
+                }
+                return FileVisitResult.CONTINUE
+            }
+
+            override fun visitFileFailed(file: Path, exc: IOException): FileVisitResult = FileVisitResult.CONTINUE
+        })
+
+        val walkMillis = (System.nanoTime() - walkStart) / 1_000_000
+        return FileInventory(root.toFile(), files, skippedDirectories, skippedFiles, walkMillis)
+    }
+
+    /**
+     * Visit [start] and the directories below it that [walk] would open from [root], parents first.
+     * [start] is [root] or a directory under it; nothing is visited when it is itself left out.
+     */
+    fun visitDirectories(root: Path, start: Path, visit: (Path) -> Unit) {
+        val scopes = ArrayDeque(ancestorScopes(root, start))
+        if (start != root && isExcluded(root, start, true, scopes)) return
+
+        Files.walkFileTree(start, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Int.MAX_VALUE, object : SimpleFileVisitor<Path>() {
+            override fun preVisitDirectory(dir: Path, attrs: BasicFileAttributes): FileVisitResult {
+                if (dir != start && isExcluded(root, dir, true, scopes)) return FileVisitResult.SKIP_SUBTREE
+                scopes.addLast(IgnoreScope(dir, readIgnoreRules(dir)))
+                visit(dir)
+                return FileVisitResult.CONTINUE
+            }
+
+            override fun postVisitDirectory(dir: Path, exc: IOException?): FileVisitResult {
+                scopes.removeLastOrNull()
+                return FileVisitResult.CONTINUE
+            }
+
+            override fun visitFileFailed(file: Path, exc: IOException): FileVisitResult = FileVisitResult.CONTINUE
+        })
+    }
+
+    /**
+     * Whether [walk] from [root] leaves out [path], a file or directory under [root].
+     */
+    fun isExcluded(root: Path, path: Path, isDirectory: Boolean): Boolean {
+        return path != root && isExcluded(root, path, isDirectory, ancestorScopes(root, path))
+    }
+
+    /**
+     * The `.gitignore` rules of the directories from [root] down to the parent of [path], outermost first.
+     */
+    private fun ancestorScopes(root: Path, path: Path): List<IgnoreScope> {
+        val scopes = mutableListOf<IgnoreScope>()
+        var dir = path.parent
+        while (dir != null && dir.startsWith(root)) {
+            scopes.add(IgnoreScope(dir, readIgnoreRules(dir)))
+            dir = dir.parent
+        }
+        return scopes.asReversed()
+    }
+
+    /**
+     * Whether [path] is left out. [scopes] hold the `.gitignore` rules of its parent directories.
+     */
+    private fun isExcluded(root: Path, path: Path, isDirectory: Boolean, scopes: List<IgnoreScope>): Boolean {
+        if (isDirectory && path.fileName.toString() == ".git") return true
+        val relativePath = root.relativize(path)
+        val excludes = if (isDirectory) directoryExcludes else fileExcludes
+        if (excludes.any { it.matches(relativePath) }) return true
+
+        // Deeper .gitignore files override their parents
+        for (scope in scopes.asReversed()) {
+            if (scope.rules.isEmpty) continue
+            scope.rules.match(scope.directory.relativize(path).joinToString("/"), isDirectory)?.let { return it }
+        }
+        return false
+    }
+
+    private fun readIgnoreRules(dir: Path): IgnoreRules {
+        val gitignore = dir.resolve(".gitignore")
+        return try {
+            if (Files.isRegularFile(gitignore)) IgnoreRules(Files.readAllLines(gitignore)) else NO_RULES
+        } catch (e: Exception) {
+            NO_RULES
+        }
+    }
+
+    private fun matcher(glob: String): PathMatcher = FileSystems.getDefault().getPathMatcher("glob:$glob")
+
+    private companion object {
+        val NO_RULES = IgnoreRules(emptyList())
+    }
+}
@@ -0,0 +1,160 @@
+package org.example.core.services.filedetection
+
+/**
+ * Minimal Java tokenizer for lexical prepasses that do not need a full parse.
+ *
+ * Comments and whitespace are dropped. String literals are unescaped; text blocks, char and
+ * number literals are kept as opaque [Kind.OTHER] tokens.
+ */
+object JavaLexer {
+
+    enum class Kind { IDENTIFIER, STRING, PUNCTUATION, OTHER }
+
+    /**
+     * @property start Offset of the token in the source
+     * @property end Offset just after the token
+     */
+    data class Token(val kind: Kind, val text: String, val start: Int = 0, val end: Int = 0) {
+        fun isPunctuation(char: Char): Boolean = kind == Kind.PUNCTUATION && text.length == 1 && text[0] == char
+        fun isIdentifier(name: String): Boolean = kind == Kind.IDENTIFIER && text == name
+    }
+
+    fun tokenize(source: String): List<Token> {
+        val tokens = mutableListOf<Token>()
+        var i = 0
+        val n = source.length
+        while (i < n) {
+            val c = source[i]
+            val tokenStart = i
+            when {
+                c.isWhitespace() -> i++
+                source.startsWith("//", i) -> {
+                    i = source.indexOf('\n', i).let { if (it < 0) n else it }
+                }
+                source.startsWith("/*", i) -> {
+                    i = source.indexOf("*/", i + 2).let { if (it < 0) n else it + 2 }
+                }
+                source.startsWith("\"\"\"", i) -> {
+                    val end = source.indexOf("\"\"\"", i + 3).let { if (it < 0) n else it + 3 }
+                    tokens.add(Token(Kind.OTHER, source.substring(i, end), tokenStart, end))
+                    i = end
+                }
+                c == '"' -> {
+                    val value = StringBuilder()
+                    i++
+                    while (i < n && source[i] != '"' && source[i] != '\n') {
+                        if (source[i] == '\\' && i + 1 < n) {
+                            i = unescape(source, i, value)
+                        } else {
+                            value.append(source[i++])
+                        }
+                    }
+                    i++
+                    tokens.add(Token(Kind.STRING, value.toString(), tokenStart, minOf(i, n)))
+                }
+                c == '\'' -> {
+                    val start = i++
+                    while (i < n && source[i] != '\'' && source[i] != '\n') {
+                        i += if (source[i] == '\\') 2 else 1
+                    }
+                    i++
+                    tokens.add(Token(Kind.OTHER, source.substring(start, minOf(i, n)), start, minOf(i, n)))
+                }
+                Character.isJavaIdentifierStart(c) -> {
+                    val start = i
+                    while (i < n && Character.isJavaIdentifierPart(source[i])) i++
+                    tokens.add(Token(Kind.IDENTIFIER, source.substring(start, i), start, i))
+                }
+                c.isDigit() -> {
+                    val start = i
+                    while (i < n && (source[i].isLetterOrDigit() || source[i] == '_' || source[i] == '.')) i++
+                    tokens.add(Token(Kind.OTHER, source.substring(start, i), start, i))
+                }
+                else -> {
+                    tokens.add(Token(Kind.PUNCTUATION, c.toString(), tokenStart, i + 1))
+                    i++
+                }
+            }
+        }
+        return tokens
+    }
+
+    /**
+     * For each `(`, `[` or `{` the index of the matching closing token, and the reverse; -1 elsewhere.
+     */
+    fun matchBrackets(tokens: List<Token>): IntArray {
+        val matching = IntArray(tokens.size) { -1 }
+        val open = ArrayDeque<Int>()
+        tokens.forEachIndexed { i, token ->
+            when {
+                token.isPunctuation('(') || token.isPunctuation('[') || token.isPunctuation('{') -> open.addLast(i)
+                token.isPunctuation(')') || token.isPunctuation(']') || token.isPunctuation('}') -> {
+                    open.removeLastOrNull()?.let { start ->
+                        matching[start] = i
+                        matching[i] = start
+                    }
+                }
+            }
+        }
+        return matching
+    }
+
+    /**
+     * The [tokens] without their annotations (`@Name`, `@a.b.Name(...)`).
+     */
+    fun withoutAnnotations(tokens: List<Token>): List<Token> {
+        val result = mutableListOf<Token>()
+        var i = 0
+        while (i < tokens.size) {
+            if (tokens[i].isPunctuation('@') && tokens.getOrNull(i + 1)?.kind == Kind.IDENTIFIER) {
+                i += 2
+                while (tokens.getOrNull(i)?.isPunctuation('.') == true) i += 2
+                if (tokens.getOrNull(i)?.isPunctuation('(') == true) {
+                    var parens = 0
+                    do {
+                        if (tokens[i].isPunctuation('(')) parens++
+                        if (tokens[i].isPunctuation(')')) parens--
+                        i++
+                    } while (i < tokens.size && parens > 0)
+                }
+                continue
+            }
+            result.add(tokens[i++])
+        }
+        return result
+    }
+
+    /**
+     * Append the character of the escape sequence at [start] to [value]; returns the index after it.
+     */
+    private fun unescape(source: String, start: Int, value: StringBuilder): Int {
+        val next = source[start + 1]
+        when (next) {
+            'n' -> value.append('\n')
+            't' -> value.append('\t')
+            'r' -> value.append('\r')
+            'b' -> value.append('\b')
+            'f' -> value.append('\u000C')
+            's' -> value.append(' ')
+            'u' -> {
+                var i = start + 1
+                while (i < source.length && source[i] == 'u') i++
+                val hex = source.substring(i, minOf(i + 4, source.length))
+                value.append(hex.toIntOrNull(16)?.toChar() ?: '?')
+                return i + hex.length
+            }
+            in '0'..'7' -> {
+                var i = start + 1
+                var code = 0
+                while (i < source.length && i < start + 4 && source[i] in '0'..'7' && code * 8 + (source[i] - '0') <= 0xFF) {
+                    code = code * 8 + (source[i] - '0')
+                    i++
+                }
+                value.append(code.toChar())
+                return i
+            }
+            else -> value.append(next)
+        }
+        return start + 2
+    }
+}
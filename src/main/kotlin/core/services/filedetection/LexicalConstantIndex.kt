@@ -0,0 +1,348 @@
+package org.example.core.services.filedetection
+
+import org.example.core.services.filedetection.JavaLexer.Kind
+import org.example.core.services.filedetection.JavaLexer.Token
+import org.example.core.services.filedetection.TypeFrameWalker.Step
+import java.io.File
+
+/**
+ * Compile-time `String` constants of every project file, found without building a Spoon model.
+ *
+ * A lexical prepass collects the `static final String` fields (and interface `String` fields)
+ * of each file with their initializer. Initializers made of literals, other constants and `+`
+ * are evaluated on first query, following constant references the way javac does: through the
+ * enclosing types, static imports, imports, the same package and fully qualified names.
+ *
+ * Files are lexed on the first query, and only those that declare a `String`. Safe for
+ * concurrent use.
+ */
+class LexicalConstantIndex(private val files: List<SourceFile>) {
+
+    /**
+     * Names visible in one source file: its package and imports.
+     */
+    class FileScope(
+        val packageName: String,
+        /** Simple name → qualified name of single-type imports */
+        val typeImports: Map<String, String>,
+        val wildcardImports: List<String>,
+        /** Constant name → qualified name of its type, from single static imports */
+        val staticImports: Map<String, String>,
+        val staticWildcardImports: List<String>
+    ) {
+        companion object {
+            /**
+             * Read the package and import declarations at the top of a tokenized file.
+             */
+            fun read(tokens: List<Token>): FileScope {
+                var packageName = ""
+                val typeImports = HashMap<String, String>()
+                val wildcardImports = mutableListOf<String>()
+                val staticImports = HashMap<String, String>()
+                val staticWildcardImports = mutableListOf<String>()
+
+                var i = 0
+                while (i < tokens.size) {
+                    val token = tokens[i]
+                    if (token.isPunctuation(';')) {
+                        i++
+                        continue
+                    }
+                    if (!token.isIdentifier("package") && !token.isIdentifier("import")) break
+                    val end = (i until tokens.size).firstOrNull { tokens[it].isPunctuation(';') } ?: tokens.size
+                    val parts = tokens.subList(i + 1, end)
+                    if (token.text == "package") {
+                        packageName = parts.joinToString("") { it.text }
+                    } else {
+                        val isStatic = parts.firstOrNull()?.isIdentifier("static") == true
+                        val name = parts.drop(if (isStatic) 1 else 0).joinToString("") { it.text }
+                        when {
+                            isStatic && name.endsWith(".*") -> staticWildcardImports.add(name.removeSuffix(".*"))
+                            isStatic -> staticImports[name.substringAfterLast('.')] = name.substringBeforeLast('.')
+                            name.endsWith(".*") -> wildcardImports.add(name.removeSuffix(".*"))
+                            else -> typeImports[name.substringAfterLast('.')] = name
+                        }
+                    }
+                    i = end + 1
+                }
+                return FileScope(packageName, typeImports, wildcardImports, staticImports, staticWildcardImports)
+            }
+        }
+    }
+
+    /**
+     * A constant declaration: its initializer tokens, and where they are evaluated.
+     *
+     * @property enclosingTypes Qualified names of the declaring type and its enclosing types, innermost first
+     */
+    private class Declaration(
+        val initializer: List<Token>,
+        val enclosingTypes: List<String>,
+        val scope: FileScope
+    )
+
+    /** Evaluation state of a declaration: absent = not evaluated yet */
+    private sealed class Evaluation {
+        object InProgress : Evaluation()
+        data class Done(val value: String?) : Evaluation()
+    }
+
+    /** Qualified type name (nested types with `$`) → constant name → declaration */
+    private val declarations: Map<String, Map<String, Declaration>> by lazy { collect() }
+
+    /** Simple type name → qualified names declaring constants */
+    private val typesBySimpleName: Map<String, List<String>> by lazy {
+        declarations.keys.groupBy { it.substringAfterLast('.').substringAfterLast('$') }
+    }
+
+    /** Files declaring at least one constant, filled while [declarations] is collected */
+    private val declaringFiles = HashSet<File>()
+
+    private val evaluations = HashMap<Declaration, Evaluation>()
+
+    /**
+     * Whether [file] declares at least one constant of the index.
+     */
+    @Synchronized
+    fun declaresConstants(file: File): Boolean {
+        declarations
+        return file in declaringFiles
+    }
+
+    /**
+     * Value of the constant [fieldName] of the type [typeName], or null if it is not a
+     * compile-time String constant of the project. A [typeName] without a package (as reported
+     * for types outside a model) matches any project type of that simple name, if only one
+     * declares the constant.
+     */
+    @Synchronized
+    fun constantOf(typeName: String?, fieldName: String): String? {
+        if (typeName == null) return null
+        val declaration = declarations[typeName]?.get(fieldName)
+            ?: typeName.takeIf { !it.contains('.') }?.let { simpleName ->
+                typesBySimpleName[simpleName].orEmpty()
+                    .mapNotNull { declarations[it]?.get(fieldName) }
+                    .singleOrNull()
+            }
+            ?: return null
+        return evaluate(declaration)
+    }
+
+    /**
+     * Value of a constant [expression] written in the type [enclosingTypes] (qualified names,
+     * innermost first) of a file with the given [scope], or null if it is not a compile-time
+     * String constant of the project.
+     */
+    @Synchronized
+    fun evaluate(expression: List<Token>, enclosingTypes: List<String>, scope: FileScope): String? =
+        ExpressionParser(expression, enclosingTypes, scope).parse()
+
+    private fun evaluate(declaration: Declaration): String? {
+        when (val state = evaluations[declaration]) {
+            is Evaluation.Done -> return state.value
+            Evaluation.InProgress -> return null
+            null -> {}
+        }
+        evaluations[declaration] = Evaluation.InProgress
+        val value = ExpressionParser(declaration.initializer, declaration.enclosingTypes, declaration.scope).parse()
+        evaluations[declaration] = Evaluation.Done(value)
+        return value
+    }
+
+    /**
+     * Evaluates `literal | constant | (expr)` terms joined with `+`; anything else is not a constant.
+     */
+    private inner class ExpressionParser(
+        private val tokens: List<Token>,
+        private val enclosingTypes: List<String>,
+        private val scope: FileScope
+    ) {
+        private var position = 0
+
+        fun parse(): String? {
+            val value = expression() ?: return null
+            return if (position == tokens.size) value else null
+        }
+
+        private fun expression(): String? {
+            val result = StringBuilder(term() ?: return null)
+            while (position < tokens.size && tokens[position].isPunctuation('+')) {
+                position++
+                result.append(term() ?: return null)
+            }
+            return result.toString()
+        }
+
+        private fun term(): String? {
+            val token = tokens.getOrNull(position) ?: return null
+            return when {
+                token.kind == Kind.STRING -> {
+                    position++
+                    token.text
+                }
+                token.isPunctuation('(') -> {
+                    position++
+                    val value = expression() ?: return null
+                    if (tokens.getOrNull(position)?.isPunctuation(')') != true) return null
+                    position++
+                    value
+                }
+                token.kind == Kind.IDENTIFIER -> {
+                    val name = mutableListOf(token.text)
+                    position++
+                    while (tokens.getOrNull(position)?.isPunctuation('.') == true &&
+                        tokens.getOrNull(position + 1)?.kind == Kind.IDENTIFIER
+                    ) {
+                        name.add(tokens[position + 1].text)
+                        position += 2
+                    }
+                    // Method calls are not constants
+                    if (tokens.getOrNull(position)?.isPunctuation('(') == true) return null
+                    resolveReference(name)?.let { evaluate(it) }
+                }
+                else -> null
+            }
+        }
+
+        private fun resolveReference(name: List<String>): Declaration? {
+            val fieldName = name.last()
+            if (name.size == 1) {
+                enclosingTypes.forEach { type -> find(type, fieldName)?.let { return it } }
+                scope.staticImports[fieldName]?.let { type -> find(type, fieldName)?.let { return it } }
+                scope.staticWildcardImports.forEach { type -> find(type, fieldName)?.let { return it } }
+                return null
+            }
+            return resolveType(name.dropLast(1))?.let { find(it, fieldName) }
+        }
+
+        /**
+         * Qualified name of the type written as [segments], e.g. `[Paths]`, `[Outer, Inner]` or `[com, example, Paths]`.
+         */
+        private fun resolveType(segments: List<String>): String? {
+            val first = segments.first()
+            val nested = segments.drop(1).joinToString("") { "$$it" }
+            val candidates = sequence {
+                enclosingTypes.forEach { yield("$it$$first$nested") }
+                enclosingTypes.forEach { if (it.substringAfterLast('.').substringAfterLast('$') == first) yield(it + nested) }
+                scope.typeImports[first]?.let { yield(it + nested) }
+                yield(TypeFrameWalker.qualify(scope.packageName, first) + nested)
+                scope.wildcardImports.forEach { yield("$it.$first$nested") }
+                // Fully qualified, possibly followed by nested type names
+                for (split in segments.size downTo 1) {
+                    yield(segments.take(split).joinToString(".") + segments.drop(split).joinToString("") { "$$it" })
+                }
+            }
+            return candidates.firstOrNull { it in declarations }
+        }
+
+        private fun find(type: String, fieldName: String): Declaration? = declarations[type]?.get(fieldName)
+    }
+
+    private fun collect(): Map<String, Map<String, Declaration>> {
+        val result = HashMap<String, MutableMap<String, Declaration>>()
+        for (file in files) {
+            val text = try {
+                file.text
+            } catch (e: Exception) {
+                continue
+            }
+            if (!text.contains("String")) continue
+            if (collectFile(JavaLexer.tokenize(text), result)) declaringFiles.add(file.file)
+        }
+        return result
+    }
+
+    /**
+     * Add the constants of one file to [result]; true if it declares any.
+     */
+    private fun collectFile(tokens: List<Token>, result: MutableMap<String, MutableMap<String, Declaration>>): Boolean {
+        val scope = FileScope.read(tokens)
+        val walker = TypeFrameWalker(tokens, scope.packageName)
+        var declared = false
+        val member = mutableListOf<Token>()
+        var i = 0
+
+        while (i < tokens.size) {
+            val token = tokens[i]
+            val atMemberLevel = walker.atMemberLevel
+
+            when (walker.advance(i)) {
+                Step.TYPE_DECLARED -> {
+                    member.clear()
+                    // Skip the type name
+                    i += 2
+                    continue
+                }
+                Step.TYPE_OPENED -> {}
+                Step.BLOCK_OPENED -> if (atMemberLevel) {
+                    // Method bodies and initializer blocks; an initializer with braces is not a constant
+                    member.clear()
+                    member.add(NOT_CONSTANT)
+                }
+                Step.CLOSED -> if (walker.atMemberLevel) member.clear()
+                Step.OTHER -> when {
+                    atMemberLevel && token.isPunctuation(';') -> {
+                        if (!walker.inTypeHeader) {
+                            val type = walker.currentType!!
+                            readFieldDeclaration(member, type.isInterface)?.forEach { (name, initializer) ->
+                                result.getOrPut(type.qualifiedName) { HashMap() }[name] = Declaration(initializer, walker.enclosingTypes, scope)
+                                declared = true
+                            }
+                        }
+                        member.clear()
+                    }
+                    atMemberLevel && !walker.inTypeHeader -> member.add(token)
+                }
+            }
+            i++
+        }
+        return declared
+    }
+
+    /**
+     * The constants declared by the member tokens before a `;`, as name → initializer tokens,
+     * or null if they are not `static final String` fields with initializers.
+     */
+    private fun readFieldDeclaration(member: List<Token>, inInterface: Boolean): List<Pair<String, List<Token>>>? {
+        if (member.firstOrNull() === NOT_CONSTANT) return null
+        val tokens = JavaLexer.withoutAnnotations(member)
+        val assign = tokens.indexOfFirst { it.isPunctuation('=') }
+        if (assign < 2) return null
+
+        val head = tokens.subList(0, assign)
+        val modifiers = head.filter { it.kind == Kind.IDENTIFIER && it.text in MODIFIERS }.map { it.text }.toSet()
+        if (!inInterface && !("static" in modifiers && "final" in modifiers)) return null
+        val declarator = head.filterNot { it.kind == Kind.IDENTIFIER && it.text in MODIFIERS }
+        val type = declarator.dropLast(1).joinToString("") { it.text }
+        if (type != "String" && type != "java.lang.String") return null
+
+        // `String A = "a", B = A + "b";` declares several constants
+        val constants = mutableListOf<Pair<String, List<Token>>>()
+        var name = declarator.last().text
+        var start = assign + 1
+        var parens = 0
+        for (index in start..tokens.size) {
+            val token = tokens.getOrNull(index)
+            when {
+                token == null || (parens == 0 && token.isPunctuation(',')) -> {
+                    constants.add(name to tokens.subList(start, index))
+                    if (token == null) break
+                    val next = tokens.getOrNull(index + 1)
+                    if (next?.kind != Kind.IDENTIFIER || tokens.getOrNull(index + 2)?.isPunctuation('=') != true) return constants
+                    name = next.text
+                    start = index + 3
+                }
+                token.isPunctuation('(') -> parens++
+                token.isPunctuation(')') -> parens--
+            }
+        }
+        return constants
+    }
+
+    private companion object {
+        val MODIFIERS = setOf("public", "protected", "private", "static", "final", "transient", "volatile")
+
+        /** Marks member tokens that cannot form a constant declaration */
+        val NOT_CONSTANT = Token(Kind.OTHER, "")
+    }
+}
@@ -0,0 +1,208 @@
+package org.example.core.services.filedetection
+
+import org.example.core.services.filedetection.JavaLexer.Kind
+import org.example.core.services.filedetection.JavaLexer.Token
+import org.example.core.services.filedetection.TypeFrameWalker.Step
+import java.io.File
+
+/**
+ * Reduces caller files to what endpoint extraction reads from them ("diet parsing").
+ *
+ * Caller files are in the model for their call sites into client classes and for their
+ * constants. A method or constructor body of a caller file is kept if it calls a method
+ * declared in a client file, or a method whose body is kept (so chains of callers survive),
+ * or if it writes a field of its file. Every other body becomes `{ throw null; }`, which
+ * compiles for any return type. Signatures, field initializers, initializer blocks and enums
+ * are kept as they are, and line breaks are preserved so positions stay the same.
+ *
+ * Method names are matched without types, so a body is kept whenever in doubt.
+ */
+class MethodBodyReducer {
+
+    /**
+     * A method or constructor body, as token indices of its braces.
+     */
+    private class Body(val name: String, val open: Int, val close: Int)
+
+    private class ParsedFile(val sourceFile: SourceFile, val text: String, val tokens: List<Token>, val bodies: List<Body>)
+
+    /**
+     * Reduced sources of the [callerFiles] that lost at least one body.
+     */
+    fun reduce(clientFiles: List<SourceFile>, callerFiles: List<SourceFile>): Map<File, String> {
+        val followed = HashSet<String>()
+        for (client in clientFiles) {
+            val text = readOrNull(client) ?: continue
+            parse(client, text).bodies.mapTo(followed) { it.name }
+        }
+
+        val callers = callerFiles.mapNotNull { file -> readOrNull(file)?.let { parse(file, it) } }
+        val kept = callers.associateWith { caller ->
+            val fields = fieldNames(caller.tokens, caller.bodies)
+            caller.bodies.filter { writesField(caller.tokens, it, fields) }.toMutableSet()
+        }
+
+        // Follow callers of callers until no more bodies are kept
+        var changed = true
+        while (changed) {
+            changed = false
+            for (caller in callers) {
+                val keptBodies = kept.getValue(caller)
+                for (body in caller.bodies) {
+                    if (body in keptBodies || !callsAny(caller.tokens, body, followed)) continue
+                    keptBodies.add(body)
+                    followed.add(body.name)
+                    changed = true
+                }
+                keptBodies.forEach { if (followed.add(it.name)) changed = true }
+            }
+        }
+
+        val reduced = LinkedHashMap<File, String>()
+        for (caller in callers) {
+            val dropped = caller.bodies - kept.getValue(caller)
+            if (dropped.isNotEmpty()) reduced[caller.sourceFile.file] = withoutBodies(caller, dropped)
+        }
+        return reduced
+    }
+
+    private fun readOrNull(file: SourceFile): String? = try {
+        file.text
+    } catch (e: Exception) {
+        null
+    }
+
+    /**
+     * The bodies of the methods and constructors declared directly in the types of a file.
+     */
+    private fun parse(sourceFile: SourceFile, text: String): ParsedFile {
+        val tokens = JavaLexer.tokenize(text)
+        val matching = JavaLexer.matchBrackets(tokens)
+        val bodies = mutableListOf<Body>()
+        val walker = TypeFrameWalker(tokens)
+        var memberStart = 0
+        var i = 0
+
+        while (i < tokens.size) {
+            val token = tokens[i]
+            val atMemberLevel = walker.atMemberLevel
+            val type = walker.currentType
+            when (walker.advance(i)) {
+                Step.TYPE_DECLARED -> {}
+                Step.TYPE_OPENED -> memberStart = i + 1
+                Step.BLOCK_OPENED -> {
+                    val member = tokens.subList(memberStart, i)
+                    val parameters = if (atMemberLevel) parameterListStart(member) else null
+                    // Enum constants may have bodies too
+                    if (parameters != null && !type!!.isEnum && matching[i] > i) {
+                        bodies.add(Body(member[parameters - 1].text, i, matching[i]))
+                        // The body is not descended into: the walk goes on at its closing brace
+                        i = matching[i]
+                        continue
+                    }
+                }
+                Step.CLOSED -> if (walker.atMemberLevel) memberStart = i + 1
+                Step.OTHER -> if (atMemberLevel && token.isPunctuation(';')) memberStart = i + 1
+            }
+            i++
+        }
+        return ParsedFile(sourceFile, text, tokens, bodies)
+    }
+
+    /**
+     * Index of the `(` opening the parameter list if the member tokens before a `{` declare a
+     * method or constructor: the last top-level parenthesis group, with no top-level `=` (field
+     * initializers) before it.
+     */
+    private fun parameterListStart(member: List<Token>): Int? {
+        var parens = 0
+        var lastOpen = -1
+        member.forEachIndexed { k, token ->
+            when {
+                token.isPunctuation('(') -> {
+                    if (parens == 0) lastOpen = k
+                    parens++
+                }
+                token.isPunctuation(')') -> parens--
+                token.isPunctuation('=') && parens == 0 -> return null
+            }
+        }
+        if (parens != 0 || lastOpen < 1) return null
+        // `@Annotation(...)` alone is not a method
+        val name = member[lastOpen - 1]
+        if (name.kind != Kind.IDENTIFIER || member.getOrNull(lastOpen - 2)?.isPunctuation('@') == true) return null
+        return lastOpen
+    }
+
+    /**
+     * Names declared by `Type name =|;|,` at member level, outside the bodies.
+     */
+    private fun fieldNames(tokens: List<Token>, bodies: List<Body>): Set<String> {
+        val inBody = BooleanArray(tokens.size)
+        bodies.forEach { for (k in it.open..it.close) inBody[k] = true }
+        val names = HashSet<String>()
+        for (k in 1 until tokens.size - 1) {
+            if (inBody[k]) continue
+            val previous = tokens[k - 1]
+            val next = tokens[k + 1]
+            if (tokens[k].kind == Kind.IDENTIFIER &&
+                (previous.kind == Kind.IDENTIFIER || previous.isPunctuation('>') || previous.isPunctuation(']')) &&
+                (next.isPunctuation('=') || next.isPunctuation(';') || next.isPunctuation(','))
+            ) {
+                names.add(tokens[k].text)
+            }
+        }
+        return names
+    }
+
+    /**
+     * Whether [body] assigns one of the [fields] (`x = `, `this.x += `, `x++`...).
+     */
+    private fun writesField(tokens: List<Token>, body: Body, fields: Set<String>): Boolean {
+        for (k in body.open + 1 until body.close) {
+            val token = tokens[k]
+            if (token.kind != Kind.IDENTIFIER || token.text !in fields) continue
+            val previous = tokens[k - 1]
+            if (previous.isPunctuation('.') && !tokens[k - 2].isIdentifier("this")) continue
+            val next = tokens[k + 1]
+            val afterNext = tokens.getOrNull(k + 2)
+            val isAssignment = next.isPunctuation('=') && afterNext?.isPunctuation('=') != true ||
+                next.kind == Kind.PUNCTUATION && next.text in COMPOUND_OPERATOR_STARTS && afterNext?.isPunctuation('=') == true &&
+                    tokens.getOrNull(k + 3)?.isPunctuation('=') != true
+            val isIncrement = (next.isPunctuation('+') && afterNext?.isPunctuation('+') == true) ||
+                (next.isPunctuation('-') && afterNext?.isPunctuation('-') == true) ||
+                (previous.isPunctuation('+') && tokens[k - 2].isPunctuation('+')) ||
+                (previous.isPunctuation('-') && tokens[k - 2].isPunctuation('-'))
+            if (isAssignment || isIncrement) return true
+        }
+        return false
+    }
+
+    private fun callsAny(tokens: List<Token>, body: Body, names: Set<String>): Boolean {
+        for (k in body.open + 1 until body.close) {
+            if (tokens[k].kind == Kind.IDENTIFIER && tokens[k].text in names && tokens[k + 1].isPunctuation('(')) return true
+        }
+        return false
+    }
+
+    private fun withoutBodies(file: ParsedFile, dropped: Collection<Body>): String {
+        val result = StringBuilder(file.text.length)
+        var copied = 0
+        for (body in dropped.sortedBy { it.open }) {
+            val start = file.tokens[body.open].start
+            val end = file.tokens[body.close].end
+            result.append(file.text, copied, start)
+            result.append("{ throw null; ")
+            // Keep the line breaks of the body so later lines keep their numbers
+            file.text.subSequence(start, end).forEach { if (it == '\n') result.append('\n') }
+            result.append('}')
+            copied = end
+        }
+        result.append(file.text, copied, file.text.length)
+        return result.toString()
+    }
+
+    private companion object {
+        val COMPOUND_OPERATOR_STARTS = setOf("+", "-", "*", "/", "%", "&", "|", "^")
+    }
+}
@@ -1,6 +1,19 @@
 package org.example.core.services.filedetection
 
 import java.io.File
+import java.io.PrintStream
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executors
+
+/**
+ * Wall-clock time spent in each phase of a project scan, in milliseconds.
+ */
+data class ScanTimings(
+    val walkMillis: Long = 0,
+    val probeMillis: Long = 0,
+    val callerMillis: Long = 0
+)
 
 /**
  * Result of a project scan for HTTP client files.
@@ -8,7 +21,12 @@ import java.io.File
 data class ScanResult(
     val clientFiles: List<File>,
     val callerFiles: List<File>,
-    val allRelevantFiles: List<File>
+    val allRelevantFiles: List<File>,
+    val timings: ScanTimings = ScanTimings(),
+    /** Client names of the detectors that flagged each client file */
+    val clientsByFile: Map<File, List<String>> = emptyMap(),
+    /** Every Java file of the project */
+    val inventory: FileInventory? = null
 ) {
     val totalFiles: Int get() = allRelevantFiles.size
     val clientFileCount: Int get() = clientFiles.size
@@ -21,12 +39,20 @@ data class ScanResult(
  * Uses a two-phase approach:
  * 1. Find files containing HTTP client usage (fast text search)
  * 2. Find files that call/reference those files (for context resolution)
+ *
+ * Each file is scanned once in phase 1 for the patterns of every detector (see [ClientPrefilter]).
+ * With [probeConcurrency] above 1, files are scanned on that many threads at a time,
+ * which mostly pays off on slow (e.g. network-mounted) file systems.
  */
 class ProjectFileScanner(
     private val detectors: List<ClientFileDetector>,
-    private val callerResolver: CallerResolver = CallerResolver()
+    private val callerResolver: CallerResolver = CallerResolver(),
+    private val probeConcurrency: Int = 1,
+    private val walker: JavaFileWalker = JavaFileWalker()
 ) {
     
+    private val prefilter = ClientPrefilter(detectors)
+    
     /**
      * Scan a project directory and return relevant files.
      * 
@@ -38,18 +64,29 @@ class ProjectFileScanner(
         require(projectDir.isDirectory) { "Project path must be a directory: ${projectDir.absolutePath}" }
         
         // Collect all Java files
-        val allJavaFiles = projectDir.walkTopDown()
-            .filter { it.isFile && it.extension == "java" }
-            .toList()
+        return scan(walker.walk(projectDir.toPath()), callerDepth)
+    }
+    
+    /**
+     * Scan the files of an [inventory] already collected from the project directory.
+     * 
+     * @param inventory The Java files of the project
+     * @param callerDepth How many levels of callers to include (0 = only client files)
+     * @return ScanResult with categorized files
+     */
+    fun scan(inventory: FileInventory, callerDepth: Int = 1): ScanResult {
+        val projectDir = inventory.root
+        val allJavaFiles = inventory.files
         
         if (allJavaFiles.isEmpty()) {
             throw RuntimeException("No Java files found in: ${projectDir.absolutePath}")
         }
         
         // Phase 1: Find files containing HTTP clients
-        val clientFiles = allJavaFiles.filter { file ->
-            detectors.any { detector -> detector.mightContainClient(file) }
-        }
+        val probeStart = System.nanoTime()
+        val clientsByFile = findClientFiles(allJavaFiles)
+        val clientFiles = clientsByFile.keys.toList()
+        val probeMillis = millisSince(probeStart)
         
         if (clientFiles.isEmpty()) {
             val detectorNames = detectors.joinToString(", ") { it.clientName }
@@ -57,29 +94,80 @@ class ProjectFileScanner(
         }
         
         // Phase 2: Find callers if depth > 0
-        val allRelevantFiles = if (callerDepth > 0) {
-            callerResolver.findCallers(clientFiles, allJavaFiles, callerDepth)
-        } else {
-            clientFiles.toSet()
-        }
+        val callerStart = System.nanoTime()
+        val allRelevantFiles = findRelevantFiles(clientFiles, inventory, callerDepth)
+        val callerMillis = millisSince(callerStart)
         
         val callerFiles = allRelevantFiles - clientFiles.toSet()
         
         return ScanResult(
             clientFiles = clientFiles,
             callerFiles = callerFiles.toList(),
-            allRelevantFiles = allRelevantFiles.toList()
+            allRelevantFiles = allRelevantFiles.toList(),
+            timings = ScanTimings(inventory.walkMillis, probeMillis, callerMillis),
+            clientsByFile = clientsByFile.mapValues { (_, matched) -> matched.map { it.clientName } },
+            inventory = inventory
         )
     }
     
     /**
-     * Print scan statistics to stderr (for CLI feedback)
+     * The [clientFiles] and their callers up to [callerDepth] levels among the files of [inventory].
+     */
+    fun findRelevantFiles(clientFiles: List<File>, inventory: FileInventory, callerDepth: Int): Set<File> {
+        return if (callerDepth > 0) {
+            callerResolver.findCallers(clientFiles, inventory.files, callerDepth)
+        } else {
+            clientFiles.toSet()
+        }
+    }
+    
+    /**
+     * Files that any detector flags, in the order of [files], with the detectors that flagged them.
      */
-    fun printScanStats(result: ScanResult) {
+    private fun findClientFiles(files: List<SourceFile>): Map<File, List<ClientFileDetector>> {
+        val matches = if (probeConcurrency <= 1 || files.size <= 1) {
+            files.map { prefilter.matchingDetectors(it) }
+        } else {
+            val pool = Executors.newFixedThreadPool(minOf(probeConcurrency, files.size))
+            try {
+                val probes = files.map { file -> pool.submit(Callable { prefilter.matchingDetectors(file) }) }
+                probes.map { it.get() }
+            } catch (e: ExecutionException) {
+                throw e.cause ?: e
+            } finally {
+                pool.shutdownNow()
+            }
+        }
+        
+        val clientsByFile = LinkedHashMap<File, List<ClientFileDetector>>()
+        files.forEachIndexed { i, sourceFile ->
+            if (matches[i].isNotEmpty()) clientsByFile[sourceFile.file] = matches[i]
+        }
+        return clientsByFile
+    }
+    
+    private fun millisSince(start: Long): Long = (System.nanoTime() - start) / 1_000_000
+    
+    /**
+     * Print scan statistics to [stream] (for CLI feedback)
+     */
+    fun printScanStats(result: ScanResult, stream: PrintStream = System.err) {
         val detectorNames = detectors.joinToString(", ") { it.clientName }
-        System.err.println("Scan complete:")
-        System.err.println("  - Files with HTTP clients ($detectorNames): ${result.clientFileCount}")
-        System.err.println("  - Caller files (for context): ${result.callerFileCount}")
-        System.err.println("  - Total files to analyze: ${result.totalFiles}")
+        stream.println("Scan complete:")
+        stream.println("  - Files with HTTP clients ($detectorNames): ${result.clientFileCount}")
+        if (detectors.size > 1) {
+            val matchesPerClient = result.clientsByFile.values.flatten().groupingBy { it }.eachCount()
+            detectors.forEach { detector ->
+                stream.println("      ${detector.clientName}: ${matchesPerClient[detector.clientName] ?: 0}")
+            }
+        }
+        stream.println("  - Caller files (for context): ${result.callerFileCount}")
+        stream.println("  - Total files to analyze: ${result.totalFiles}")
+        result.inventory?.takeIf { it.skippedDirectories > 0 || it.skippedFiles > 0 }?.let { inventory ->
+            stream.println("  - Skipped (ignored or excluded): ${inventory.skippedDirectories} directories, ${inventory.skippedFiles} files")
+        }
+        with(result.timings) {
+            stream.println("  - Timings: walk ${walkMillis} ms, client detection ${probeMillis} ms, caller resolution ${callerMillis} ms")
+        }
     }
 }
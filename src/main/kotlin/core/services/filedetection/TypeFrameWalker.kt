@@ -0,0 +1,100 @@
+package org.example.core.services.filedetection
+
+import org.example.core.services.filedetection.JavaLexer.Kind
+import org.example.core.services.filedetection.JavaLexer.Token
+
+/**
+ * Follows the type declarations of a tokenized Java file by brace depth, for the lexical passes
+ * that read members without a parse ([LexicalConstantIndex], [MethodBodyReducer] and the lexical
+ * fast path).
+ *
+ * Callers walk the tokens in order and pass each one to [advance], which tells what the token
+ * does to the nesting. Only top-level and member types are followed: local and anonymous
+ * classes are plain blocks of the member they are in.
+ */
+class TypeFrameWalker(private val tokens: List<Token>, private val packageName: String = "") {
+
+    /**
+     * One type body: its qualified name (nested types with `$`), the keyword declaring it and
+     * the brace depth of its members.
+     */
+    class TypeFrame(val qualifiedName: String, val simpleName: String, val keyword: String, val memberDepth: Int) {
+        /** Fields of interfaces (and annotation types) are implicitly static final */
+        val isInterface: Boolean get() = keyword == "interface"
+        val isEnum: Boolean get() = keyword == "enum"
+    }
+
+    enum class Step {
+        /** The keyword of a top-level or member type declaration; its body opens with a later [TYPE_OPENED] */
+        TYPE_DECLARED,
+        TYPE_OPENED,
+        /** Any other `{`: method bodies, initializer blocks, local and anonymous classes, statements */
+        BLOCK_OPENED,
+        /** Any `}`; the type whose body it closes is left */
+        CLOSED,
+        OTHER
+    }
+
+    private val frames = ArrayDeque<TypeFrame>()
+    private var pendingType: TypeFrame? = null
+
+    var depth = 0
+        private set
+
+    /** The innermost type body of the walk, or null outside every type */
+    val currentType: TypeFrame? get() = frames.lastOrNull()
+
+    /** Whether a type was declared and its body is not open yet */
+    val inTypeHeader: Boolean get() = pendingType != null
+
+    /** Whether the walk is directly in a type body, between its members */
+    val atMemberLevel: Boolean get() = frames.isNotEmpty() && depth == frames.last().memberDepth
+
+    /** Qualified names of the enclosing types, innermost first */
+    val enclosingTypes: List<String> get() = frames.reversed().map { it.qualifiedName }
+
+    /**
+     * Move past the token at [index], which comes right after the previous one passed.
+     */
+    fun advance(index: Int): Step {
+        val token = tokens[index]
+        return when {
+            isTypeKeyword(tokens, index) && (frames.isEmpty() || atMemberLevel) -> {
+                val name = tokens[index + 1].text
+                val qualifiedName = frames.lastOrNull()?.let { "${it.qualifiedName}$$name" } ?: qualify(packageName, name)
+                pendingType = TypeFrame(qualifiedName, name, token.text, depth + 1)
+                Step.TYPE_DECLARED
+            }
+            token.isPunctuation('{') -> {
+                depth++
+                val type = pendingType ?: return Step.BLOCK_OPENED
+                frames.addLast(type)
+                pendingType = null
+                Step.TYPE_OPENED
+            }
+            token.isPunctuation('}') -> {
+                depth--
+                if (frames.isNotEmpty() && depth < frames.last().memberDepth) frames.removeLast()
+                Step.CLOSED
+            }
+            else -> Step.OTHER
+        }
+    }
+
+    companion object {
+        private val TYPE_KEYWORDS = setOf("class", "interface", "enum", "record")
+
+        /**
+         * Whether the token at [index] declares a type named by the next token (not `Foo.class`),
+         * at any depth.
+         */
+        fun isTypeKeyword(tokens: List<Token>, index: Int): Boolean {
+            val token = tokens[index]
+            return token.kind == Kind.IDENTIFIER && token.text in TYPE_KEYWORDS &&
+                tokens.getOrNull(index - 1)?.isPunctuation('.') != true &&
+                tokens.getOrNull(index + 1)?.kind == Kind.IDENTIFIER
+        }
+
+        fun qualify(packageName: String, name: String): String = if (packageName.isEmpty()) name else "$packageName.$name"
+    }
+}
@@ -20,13 +20,24 @@ class PactReader {
         require(directory.exists()) { "Pact directory not found at: $directoryPath" }
         require(directory.isDirectory) { "Pact path must be a directory: $directoryPath" }
         
-        val jsonFiles = directory.listFiles { file ->
-            file.isFile && file.name.endsWith(".json", ignoreCase = true)
-        } ?: emptyArray()
+        val jsonFiles = listPactFiles(directoryPath)
         
         require(jsonFiles.isNotEmpty()) { "No JSON files found in directory: $directoryPath" }
         
-        return jsonFiles.map { file ->
+        return readFiles(jsonFiles)
+    }
+
+    /**
+     * JSON files directly inside a directory (none if it is not one).
+     */
+    fun listPactFiles(directoryPath: String): List<File> {
+        return File(directoryPath).listFiles { file ->
+            file.isFile && file.name.endsWith(".json", ignoreCase = true)
+        }?.toList() ?: emptyList()
+    }
+
+    fun readFiles(files: List<File>): List<Pact> {
+        return files.map { file ->
             try {
                 objectMapper.readValue(file, Pact::class.java)
             } catch (e: Exception) {
@@ -0,0 +1,41 @@
+package org.example.core.services.reports
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.module.kotlin.kotlinModule
+import org.example.core.entities.Coverage
+import org.example.core.entities.Endpoint
+import org.example.core.entities.EndpointData
+import org.example.core.entities.HttpMethod
+import org.example.core.entities.ReportData
+import java.io.File
+
+/**
+ * Reads the coverage of a report written by [JsonReportWriter], e.g. as the baseline of a delta run.
+ */
+class JsonReportReader {
+    private val objectMapper = ObjectMapper().registerModule(kotlinModule())
+
+    fun readCoverage(reportPath: String): Coverage {
+        val file = File(reportPath)
+        require(file.isFile) { "Baseline report not found at: $reportPath" }
+        val reportData = try {
+            objectMapper.readValue(file, ReportData::class.java)
+        } catch (e: Exception) {
+            throw IllegalArgumentException("Failed to read baseline report $reportPath: ${e.message}", e)
+        }
+        val coverage = requireNotNull(reportData.coverage) { "Baseline report has no coverage: $reportPath" }
+
+        return Coverage(
+            totalCodeEndpoints = coverage.totalEndpoints,
+            matchedByPact = coverage.matchedByPact,
+            coveragePercent = coverage.coveragePercent,
+            missingEndpoints = coverage.missingEndpoints.map { toEndpoint(it, reportPath) },
+            matchedEndpoints = coverage.matchedEndpoints.map { toEndpoint(it, reportPath) }
+        )
+    }
+
+    private fun toEndpoint(data: EndpointData, reportPath: String): Endpoint {
+        val method = requireNotNull(HttpMethod.fromString(data.method)) { "Unknown HTTP method ${data.method} in $reportPath" }
+        return Endpoint(data.path, method, data.sourceFile, data.dynamicReason, data.otherSourceFiles.toSet())
+    }
+}
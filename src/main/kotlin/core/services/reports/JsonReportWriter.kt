@@ -3,8 +3,14 @@ package org.example.core.services.reports
 import com.fasterxml.jackson.databind.ObjectMapper
 import com.fasterxml.jackson.databind.SerializationFeature
 import com.fasterxml.jackson.module.kotlin.kotlinModule
+import org.example.core.entities.Endpoint
 import org.example.core.entities.EndpointData
 import org.example.core.entities.CoverageData
+import org.example.core.entities.CoverageDelta
+import org.example.core.entities.CoverageSummaryData
+import org.example.core.entities.DeltaEndpointData
+import org.example.core.entities.DeltaReportData
+import org.example.core.entities.EndpointStatus
 import org.example.core.entities.Report
 import org.example.core.entities.ReportData
 import java.io.File
@@ -24,8 +30,8 @@ class JsonReportWriter : ReportWriter {
                     totalEndpoints = cov.totalCodeEndpoints,
                     matchedByPact = cov.matchedByPact,
                     coveragePercent = cov.coveragePercent,
-                    missingEndpoints = cov.missingEndpoints.map { EndpointData(it.path, it.method.value, it.sourceFile) },
-                    matchedEndpoints = cov.matchedEndpoints.map { EndpointData(it.path, it.method.value, it.sourceFile) }
+                    missingEndpoints = cov.missingEndpoints.map { toData(it) },
+                    matchedEndpoints = cov.matchedEndpoints.map { toData(it) }
                 )
             }
         )
@@ -35,4 +41,33 @@ class JsonReportWriter : ReportWriter {
         
         objectMapper.writeValue(outputFile, reportData)
     }
-}
\ No newline at end of file
+
+    override fun writeDeltaReport(delta: CoverageDelta, reportOutput: String) {
+        val deltaData = DeltaReportData(
+            timestamp = LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME),
+            baselineCoveragePercent = delta.baselineCoveragePercent,
+            coverage = CoverageSummaryData(
+                totalEndpoints = delta.coverage.totalCodeEndpoints,
+                matchedByPact = delta.coverage.matchedByPact,
+                coveragePercent = delta.coverage.coveragePercent
+            ),
+            added = delta.added.map { toDeltaData(it) },
+            removed = delta.removed.map { toDeltaData(it) },
+            statusChanged = delta.statusChanged.map { toDeltaData(it) }
+        )
+
+        val outputFile = File(reportOutput)
+        outputFile.parentFile?.mkdirs()
+
+        objectMapper.writeValue(outputFile, deltaData)
+    }
+
+    private fun toData(endpoint: Endpoint): EndpointData {
+        return EndpointData(endpoint.path, endpoint.method.value, endpoint.sourceFile, endpoint.dynamicReason, endpoint.otherSourceFiles.sorted())
+    }
+
+    private fun toDeltaData(status: EndpointStatus): DeltaEndpointData {
+        val endpoint = status.endpoint
+        return DeltaEndpointData(endpoint.path, endpoint.method.value, endpoint.sourceFile, if (status.matched) "matched" else "missing")
+    }
+}
@@ -1,7 +1,10 @@
 package org.example.core.services.reports
 
+import org.example.core.entities.CoverageDelta
 import org.example.core.entities.Report
 
 interface ReportWriter {
     fun writeReport(report: Report, reportOutput: String)
+
+    fun writeDeltaReport(delta: CoverageDelta, reportOutput: String)
 }
\ No newline at end of file
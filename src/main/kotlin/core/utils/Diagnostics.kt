@@ -0,0 +1,24 @@
+package org.example.core.utils
+
+import java.io.PrintStream
+
+/**
+ * Where an analysis says what it did besides its report: notes on how it got there (models
+ * reused or loaded, cache hits, timings) only when [verbose], warnings always.
+ */
+class Diagnostics(
+    /** Stream of the run, for output that reports on it at length */
+    val stream: PrintStream = System.err,
+    val verbose: Boolean = false
+) {
+    /**
+     * Print [message] in verbose mode only; it is not even built otherwise.
+     */
+    fun note(message: () -> String) {
+        if (verbose) stream.println(message())
+    }
+
+    fun warn(message: String) {
+        stream.println(message)
+    }
+}
@@ -1,56 +1,54 @@
 package org.example.core.utils
 
+import org.example.core.entities.ResolvedValue
 import java.net.URI
 
-fun urlToPath(url: String): String {
+fun urlToPath(url: ResolvedValue): ResolvedValue {
     // Handle special case where URL starts with {String}
-    if(url.startsWith("{String}"))
-        return extractPathFromUrl("http://localhost:8080${url.substring(8)}")
-    
+    if(url.text.startsWith("{String}"))
+        return extractPathFromUrl(ResolvedValue.literal("http://localhost:8080") + url.slice(8))
+
     return extractPathFromUrl(url)
 }
 
-private fun extractPathFromUrl(url: String): String {
+private fun extractPathFromUrl(url: ResolvedValue): ResolvedValue {
+    // Placeholders and unresolved parts are not valid URI characters, extract path manually
+    if (url !is ResolvedValue.Literal) {
+        return extractPathManually(url)
+    }
+
     // If URL contains path variables (curly braces), extract path manually
-    if (url.contains("{") && url.contains("}")) {
+    if (url.value.contains("{") && url.value.contains("}")) {
         return extractPathManually(url)
     }
-    
+
     // Try to use URI.create() for normal URLs
     return try {
-        URI.create(url).path
+        ResolvedValue.literal(URI.create(url.value).path ?: "")
     } catch (e: IllegalArgumentException) {
         // If URI.create() fails, extract path manually
         extractPathManually(url)
     }
 }
 
-private fun extractPathManually(url: String): String {
+private fun extractPathManually(url: ResolvedValue): ResolvedValue {
+    val text = url.text
+
     // Remove protocol and domain to get path
-    val urlWithoutProtocol = when {
-        url.startsWith("http://") -> url.substring(7)
-        url.startsWith("https://") -> url.substring(8)
-        else -> url
+    val protocolLength = when {
+        text.startsWith("http://") -> 7
+        text.startsWith("https://") -> 8
+        else -> 0
     }
-    
+
     // Find the first '/' after the domain (if any)
-    val firstSlashIndex = urlWithoutProtocol.indexOf('/')
+    val firstSlashIndex = text.indexOf('/', protocolLength)
     if (firstSlashIndex == -1) {
-        // No path found, return empty string
-        return ""
+        // No path found: keep the reason of an unresolved value, otherwise return empty string
+        return if (url is ResolvedValue.Dynamic || url is ResolvedValue.Unknown) url else ResolvedValue.EMPTY
     }
-    
-    // Extract path starting from the first '/'
-    val pathWithQuery = urlWithoutProtocol.substring(firstSlashIndex)
-    
+
     // Remove query parameters if present
-    val queryIndex = pathWithQuery.indexOf('?')
-    val path = if (queryIndex != -1) {
-        pathWithQuery.substring(0, queryIndex)
-    } else {
-        pathWithQuery
-    }
-    
-    // If path doesn't start with '/', add it
-    return if (path.startsWith("/")) path else "/$path"
-}
\ No newline at end of file
+    val queryIndex = text.indexOf('?', firstSlashIndex)
+    return url.slice(firstSlashIndex, if (queryIndex != -1) queryIndex else text.length)
+}
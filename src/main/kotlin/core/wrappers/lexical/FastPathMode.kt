@@ -0,0 +1,15 @@
+package org.example.core.wrappers.lexical
+
+/**
+ * Whether client files are resolved by [LexicalCallExtractor] before building the Spoon model.
+ */
+enum class FastPathMode {
+    /** Every relevant file goes into the Spoon model */
+    OFF,
+
+    /** Files resolved lexically are left out of the Spoon model, which is not built if none remain */
+    ON,
+
+    /** Run the fast path and the full Spoon model, report their differences and keep the Spoon result */
+    CROSS_CHECK
+}
@@ -0,0 +1,436 @@
+package org.example.core.wrappers.lexical
+
+import org.example.core.entities.Endpoint
+import org.example.core.entities.HttpMethod
+import org.example.core.entities.ResolvedValue
+import org.example.core.services.filedetection.JavaLexer
+import org.example.core.services.filedetection.JavaLexer.Kind
+import org.example.core.services.filedetection.JavaLexer.Token
+import org.example.core.services.filedetection.LexicalConstantIndex
+import org.example.core.services.filedetection.LexicalConstantIndex.FileScope
+import org.example.core.services.filedetection.SourceFile
+import org.example.core.services.filedetection.TypeFrameWalker
+import org.example.core.services.filedetection.TypeFrameWalker.Step
+import org.example.core.utils.urlToPath
+import java.io.File
+
+/**
+ * Extracts the endpoints of RestTemplate calls straight from the tokens of client files,
+ * without a Spoon model, when their URLs are literals or project constants:
+ * ```java
+ * restTemplate.getForObject("/api/users/{id}", User.class, id);
+ * restTemplate.exchange(BASE_URL + "/orders", HttpMethod.GET, null, Order[].class);
+ * ```
+ *
+ * A file is resolved lexically only if every RestTemplate call in it is: the receiver is a
+ * `RestTemplate` field or variable declared in the file, the URL and HTTP method are
+ * compile-time constants, and the call sits directly in a method. Any other shape (wrapper
+ * parameters, builders, methods returning a RestTemplate, anonymous classes...) leaves the
+ * whole file to the Spoon pipeline.
+ *
+ * Calls are reported under the rule of the Spoon extraction: in a private or `main` method,
+ * or in a method called from a file of the model. Call sites are matched by method name and
+ * arity: unqualified ones in the declaring file, qualified ones in files that mention the
+ * declaring type.
+ */
+class LexicalCallExtractor(private val constantIndex: LexicalConstantIndex) {
+
+    /**
+     * @property endpointsByFile Endpoints of each resolved client file, in file order
+     * @property unresolvedFiles Client files that need the Spoon model
+     */
+    data class Result(
+        val endpointsByFile: Map<File, List<Endpoint>>,
+        val unresolvedFiles: List<File>
+    ) {
+        val endpoints: List<Endpoint> get() = endpointsByFile.values.flatten()
+        val resolvedFiles: List<File> get() = endpointsByFile.keys.toList()
+    }
+
+    /**
+     * A method containing RestTemplate calls.
+     */
+    private class MethodInfo(
+        val file: File,
+        val typeName: String,
+        val name: String,
+        val arity: Int,
+        val isVarargs: Boolean,
+        /** Private and `main` methods are reported without looking for call sites */
+        val needsCallSite: Boolean
+    )
+
+    private class CallEndpoint(val endpoint: Endpoint, val method: MethodInfo)
+
+    /** A method call found in a model file: its name, argument count and whether it has a receiver */
+    private class CallOccurrence(val arity: Int, val isQualified: Boolean)
+
+    /** The method calls and identifiers of a model file */
+    private class FileCalls(val callsByName: Map<String, List<CallOccurrence>>, val identifiers: Set<String>)
+
+    /**
+     * Resolve the [clientFiles] that need no model; [modelFiles] are the files the Spoon model
+     * would hold, searched for the call sites of public methods.
+     */
+    fun extract(clientFiles: List<SourceFile>, modelFiles: List<SourceFile>): Result {
+        val tokensByFile = HashMap<File, List<Token>>()
+        val callsByFile = LinkedHashMap<File, List<CallEndpoint>>()
+        val unresolved = mutableListOf<File>()
+
+        for (sourceFile in clientFiles) {
+            val tokens = try {
+                JavaLexer.tokenize(sourceFile.text)
+            } catch (e: Exception) {
+                unresolved.add(sourceFile.file)
+                continue
+            }
+            tokensByFile[sourceFile.file] = tokens
+            val calls = FileAnalysis(sourceFile.file, tokens).callEndpoints()
+            if (calls != null) callsByFile[sourceFile.file] = calls else unresolved.add(sourceFile.file)
+        }
+
+        val modelCalls by lazy {
+            modelFiles.map { sourceFile ->
+                val tokens = tokensByFile[sourceFile.file]
+                    ?: try {
+                        JavaLexer.tokenize(sourceFile.text)
+                    } catch (e: Exception) {
+                        emptyList()
+                    }
+                sourceFile.file to indexCalls(tokens)
+            }
+        }
+        val endpointsByFile = callsByFile.mapValues { (_, calls) ->
+            calls.filter { !it.method.needsCallSite || hasCallSite(it.method, modelCalls) }.map { it.endpoint }
+        }
+
+        return Result(endpointsByFile, unresolved)
+    }
+
+    private fun hasCallSite(method: MethodInfo, modelCalls: List<Pair<File, FileCalls>>): Boolean {
+        return modelCalls.any { (file, calls) ->
+            val mentionsType = file == method.file || method.typeName in calls.identifiers
+            calls.callsByName[method.name].orEmpty().any { call ->
+                val arityMatches = if (method.isVarargs) call.arity >= method.arity - 1 else call.arity == method.arity
+                arityMatches && (if (call.isQualified) mentionsType else file == method.file)
+            }
+        }
+    }
+
+    private fun indexCalls(tokens: List<Token>): FileCalls {
+        val matching = JavaLexer.matchBrackets(tokens)
+        val callsByName = HashMap<String, MutableList<CallOccurrence>>()
+        val identifiers = HashSet<String>()
+        for (i in tokens.indices) {
+            val token = tokens[i]
+            if (token.kind != Kind.IDENTIFIER) continue
+            identifiers.add(token.text)
+            if (tokens.getOrNull(i + 1)?.isPunctuation('(') != true || token.text in KEYWORDS) continue
+            val previous = tokens.getOrNull(i - 1)
+            val isQualified = previous?.isPunctuation('.') == true &&
+                tokens.getOrNull(i - 2)?.let { it.isIdentifier("this") || it.isIdentifier("super") } != true
+            val isCall = when {
+                previous == null -> false
+                previous.isPunctuation('.') -> true
+                previous.kind == Kind.IDENTIFIER -> previous.text in CALL_PREFIX_KEYWORDS
+                // Return types (`List<T> get(`, `String[] get(`) and annotations
+                else -> !previous.isPunctuation('>') && !previous.isPunctuation(']') && !previous.isPunctuation('@')
+            }
+            if (!isCall) continue
+            val arity = arguments(tokens, matching, i + 1).size
+            callsByName.getOrPut(token.text) { mutableListOf() }.add(CallOccurrence(arity, isQualified))
+        }
+        return FileCalls(callsByName, identifiers)
+    }
+
+    /**
+     * A RestTemplate call site, with what is needed to resolve it once the whole file is read.
+     */
+    private class PendingCall(
+        val nameIndex: Int,
+        val enclosingTypes: List<String>,
+        val method: MethodInfo?,
+        val inNestedClass: Boolean
+    )
+
+    private inner class FileAnalysis(private val file: File, private val tokens: List<Token>) {
+        private val matching = JavaLexer.matchBrackets(tokens)
+        private val scope = FileScope.read(tokens)
+
+        /** Variable name → declared type names ("?" when not a plain name) */
+        private val declaredTypes = HashMap<String, MutableSet<String>>()
+        private val localNames = HashSet<String>()
+        private val pendingCalls = mutableListOf<PendingCall>()
+        private var returnsRestTemplate = false
+
+        /**
+         * Endpoints of every RestTemplate call of the file, or null if one of them needs the model.
+         */
+        fun callEndpoints(): List<CallEndpoint>? {
+            readStructure()
+            if (returnsRestTemplate) return null
+            val result = mutableListOf<CallEndpoint>()
+            for (call in pendingCalls) {
+                if (!(isRestTemplateReceiver(call.nameIndex) ?: return null)) continue
+                if (call.inNestedClass) return null
+                // Spoon ignores calls outside methods (field initializers, constructors, initializer blocks)
+                val method = call.method ?: continue
+                result.add(CallEndpoint(resolve(call) ?: return null, method))
+            }
+            return result
+        }
+
+        private fun readStructure() {
+            val walker = TypeFrameWalker(tokens, scope.packageName)
+            val member = mutableListOf<Token>()
+            var method: MethodInfo? = null
+            var methodBodyDepth = -1
+            // Depths of anonymous and local class bodies in the current method
+            val nestedClassDepths = ArrayDeque<Int>()
+            var pendingLocalClass = false
+
+            for (i in tokens.indices) {
+                val token = tokens[i]
+                val atMemberLevel = walker.atMemberLevel
+                val type = walker.currentType
+
+                recordDeclaration(i, isField = atMemberLevel && member.none { it.isPunctuation('(') })
+
+                when (walker.advance(i)) {
+                    Step.TYPE_DECLARED -> member.clear()
+                    Step.TYPE_OPENED -> {}
+                    Step.BLOCK_OPENED -> when {
+                        (method != null && pendingLocalClass) || opensAnonymousClass(i) -> {
+                            nestedClassDepths.addLast(walker.depth)
+                            pendingLocalClass = false
+                        }
+                        atMemberLevel -> {
+                            method = methodHeader(member, type!!)
+                            methodBodyDepth = walker.depth
+                            member.clear()
+                        }
+                    }
+                    Step.CLOSED -> {
+                        while (nestedClassDepths.isNotEmpty() && walker.depth < nestedClassDepths.last()) nestedClassDepths.removeLast()
+                        if (method != null && walker.depth < methodBodyDepth) method = null
+                        if (walker.atMemberLevel) member.clear()
+                    }
+                    Step.OTHER -> when {
+                        TypeFrameWalker.isTypeKeyword(tokens, i) && method != null -> pendingLocalClass = true
+                        atMemberLevel && token.isPunctuation(';') -> member.clear()
+                        atMemberLevel && !walker.inTypeHeader -> {
+                            member.add(token)
+                            // `RestTemplate restTemplate() {` hands the client to other classes
+                            if (token.kind == Kind.IDENTIFIER && token.text in REST_TEMPLATE_TYPES &&
+                                tokens.getOrNull(i + 1)?.kind == Kind.IDENTIFIER && tokens.getOrNull(i + 2)?.isPunctuation('(') == true
+                            ) {
+                                returnsRestTemplate = true
+                            }
+                        }
+                    }
+                }
+
+                if (token.isPunctuation('.') && tokens.getOrNull(i + 1)?.text in REST_TEMPLATE_METHODS &&
+                    tokens.getOrNull(i + 2)?.isPunctuation('(') == true
+                ) {
+                    pendingCalls.add(PendingCall(i + 1, walker.enclosingTypes, method, nestedClassDepths.isNotEmpty()))
+                }
+            }
+        }
+
+        /**
+         * Record `Type name` followed by `=`, `;`, `,`, `)` or `:` as a variable declaration.
+         */
+        private fun recordDeclaration(i: Int, isField: Boolean) {
+            val type = tokens[i]
+            val name = tokens.getOrNull(i + 1) ?: return
+            val next = tokens.getOrNull(i + 2) ?: return
+            if (name.kind != Kind.IDENTIFIER || name.text in KEYWORDS) return
+            if (DECLARATION_ENDS.none { next.isPunctuation(it) }) return
+            val typeName = when {
+                type.kind == Kind.IDENTIFIER && type.text !in KEYWORDS -> type.text
+                type.isPunctuation('>') -> genericTypeName(i)
+                type.isPunctuation(']') -> "[]"
+                else -> return
+            }
+            declaredTypes.getOrPut(name.text) { HashSet() }.add(typeName)
+            if (!isField) localNames.add(name.text)
+        }
+
+        /**
+         * The raw type name of `Type<...>` whose closing `>` is at [index], or "?".
+         */
+        private fun genericTypeName(index: Int): String {
+            var angles = 0
+            for (k in index downTo 1) {
+                when {
+                    tokens[k].isPunctuation('>') -> angles++
+                    tokens[k].isPunctuation('<') -> if (--angles == 0) {
+                        return tokens[k - 1].takeIf { it.kind == Kind.IDENTIFIER }?.text ?: "?"
+                    }
+                    tokens[k].kind != Kind.IDENTIFIER && !tokens[k].isPunctuation('.') &&
+                        !tokens[k].isPunctuation(',') && !tokens[k].isPunctuation('?') &&
+                        !tokens[k].isPunctuation('[') && !tokens[k].isPunctuation(']') -> return "?"
+                }
+            }
+            return "?"
+        }
+
+        /**
+         * Whether the `{` at [index] starts the body of `new Type(...) {`.
+         */
+        private fun opensAnonymousClass(index: Int): Boolean {
+            if (tokens.getOrNull(index - 1)?.isPunctuation(')') != true) return false
+            var k = matching[index - 1] - 1
+            while (k >= 0) {
+                val token = tokens[k]
+                when {
+                    token.isIdentifier("new") -> return true
+                    token.kind == Kind.IDENTIFIER || ANONYMOUS_TYPE_PUNCTUATION.any { token.isPunctuation(it) } -> k--
+                    else -> return false
+                }
+            }
+            return false
+        }
+
+        /**
+         * The method declared by the member tokens before a `{`, or null for constructors and initializer blocks.
+         */
+        private fun methodHeader(member: List<Token>, type: TypeFrameWalker.TypeFrame): MethodInfo? {
+            val header = JavaLexer.withoutAnnotations(member)
+            val open = header.indexOfFirst { it.isPunctuation('(') }
+            if (open < 1) return null
+            val name = header[open - 1]
+            if (name.kind != Kind.IDENTIFIER || name.text == type.simpleName) return null
+            // Field initializers such as `Foo foo = create(...) {`
+            if (header.subList(0, open).any { it.isPunctuation('=') }) return null
+            val close = (open until header.size).firstOrNull { header[it].isPunctuation(')') } ?: return null
+            val parameters = header.subList(open + 1, close)
+            // Nested parentheses only appear in parameter annotations, which withoutAnnotations removed
+            val arity = if (parameters.isEmpty()) 0 else parameters.count { it.isPunctuation(',') && !isInsideGeneric(parameters, it) } + 1
+            val isVarargs = parameters.windowed(3).any { window -> window.all { it.isPunctuation('.') } }
+            val modifiers = header.subList(0, open - 1).filter { it.kind == Kind.IDENTIFIER }.map { it.text }
+            val needsCallSite = "private" !in modifiers && name.text != "main"
+            return MethodInfo(file, type.simpleName, name.text, arity, isVarargs, needsCallSite)
+        }
+
+        private fun isInsideGeneric(tokens: List<Token>, comma: Token): Boolean {
+            var angles = 0
+            for (token in tokens) {
+                if (token === comma) return angles > 0
+                if (token.isPunctuation('<')) angles++
+                if (token.isPunctuation('>')) angles--
+            }
+            return false
+        }
+
+        /**
+         * Whether the call whose method name is at [nameIndex] is made on a `RestTemplate`, or null
+         * if that cannot be told from this file. Undeclared capitalized receivers are taken as
+         * static calls on a type.
+         */
+        private fun isRestTemplateReceiver(nameIndex: Int): Boolean? {
+            val receiver = tokens[nameIndex - 2]
+            if (receiver.kind != Kind.IDENTIFIER) return null
+            if (tokens.getOrNull(nameIndex - 3)?.isPunctuation('.') == true) {
+                val isThisField = tokens.getOrNull(nameIndex - 4)?.isIdentifier("this") == true &&
+                    tokens.getOrNull(nameIndex - 5)?.isPunctuation('.') != true
+                if (!isThisField) return null
+            }
+            val types = declaredTypes[receiver.text]
+            return when {
+                types == null -> if (receiver.text.first().isUpperCase()) false else null
+                types.all { it in REST_TEMPLATE_TYPES } -> true
+                types.none { it in REST_TEMPLATE_TYPES || it in UNKNOWN_TYPES } -> false
+                else -> null
+            }
+        }
+
+        private fun resolve(call: PendingCall): Endpoint? {
+            val methodName = tokens[call.nameIndex].text
+            val arguments = arguments(tokens, matching, call.nameIndex + 1)
+            val url = arguments.getOrNull(0) ?: return null
+            if (arguments.any { argument -> argument.any { it.isPunctuation('{') } }) return null
+
+            // A local variable or parameter could shadow a constant of the same name
+            val names = url.filterIndexed { k, token -> token.kind == Kind.IDENTIFIER && url.getOrNull(k - 1)?.isPunctuation('.') != true }
+            if (names.any { it.text in localNames }) return null
+            val value = constantIndex.evaluate(url, call.enclosingTypes, scope) ?: return null
+
+            val httpMethod = if (methodName == "exchange") {
+                val method = arguments.getOrNull(1) ?: return null
+                if (method.size < 3 || !method[method.size - 3].isIdentifier("HttpMethod") ||
+                    !method[method.size - 2].isPunctuation('.') || method.last().kind != Kind.IDENTIFIER
+                ) {
+                    return null
+                }
+                val qualifier = method.subList(0, method.size - 3).joinToString("") { it.text }
+                if (qualifier != "" && qualifier != "org.springframework.http.") return null
+                HttpMethod.fromStringOrDefault(method.last().text)
+            } else {
+                HTTP_METHODS.getValue(methodName)
+            }
+
+            // Root URIs and URLs without a path are left to the model
+            val path = urlToPath(ResolvedValue.literal(value))
+            if (path.isUnresolvedPath || path.text == "/") return null
+            return Endpoint(path.text, httpMethod, file.name)
+        }
+    }
+
+    private companion object {
+        val REST_TEMPLATE_TYPES = setOf("RestTemplate", "org.springframework.web.client.RestTemplate")
+        val UNKNOWN_TYPES = setOf("?", "var")
+
+        val HTTP_METHODS = mapOf(
+            "getForObject" to HttpMethod.GET,
+            "getForEntity" to HttpMethod.GET,
+            "postForObject" to HttpMethod.POST,
+            "postForEntity" to HttpMethod.POST,
+            "put" to HttpMethod.PUT,
+            "patch" to HttpMethod.PATCH,
+            "patchForObject" to HttpMethod.PATCH,
+            "patchForEntity" to HttpMethod.PATCH,
+            "delete" to HttpMethod.DELETE
+        )
+        val REST_TEMPLATE_METHODS = HTTP_METHODS.keys + "exchange"
+
+        val DECLARATION_ENDS = listOf('=', ';', ',', ')', ':')
+        val ANONYMOUS_TYPE_PUNCTUATION = listOf('.', '<', '>', ',', '?', '[', ']')
+
+        /** Identifiers that are never variable or method names */
+        val KEYWORDS = setOf(
+            "return", "throw", "new", "case", "else", "yield", "assert", "break", "continue", "instanceof",
+            "throws", "extends", "implements", "super", "this", "default", "package", "import",
+            "if", "for", "while", "switch", "catch", "synchronized", "try", "do", "finally"
+        )
+
+        /** Keywords that can directly precede an unqualified method call */
+        val CALL_PREFIX_KEYWORDS = setOf("return", "throw", "else", "case", "yield", "assert")
+
+        /**
+         * The arguments of the call whose `(` is at [open], split on top-level commas.
+         */
+        fun arguments(tokens: List<Token>, matching: IntArray, open: Int): List<List<Token>> {
+            val close = matching[open]
+            if (close < 0) return emptyList()
+            if (close == open + 1) return emptyList()
+            val result = mutableListOf<List<Token>>()
+            var start = open + 1
+            var k = open + 1
+            while (k < close) {
+                val token = tokens[k]
+                when {
+                    matching[k] > k -> k = matching[k]
+                    token.isPunctuation(',') -> {
+                        result.add(tokens.subList(start, k))
+                        start = k + 1
+                    }
+                }
+                k++
+            }
+            result.add(tokens.subList(start, close))
+            return result
+        }
+    }
+}
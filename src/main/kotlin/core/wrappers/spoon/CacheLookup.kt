@@ -0,0 +1,78 @@
+package org.example.core.wrappers.spoon
+
+import org.example.core.entities.Endpoint
+import org.example.core.services.cache.EndpointCache
+import org.example.core.services.filedetection.ClientDependencies
+import org.example.core.utils.Diagnostics
+import java.io.File
+import java.io.IOException
+
+/**
+ * Client files split by the [cache] into those with valid entries and those to analyze.
+ */
+internal class CacheLookup private constructor(
+    private val cache: EndpointCache,
+    private val dependencies: ClientDependencies,
+    val cachedEndpoints: Map<File, List<Endpoint>>,
+    /** Fingerprints of the client files analyzed in this run, whose endpoints are stored afterwards */
+    val pendingFingerprints: Map<File, String>
+) {
+    // Spoon reports positions in files that may be spelled differently from the inventory
+    private val clientsByCanonicalFile = (cachedEndpoints.keys + pendingFingerprints.keys).associateBy { it.canonicalFile }
+
+    fun isCached(origin: File?): Boolean = clientOf(origin)?.let { it in cachedEndpoints } == true
+
+    private fun clientOf(origin: File?): File? = origin?.let { clientsByCanonicalFile[it.canonicalFile] }
+
+    /**
+     * Store the endpoints found for each analyzed client file, merged by [deduplicate]. Nothing is
+     * stored if an endpoint cannot be traced back to a client file, since a later run could not
+     * restore it.
+     */
+    fun store(
+        lexicalEndpoints: Map<File, List<Endpoint>>,
+        modelEndpoints: List<Pair<File?, Endpoint>>,
+        deduplicate: (List<Endpoint>) -> List<Endpoint>,
+        diagnostics: Diagnostics
+    ) {
+        if (pendingFingerprints.isEmpty()) return
+
+        val modelEndpointsByClient = HashMap<File, MutableList<Endpoint>>()
+        var unattributed = 0
+        for ((origin, endpoint) in modelEndpoints) {
+            val clientFile = clientOf(origin)
+            if (clientFile == null) unattributed++ else modelEndpointsByClient.getOrPut(clientFile) { mutableListOf() }.add(endpoint)
+        }
+        if (unattributed > 0) {
+            diagnostics.warn("Analysis cache: not updated, $unattributed endpoints were found outside the client files")
+            return
+        }
+
+        try {
+            pendingFingerprints.forEach { (clientFile, fingerprint) ->
+                val endpoints = lexicalEndpoints[clientFile] ?: deduplicate(modelEndpointsByClient[clientFile].orEmpty())
+                cache.store(dependencies.pathOf(clientFile), fingerprint, endpoints)
+            }
+        } catch (e: IOException) {
+            // The endpoints of this run are complete either way
+            diagnostics.warn("Analysis cache: not updated, ${e.message}")
+        }
+    }
+
+    companion object {
+        /**
+         * Split the [clientFiles] into those whose entries in [cache] are still valid and those to analyze.
+         */
+        fun of(cache: EndpointCache, dependencies: ClientDependencies, clientFiles: List<File>, diagnostics: Diagnostics): CacheLookup {
+            val cached = LinkedHashMap<File, List<Endpoint>>()
+            val pending = LinkedHashMap<File, String>()
+            for (clientFile in clientFiles) {
+                val fingerprint = dependencies.fingerprint(clientFile)
+                val endpoints = cache.load(dependencies.pathOf(clientFile), fingerprint)
+                if (endpoints != null) cached[clientFile] = endpoints else pending[clientFile] = fingerprint
+            }
+            diagnostics.note { "Analysis cache: ${cached.size} of ${clientFiles.size} client files unchanged, ${pending.size} to analyze" }
+            return CacheLookup(cache, dependencies, cached, pending)
+        }
+    }
+}
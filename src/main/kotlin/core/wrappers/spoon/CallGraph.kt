@@ -0,0 +1,102 @@
+package org.example.core.wrappers.spoon
+
+import spoon.reflect.code.CtInvocation
+import spoon.reflect.declaration.CtMethod
+import spoon.reflect.declaration.CtType
+import java.util.Collections
+import java.util.IdentityHashMap
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Reverse call graph of a model: for each method, the invocations that may dispatch to it.
+ *
+ * Calls are keyed by their resolved declaration rather than by name, so an unrelated
+ * method with the same name is not taken for a caller. Class-hierarchy analysis adds
+ * interface and superclass dispatch: a call to `Api.get(..)` is a caller of every `get`
+ * overriding it in the model. Calls whose declaration cannot be resolved (no-classpath
+ * mode) fall back to matching by name and argument count.
+ *
+ * Built from the [ModelIndex] tables, without another pass over the model.
+ */
+class CallGraph(private val index: ModelIndex) {
+
+    private val callersByDeclaration = IdentityHashMap<CtMethod<*>, MutableList<CtInvocation<*>>>()
+    private val unresolvedCallsByName = HashMap<String, MutableList<CtInvocation<*>>>()
+    private val positions = IdentityHashMap<CtInvocation<*>, Int>()
+    // Filled by concurrent extraction workers; each method's callers are computed once
+    private val callersCache = ConcurrentHashMap<MethodKey, List<CtInvocation<*>>>()
+
+    /**
+     * Identity-based key: Spoon elements implement structural equals, so two identical
+     * methods of different classes would otherwise share their callers.
+     */
+    private class MethodKey(val method: CtMethod<*>) {
+        override fun equals(other: Any?): Boolean = other is MethodKey && other.method === method
+
+        override fun hashCode(): Int = System.identityHashCode(method)
+    }
+
+    init {
+        index.invocations.forEachIndexed { position, invocation ->
+            positions[invocation] = position
+            val declaration = invocation.executable?.declaration
+            if (declaration is CtMethod<*>) {
+                callersByDeclaration.getOrPut(declaration) { mutableListOf() }.add(invocation)
+            } else if (declaration == null) {
+                invocation.executable?.simpleName?.let { name ->
+                    unresolvedCallsByName.getOrPut(name) { mutableListOf() }.add(invocation)
+                }
+            }
+        }
+    }
+
+    /**
+     * Invocations that may call [method], in model traversal order: direct calls, calls
+     * through a method it overrides, and unresolved calls with a matching name and arity.
+     */
+    fun callersOf(method: CtMethod<*>): List<CtInvocation<*>> {
+        return callersCache.computeIfAbsent(MethodKey(method)) { computeCallers(method) }
+    }
+
+    private fun computeCallers(method: CtMethod<*>): List<CtInvocation<*>> {
+        // Identical call expressions in different methods are equal, but both are callers
+        val callers = Collections.newSetFromMap(IdentityHashMap<CtInvocation<*>, Boolean>())
+        callersByDeclaration[method]?.let { callers.addAll(it) }
+        for (overridden in overriddenMethods(method)) {
+            callersByDeclaration[overridden]?.let { callers.addAll(it) }
+        }
+        unresolvedCallsByName[method.simpleName]?.filterTo(callers) { acceptsArguments(method, it.arguments.size) }
+        return callers.sortedBy { positions[it] }
+    }
+
+    /**
+     * Methods of the model's supertypes of [method]'s declaring type that [method] overrides,
+     * matched by name and parameter count (generic parameters make exact signatures unreliable).
+     */
+    private fun overriddenMethods(method: CtMethod<*>): List<CtMethod<*>> {
+        val declaringType = method.declaringType ?: return emptyList()
+        val overridden = mutableListOf<CtMethod<*>>()
+        val visited = HashSet<String>()
+        val pending = ArrayDeque(superTypeNames(declaringType))
+        while (pending.isNotEmpty()) {
+            val name = pending.removeFirst()
+            if (!visited.add(name)) continue
+            val superType = index.findType(name) ?: continue
+            superType.methods.filterTo(overridden) {
+                it.simpleName == method.simpleName && it.parameters.size == method.parameters.size
+            }
+            pending.addAll(superTypeNames(superType))
+        }
+        return overridden
+    }
+
+    private fun superTypeNames(type: CtType<*>): List<String> {
+        return listOfNotNull(type.superclass?.qualifiedName) + type.superInterfaces.map { it.qualifiedName }
+    }
+
+    private fun acceptsArguments(method: CtMethod<*>, argumentCount: Int): Boolean {
+        val parameterCount = method.parameters.size
+        val varArgs = method.parameters.lastOrNull()?.isVarArgs == true
+        return argumentCount == parameterCount || (varArgs && argumentCount >= parameterCount - 1)
+    }
+}
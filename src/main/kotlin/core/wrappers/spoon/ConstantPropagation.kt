@@ -0,0 +1,313 @@
+package org.example.core.wrappers.spoon
+
+import spoon.reflect.code.BinaryOperatorKind
+import spoon.reflect.code.CtAssignment
+import spoon.reflect.code.CtBinaryOperator
+import spoon.reflect.code.CtConditional
+import spoon.reflect.code.CtExpression
+import spoon.reflect.code.CtFieldRead
+import spoon.reflect.code.CtFieldWrite
+import spoon.reflect.code.CtInvocation
+import spoon.reflect.code.CtLiteral
+import spoon.reflect.code.CtLocalVariable
+import spoon.reflect.code.CtOperatorAssignment
+import spoon.reflect.code.CtStatementList
+import spoon.reflect.code.CtVariableRead
+import spoon.reflect.code.CtVariableWrite
+import spoon.reflect.declaration.CtElement
+import spoon.reflect.declaration.CtEnumValue
+import spoon.reflect.declaration.CtExecutable
+import spoon.reflect.declaration.CtField
+import spoon.reflect.declaration.CtMethod
+import spoon.reflect.declaration.CtParameter
+import spoon.reflect.declaration.CtVariable
+import java.util.IdentityHashMap
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Interprocedural string constant propagation over a Spoon model.
+ *
+ * Every local variable, parameter, field and method return is a node holding a value of the
+ * constant lattice (undefined < constant < non-constant). A node's value is the join of the
+ * expressions flowing into it: initializers and assignments for locals, arguments at every
+ * call site (from the [CallGraph]) for parameters, the initializer and every assignment
+ * (in constructors, initializer blocks or methods) for fields and `return` statements for
+ * methods. Nodes are solved on demand with a worklist until nothing changes.
+ *
+ * Values only move up a lattice of height 3, so each node changes at most twice and cycles
+ * (recursive calls, `s = s + "x"` in a loop) terminate without a depth limit. A node is
+ * evaluated again only when a node it read changes, so it is evaluated at most once plus twice
+ * per node it reads, and never again once non-constant. The result is the least fixpoint
+ * whatever the worklist order, and solved nodes keep their value for later queries on the same
+ * model.
+ *
+ * Constructor parameters are not followed to the `new` expressions passing them, so a field
+ * assigned from one is non-constant; neither are `++`/`--` on fields.
+ */
+class ConstantPropagation(private val index: ModelIndex) {
+
+    /**
+     * Element of the string constant lattice.
+     */
+    sealed class ConstantValue {
+        /** Nothing flows in yet (or ever) */
+        object Undefined : ConstantValue()
+
+        data class Constant(val value: String) : ConstantValue()
+
+        /** Different or unknown values flow in */
+        object NonConstant : ConstantValue()
+
+        fun join(other: ConstantValue): ConstantValue = when {
+            this == Undefined -> other
+            other == Undefined -> this
+            this == other -> this
+            else -> NonConstant
+        }
+    }
+
+    /**
+     * A variable, method return or queried expression of one [Run], with its current value and
+     * the nodes whose value was computed from it.
+     */
+    private class Node(val element: CtElement, val run: Run) {
+        var value: ConstantValue = ConstantValue.Undefined
+        var queued = false
+        val dependents = LinkedHashSet<Node>()
+    }
+
+    private class ElementKey(val element: CtElement) {
+        override fun equals(other: Any?): Boolean = other is ElementKey && other.element === element
+
+        override fun hashCode(): Int = System.identityHashCode(element)
+    }
+
+    /** Final values of the nodes of finished runs, shared by all threads */
+    private val solved = ConcurrentHashMap<ElementKey, ConstantValue>()
+    private val evaluationCount = AtomicLong()
+
+    /**
+     * Total number of node evaluations so far, for cost reporting.
+     */
+    val evaluations: Long get() = evaluationCount.get()
+
+    /**
+     * The string value of [expr] if every definition reaching it yields the same constant, null otherwise.
+     */
+    fun constantOf(expr: CtExpression<*>): String? {
+        return (solve(expr) as? ConstantValue.Constant)?.value
+    }
+
+    fun valueOf(expr: CtExpression<*>): ConstantValue = solve(expr)
+
+    private fun solve(element: CtElement): ConstantValue {
+        return solved[ElementKey(element)] ?: Run().solve(element)
+    }
+
+    /**
+     * One worklist solve for a query whose value is not known yet. Each query solves in a run of its
+     * own thread: runs that reach the same unsolved nodes evaluate them twice instead of waiting
+     * for each other, and reach the same values.
+     */
+    private inner class Run {
+        private val nodes = IdentityHashMap<CtElement, Node>()
+        private val worklist = ArrayDeque<Node>()
+
+        fun solve(element: CtElement): ConstantValue {
+            val node = nodeFor(element)
+            while (worklist.isNotEmpty()) {
+                val next = worklist.removeFirst()
+                next.queued = false
+                update(next)
+            }
+            // Every node read during the run is part of it or already solved, so all of them are final now
+            for ((solvedElement, solvedNode) in nodes) {
+                solved.putIfAbsent(ElementKey(solvedElement), solvedNode.value)
+            }
+            return node.value
+        }
+
+        /**
+         * Current value of [element] as seen by [reader], which is re-evaluated when it changes.
+         */
+        fun read(element: CtElement, reader: Node): ConstantValue {
+            solved[ElementKey(element)]?.let { return it }
+            val node = nodeFor(element)
+            node.dependents.add(reader)
+            return node.value
+        }
+
+        private fun nodeFor(element: CtElement): Node {
+            return nodes.getOrPut(element) {
+                Node(element, this).also { enqueue(it) }
+            }
+        }
+
+        private fun enqueue(node: Node) {
+            // Nothing flowing in can change a non-constant node
+            if (!node.queued && node.value != ConstantValue.NonConstant) {
+                node.queued = true
+                worklist.addLast(node)
+            }
+        }
+
+        private fun update(node: Node) {
+            evaluationCount.incrementAndGet()
+            val joined = node.value.join(transfer(node))
+            if (joined != node.value) {
+                node.value = joined
+                node.dependents.forEach { enqueue(it) }
+            }
+        }
+    }
+
+    private fun read(element: CtElement, reader: Node): ConstantValue = reader.run.read(element, reader)
+
+    private fun transfer(node: Node): ConstantValue {
+        return when (val element = node.element) {
+            is CtLocalVariable<*> -> localVariableValue(element, node)
+            is CtParameter<*> -> parameterValue(element, node)
+            is CtEnumValue<*> -> ConstantValue.NonConstant
+            is CtField<*> -> fieldValue(element, node)
+            is CtMethod<*> -> returnValue(element, node)
+            is CtExpression<*> -> eval(element, node)
+            else -> ConstantValue.NonConstant
+        }
+    }
+
+    private fun localVariableValue(local: CtLocalVariable<*>, node: Node): ConstantValue {
+        // Counters change through ++/-- as well, which are not assignments
+        if (local.type?.isPrimitive == true) return ConstantValue.NonConstant
+        val initializer = local.defaultExpression
+        // Loop, pattern and resource variables get their value from outside any assignment
+        if (initializer == null && local.parent !is CtStatementList) return ConstantValue.NonConstant
+        val method = local.getParent(CtMethod::class.java) ?: return ConstantValue.NonConstant
+
+        var value = initializer?.let { eval(it, node) } ?: ConstantValue.Undefined
+        for (assignment in index.assignmentsIn(method)) {
+            if (writesTo(assignment, local)) value = value.join(assignedValue(assignment, node))
+        }
+        return value
+    }
+
+    private fun fieldValue(field: CtField<*>, node: Node): ConstantValue {
+        val initializer = field.defaultExpression
+        val assignments = index.fieldAssignmentsNamed(field.simpleName).filter { writesTo(it, field) }
+        // A field that is never given a value stays null
+        if (initializer == null && assignments.isEmpty()) return ConstantValue.NonConstant
+
+        var value = initializer?.let { eval(it, node) } ?: ConstantValue.Undefined
+        for (assignment in assignments) {
+            value = value.join(assignedValue(assignment, node))
+            if (value == ConstantValue.NonConstant) return value
+        }
+        return value
+    }
+
+    private fun parameterValue(parameter: CtParameter<*>, node: Node): ConstantValue {
+        val method = parameter.parent as? CtMethod<*> ?: return ConstantValue.NonConstant
+        if (parameter.isVarArgs) return ConstantValue.NonConstant
+        val position = method.parameters.indexOfFirst { it === parameter }
+        val callers = index.callGraph.callersOf(method).filter { it.arguments.size > position }
+        if (callers.isEmpty()) return ConstantValue.NonConstant
+
+        var value: ConstantValue = ConstantValue.Undefined
+        for (call in callers) {
+            value = value.join(eval(call.arguments[position], node))
+            if (value == ConstantValue.NonConstant) return value
+        }
+        for (assignment in index.assignmentsIn(method)) {
+            if (writesTo(assignment, parameter)) value = value.join(assignedValue(assignment, node))
+        }
+        return value
+    }
+
+    private fun returnValue(method: CtMethod<*>, node: Node): ConstantValue {
+        // Skip returns of lambdas and anonymous classes nested in the method
+        val returns = index.returnsOf(method).filter { it.getParent(CtExecutable::class.java) === method }
+        if (returns.isEmpty()) return ConstantValue.NonConstant
+
+        var value: ConstantValue = ConstantValue.Undefined
+        for (returnStatement in returns) {
+            val returned = returnStatement.returnedExpression ?: return ConstantValue.NonConstant
+            value = value.join(eval(returned, node))
+        }
+        return value
+    }
+
+    private fun assignedValue(assignment: CtAssignment<*, *>, node: Node): ConstantValue {
+        if (assignment is CtOperatorAssignment<*, *>) return ConstantValue.NonConstant
+        return assignment.assignment?.let { eval(it, node) } ?: ConstantValue.NonConstant
+    }
+
+    private fun writesTo(assignment: CtAssignment<*, *>, variable: CtVariable<*>): Boolean {
+        val assigned = assignment.assigned
+        if (variable is CtField<*>) {
+            if (assigned !is CtFieldWrite<*>) return false
+            val declaration = assigned.variable?.declaration
+            if (declaration != null) return declaration === variable
+            return assigned.variable?.simpleName == variable.simpleName &&
+                assigned.variable?.declaringType?.qualifiedName == variable.declaringType?.qualifiedName
+        }
+        if (assigned !is CtVariableWrite<*> || assigned is CtFieldWrite<*>) return false
+        val declaration = assigned.variable?.declaration
+        return if (declaration != null) declaration === variable else assigned.variable?.simpleName == variable.simpleName
+    }
+
+    private fun eval(expr: CtExpression<*>, reader: Node): ConstantValue {
+        return when (expr) {
+            is CtLiteral<*> -> expr.value?.let { constant(it.toString()) } ?: ConstantValue.NonConstant
+
+            is CtBinaryOperator<*> -> {
+                if (expr.kind != BinaryOperatorKind.PLUS) return ConstantValue.NonConstant
+                // Numeric addition is not concatenation
+                val type = expr.type?.qualifiedName
+                if (type != null && type != "java.lang.String") return ConstantValue.NonConstant
+                val left = eval(expr.leftHandOperand, reader)
+                val right = eval(expr.rightHandOperand, reader)
+                when {
+                    left is ConstantValue.Constant && right is ConstantValue.Constant -> constant(left.value + right.value)
+                    left == ConstantValue.NonConstant || right == ConstantValue.NonConstant -> ConstantValue.NonConstant
+                    else -> ConstantValue.Undefined
+                }
+            }
+
+            is CtConditional<*> -> {
+                val thenValue = expr.thenExpression?.let { eval(it, reader) } ?: ConstantValue.NonConstant
+                val elseValue = expr.elseExpression?.let { eval(it, reader) } ?: ConstantValue.NonConstant
+                thenValue.join(elseValue)
+            }
+
+            is CtFieldRead<*> -> {
+                val variable = expr.variable
+                val field = variable.declaration as? CtField<*>
+                    ?: index.findField(variable.declaringType?.qualifiedName, variable.simpleName)
+                field?.let { read(it, reader) } ?: ConstantValue.NonConstant
+            }
+
+            is CtVariableRead<*> -> {
+                when (val declaration = expr.variable.declaration) {
+                    is CtLocalVariable<*>, is CtParameter<*> -> read(declaration, reader)
+                    else -> ConstantValue.NonConstant
+                }
+            }
+
+            is CtInvocation<*> -> {
+                // Abstract and interface methods have no body to take the return value from
+                val method = expr.executable?.declaration as? CtMethod<*>
+                if (method?.body != null) read(method, reader) else ConstantValue.NonConstant
+            }
+
+            else -> ConstantValue.NonConstant
+        }
+    }
+
+    private fun constant(value: String): ConstantValue {
+        return if (value.length <= MAX_CONSTANT_LENGTH) ConstantValue.Constant(value) else ConstantValue.NonConstant
+    }
+
+    companion object {
+        private const val MAX_CONSTANT_LENGTH = 2048
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.core.wrappers.spoon
+
+import spoon.reflect.declaration.CtMethod
+
+/**
+ * Code outside the Spoon model that a value depends on.
+ * Adding the files that declare it may let the value resolve.
+ */
+sealed class MissingSymbol {
+
+    /**
+     * Callers of [methodName], which is declared in (or inherited from) one of [typeNames].
+     * The model holds none, so the method's parameters are unknown.
+     */
+    data class CallersOf(val typeNames: List<String>, val methodName: String) : MissingSymbol()
+
+    /**
+     * The declaration of [typeName], whose fields are read but not in the model.
+     */
+    data class DeclarationOf(val typeName: String) : MissingSymbol()
+
+    companion object {
+        fun callersOf(method: CtMethod<*>): MissingSymbol {
+            val type = method.declaringType
+            val typeNames = listOfNotNull(type?.qualifiedName) +
+                (type?.superInterfaces.orEmpty() + listOfNotNull(type?.superclass)).mapNotNull { it.qualifiedName }
+            return CallersOf(typeNames, method.simpleName)
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package org.example.core.wrappers.spoon
+
+import spoon.reflect.CtModel
+import spoon.reflect.code.CtAssignment
+import spoon.reflect.code.CtFieldWrite
+import spoon.reflect.code.CtInvocation
+import spoon.reflect.code.CtLocalVariable
+import spoon.reflect.code.CtReturn
+import spoon.reflect.declaration.CtClass
+import spoon.reflect.declaration.CtElement
+import spoon.reflect.declaration.CtEnum
+import spoon.reflect.declaration.CtEnumValue
+import spoon.reflect.declaration.CtField
+import spoon.reflect.declaration.CtInterface
+import spoon.reflect.declaration.CtMethod
+import spoon.reflect.declaration.CtPackage
+import spoon.reflect.declaration.CtType
+import spoon.reflect.declaration.CtTypedElement
+import spoon.reflect.reference.CtExecutableReference
+import spoon.reflect.reference.CtTypeReference
+import spoon.reflect.reference.CtVariableReference
+import spoon.reflect.visitor.CtScanner
+import java.util.IdentityHashMap
+
+/**
+ * Lookup tables over a Spoon model, filled by a single [CtScanner] pass.
+ *
+ * SpoonWrapper, SpoonExpressionResolver, RootUriDetector and ParameterFlowAnalyzer
+ * get their invocations, methods, fields, local variables and returns from here
+ * instead of walking the model on every query.
+ *
+ * Per-method tables include elements of nested bodies (lambdas, anonymous classes),
+ * matching `method.getElements(...)`. Use [of] to get the index shared by all
+ * components for a model.
+ */
+class ModelIndex private constructor(private val model: CtModel) {
+
+    private val allInvocations = mutableListOf<CtInvocation<*>>()
+    private val topLevelClasses = mutableListOf<CtClass<*>>()
+    private val invocationsByName = HashMap<String, MutableList<CtInvocation<*>>>()
+    private val methodsByName = HashMap<String, MutableList<CtMethod<*>>>()
+    private val fieldsByOwner = HashMap<String?, HashMap<String, CtField<*>>>()
+    private val typesByQualifiedName = HashMap<String, CtType<*>>()
+    private val fieldAssignmentsByName = HashMap<String, MutableList<CtAssignment<*, *>>>()
+
+    // Spoon elements implement structural equals, so per-element tables are identity maps
+    private val enclosingMethods = IdentityHashMap<CtInvocation<*>, CtMethod<*>>()
+    private val invocationsByMethod = IdentityHashMap<CtMethod<*>, MutableList<CtInvocation<*>>>()
+    private val localVariablesByMethod = IdentityHashMap<CtMethod<*>, MutableList<CtLocalVariable<*>>>()
+    private val assignmentsByMethod = IdentityHashMap<CtMethod<*>, MutableList<CtAssignment<*, *>>>()
+    private val returnsByMethod = IdentityHashMap<CtMethod<*>, MutableList<CtReturn<*>>>()
+    private var referencesResolved = false
+
+    /**
+     * Every invocation in the model, in traversal order.
+     */
+    val invocations: List<CtInvocation<*>> get() = allInvocations
+
+    /**
+     * Top-level classes of the model (same set as `model.allTypes.filterIsInstance<CtClass<*>>()`).
+     */
+    val classes: List<CtClass<*>> get() = topLevelClasses
+
+    /**
+     * Classes holding a RestTemplate field or a method returning one (a RestTemplate factory method).
+     */
+    val restTemplateClasses: List<CtClass<*>>
+
+    /**
+     * Reverse call graph of the model, built on first use from these tables.
+     */
+    val callGraph: CallGraph by lazy { CallGraph(this) }
+
+    /**
+     * String constant propagation over the model, solved on demand.
+     */
+    val constants: ConstantPropagation by lazy { ConstantPropagation(this) }
+
+    init {
+        Collector().scan(model.allModules)
+        restTemplateClasses = topLevelClasses.filter { ctClass ->
+            ctClass.fields.any { it.type?.simpleName in REST_TEMPLATE_TYPES } ||
+                ctClass.methods.any { it.type?.simpleName in REST_TEMPLATE_TYPES }
+        }
+    }
+
+    /**
+     * Invocations of any executable named [name].
+     */
+    fun invocationsNamed(name: String): List<CtInvocation<*>> = invocationsByName[name] ?: emptyList()
+
+    /**
+     * Innermost method containing [invocation], or null for field initializers, constructors, etc.
+     */
+    fun enclosingMethod(invocation: CtInvocation<*>): CtMethod<*>? = enclosingMethods[invocation]
+
+    fun invocationsIn(method: CtMethod<*>): List<CtInvocation<*>> = invocationsByMethod[method] ?: emptyList()
+
+    fun methodsNamed(name: String): List<CtMethod<*>> = methodsByName[name] ?: emptyList()
+
+    /**
+     * Find a class, interface or enum of the model (including nested and anonymous ones) by qualified name.
+     */
+    fun findType(qualifiedName: String): CtType<*>? = typesByQualifiedName[qualifiedName]
+
+    /**
+     * Find the field declared as [fieldName] in the type [declaringType] (qualified name).
+     */
+    fun findField(declaringType: String?, fieldName: String): CtField<*>? = fieldsByOwner[declaringType]?.get(fieldName)
+
+    fun localVariablesOf(method: CtMethod<*>): List<CtLocalVariable<*>> = localVariablesByMethod[method] ?: emptyList()
+
+    fun assignmentsIn(method: CtMethod<*>): List<CtAssignment<*, *>> = assignmentsByMethod[method] ?: emptyList()
+
+    fun returnsOf(method: CtMethod<*>): List<CtReturn<*>> = returnsByMethod[method] ?: emptyList()
+
+    /**
+     * Assignments to a field named [fieldName] anywhere in the model, including constructors and initializer blocks.
+     */
+    fun fieldAssignmentsNamed(fieldName: String): List<CtAssignment<*, *>> = fieldAssignmentsByName[fieldName] ?: emptyList()
+
+    /**
+     * Look up the declaration behind every reference and the type of every typed element once.
+     * Spoon does these lookups lazily on the shared model, which is not safe to race: call this
+     * before querying the model from several threads.
+     */
+    @Synchronized
+    fun resolveReferences() {
+        if (referencesResolved) return
+        ReferenceResolver().scan(model.allModules)
+        referencesResolved = true
+    }
+
+    private class ReferenceResolver : CtScanner() {
+        override fun scan(element: CtElement?) {
+            when (element) {
+                is CtExecutableReference<*> -> element.declaration
+                is CtVariableReference<*> -> element.declaration
+                is CtTypeReference<*> -> element.declaration
+                is CtTypedElement<*> -> element.type
+            }
+            super.scan(element)
+        }
+    }
+
+    private inner class Collector : CtScanner() {
+        private val methodStack = ArrayList<CtMethod<*>>()
+
+        override fun <T> visitCtClass(ctClass: CtClass<T>) {
+            if (ctClass.isTopLevel) topLevelClasses.add(ctClass)
+            addType(ctClass)
+            super.visitCtClass(ctClass)
+        }
+
+        override fun <T> visitCtInterface(intrface: CtInterface<T>) {
+            addType(intrface)
+            super.visitCtInterface(intrface)
+        }
+
+        override fun <T : Enum<*>> visitCtEnum(ctEnum: CtEnum<T>) {
+            addType(ctEnum)
+            super.visitCtEnum(ctEnum)
+        }
+
+        override fun <T> visitCtMethod(m: CtMethod<T>) {
+            methodsByName.getOrPut(m.simpleName) { mutableListOf() }.add(m)
+            methodStack.add(m)
+            super.visitCtMethod(m)
+            methodStack.removeAt(methodStack.size - 1)
+        }
+
+        override fun <T> visitCtInvocation(invocation: CtInvocation<T>) {
+            allInvocations.add(invocation)
+            invocation.executable?.simpleName?.let { name ->
+                invocationsByName.getOrPut(name) { mutableListOf() }.add(invocation)
+            }
+            methodStack.lastOrNull()?.let { enclosingMethods[invocation] = it }
+            addToEnclosingMethods(invocationsByMethod, invocation)
+            super.visitCtInvocation(invocation)
+        }
+
+        override fun <T> visitCtField(f: CtField<T>) {
+            addField(f)
+            super.visitCtField(f)
+        }
+
+        override fun <T> visitCtEnumValue(enumValue: CtEnumValue<T>) {
+            addField(enumValue)
+            super.visitCtEnumValue(enumValue)
+        }
+
+        override fun <T> visitCtLocalVariable(localVariable: CtLocalVariable<T>) {
+            addToEnclosingMethods(localVariablesByMethod, localVariable)
+            super.visitCtLocalVariable(localVariable)
+        }
+
+        override fun <T, A : T> visitCtAssignment(assignement: CtAssignment<T, A>) {
+            addToEnclosingMethods(assignmentsByMethod, assignement)
+            (assignement.assigned as? CtFieldWrite<*>)?.variable?.simpleName?.let { name ->
+                fieldAssignmentsByName.getOrPut(name) { mutableListOf() }.add(assignement)
+            }
+            super.visitCtAssignment(assignement)
+        }
+
+        override fun <R> visitCtReturn(returnStatement: CtReturn<R>) {
+            addToEnclosingMethods(returnsByMethod, returnStatement)
+            super.visitCtReturn(returnStatement)
+        }
+
+        private fun addType(type: CtType<*>) {
+            typesByQualifiedName.putIfAbsent(type.qualifiedName, type)
+        }
+
+        private fun addField(field: CtField<*>) {
+            // Keep the first declaration, matching a linear search over the model
+            fieldsByOwner.getOrPut(field.declaringType?.qualifiedName) { HashMap() }
+                .putIfAbsent(field.simpleName, field)
+        }
+
+        private fun <E> addToEnclosingMethods(table: IdentityHashMap<CtMethod<*>, MutableList<E>>, element: E) {
+            for (method in methodStack) {
+                table.getOrPut(method) { mutableListOf() }.add(element)
+            }
+        }
+    }
+
+    companion object {
+        private const val METADATA_KEY = "contract-coverage.model-index"
+        private val REST_TEMPLATE_TYPES = setOf("RestTemplate", "TestRestTemplate")
+
+        /**
+         * Get the index of [model], building it on first use.
+         * The index is stored as metadata on the model's root package, so it lives
+         * exactly as long as the model.
+         */
+        fun of(model: CtModel): ModelIndex {
+            val root = model.rootPackage
+            synchronized(root) {
+                (root.getMetadata(METADATA_KEY) as? ModelIndex)?.let { return it }
+                val index = ModelIndex(model)
+                root.putMetadata<CtPackage>(METADATA_KEY, index)
+                return index
+            }
+        }
+    }
+}
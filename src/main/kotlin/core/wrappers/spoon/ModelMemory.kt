@@ -0,0 +1,56 @@
+package org.example.core.wrappers.spoon
+
+import spoon.reflect.CtModel
+
+/**
+ * Spoon models kept in memory between analyses of a long-running process, so that an analysis of
+ * unchanged sources reuses the model (and its [ModelIndex]) of the previous one.
+ *
+ * Like [ModelSnapshotStore], there is one model per slot, returned only for the key of the sources
+ * it was built from. Models stay until [trim] finds the heap above [maxHeapBytes]; the models used
+ * least recently are then dropped first.
+ */
+class ModelMemory(private val maxHeapBytes: Long) {
+
+    private class Entry(val key: String, val model: CtModel)
+
+    /** In access order: the least recently used entry comes first */
+    private val entries = LinkedHashMap<String, Entry>(16, 0.75f, true)
+
+    @Synchronized
+    fun get(slot: String, key: String): CtModel? {
+        val entry = entries[slot] ?: return null
+        return if (entry.key == key) entry.model else null
+    }
+
+    @Synchronized
+    fun put(slot: String, key: String, model: CtModel) {
+        entries[slot] = Entry(key, model)
+    }
+
+    @Synchronized
+    fun size(): Int = entries.size
+
+    /**
+     * Drop the models used least recently while the heap in use is above the cap; the number dropped.
+     * Meant to run between analyses, when their other objects have become garbage.
+     */
+    @Synchronized
+    fun trim(): Int {
+        var evicted = 0
+        while (entries.isNotEmpty() && usedHeapAfterGc() > maxHeapBytes) {
+            entries.remove(entries.keys.first())
+            evicted++
+        }
+        return evicted
+    }
+
+    private fun usedHeapAfterGc(): Long {
+        val runtime = Runtime.getRuntime()
+        if (runtime.totalMemory() - runtime.freeMemory() > maxHeapBytes) {
+            // Only what a collection cannot free counts against the cap
+            System.gc()
+        }
+        return runtime.totalMemory() - runtime.freeMemory()
+    }
+}
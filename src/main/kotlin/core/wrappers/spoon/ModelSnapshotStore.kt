@@ -0,0 +1,88 @@
+package org.example.core.wrappers.spoon
+
+import spoon.reflect.CtModel
+import spoon.reflect.factory.Factory
+import spoon.support.SerializationModelStreamer
+import java.io.BufferedInputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.File
+import java.io.FileInputStream
+import java.io.FileOutputStream
+import java.nio.file.Files
+import java.nio.file.StandardCopyOption
+import java.security.MessageDigest
+
+/**
+ * Spoon models saved to disk with [SerializationModelStreamer], so that a run over the same
+ * sources loads its model instead of compiling them again with JDT.
+ *
+ * There is one snapshot per slot (e.g. the main model of a project), stored with the key of the
+ * sources it was built from and how long that build took. Loading with another key, or a
+ * snapshot that cannot be read, gives null: the caller rebuilds the model and saves over it.
+ */
+class ModelSnapshotStore(private val directory: File) {
+
+    /**
+     * A loaded model, and how long building it took when it was saved.
+     */
+    class Snapshot(val model: CtModel, val buildMillis: Long)
+
+    fun load(slot: String, key: String): Snapshot? {
+        val file = snapshotFile(slot)
+        if (!file.isFile) return null
+        return try {
+            BufferedInputStream(FileInputStream(file)).use { input ->
+                val header = DataInputStream(input)
+                if (header.readInt() != FORMAT_VERSION || header.readUTF() != key) return null
+                val buildMillis = header.readLong()
+                Snapshot(SerializationModelStreamer().load(input).model, buildMillis)
+            }
+        } catch (e: Exception) {
+            null
+        } catch (e: StackOverflowError) {
+            // Java serialization recurses along the model, which very deep expressions exhaust
+            null
+        }
+    }
+
+    /**
+     * Save the model of [factory] in [slot]; false if it could not be written.
+     */
+    fun save(slot: String, key: String, factory: Factory, buildMillis: Long): Boolean {
+        val target = snapshotFile(slot).toPath()
+        return try {
+            Files.createDirectories(directory.toPath())
+            // Concurrent runs sharing the directory never load a partly written snapshot
+            val temp = Files.createTempFile(directory.toPath(), target.fileName.toString(), ".tmp")
+            try {
+                FileOutputStream(temp.toFile()).use { output ->
+                    val header = DataOutputStream(output)
+                    header.writeInt(FORMAT_VERSION)
+                    header.writeUTF(key)
+                    header.writeLong(buildMillis)
+                    header.flush()
+                    SerializationModelStreamer().save(factory, output)
+                }
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+            } finally {
+                Files.deleteIfExists(temp)
+            }
+            true
+        } catch (e: Exception) {
+            false
+        } catch (e: StackOverflowError) {
+            false
+        }
+    }
+
+    private fun snapshotFile(slot: String): File {
+        val digest = MessageDigest.getInstance("SHA-256").digest(slot.toByteArray())
+        return File(directory, digest.joinToString("") { "%02x".format(it) } + ".model")
+    }
+
+    private companion object {
+        /** Changed whenever snapshots written before cannot be loaded anymore */
+        const val FORMAT_VERSION = 1
+    }
+}
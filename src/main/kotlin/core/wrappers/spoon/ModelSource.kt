@@ -0,0 +1,244 @@
+package org.example.core.wrappers.spoon
+
+import org.example.core.services.filedetection.FileInventory
+import org.example.core.services.filedetection.SourceFile
+import org.example.core.utils.Diagnostics
+import spoon.IncrementalLauncher
+import spoon.Launcher
+import spoon.reflect.CtModel
+import java.io.File
+import java.io.IOException
+import java.nio.file.Files
+import java.security.MessageDigest
+import java.util.Properties
+
+/**
+ * Where [SpoonWrapper] may take its models from instead of building them from scratch.
+ */
+data class ModelReuse(
+    /** Directory of saved Spoon models (see [ModelSnapshotStore]), loaded instead of rebuilt while their sources are unchanged */
+    val snapshotDir: File? = null,
+    /**
+     * Keep the model of every relevant file in the endpoint cache directory with Spoon's
+     * [IncrementalLauncher], which recompiles only changed files. Needs a cache directory; not
+     * used with a fast path or a file budget.
+     */
+    val incremental: Boolean = false,
+    /** Models of earlier analyses in this process (see [ModelMemory]), reused while their sources are unchanged */
+    val models: ModelMemory? = null
+)
+
+/**
+ * Builds the Spoon models of the project in [projectDir], or takes them from where [reuse]
+ * allows: a model kept in memory, a saved snapshot, or an incremental model that recompiles only
+ * the files changed since the last run.
+ *
+ * Models are matched to their sources by content hash, taken from [projectFiles] for the files it
+ * holds and read from disk for the others.
+ */
+class ModelSource(
+    private val projectDir: String,
+    private val projectFiles: FileInventory?,
+    private val reuse: ModelReuse,
+    private val diagnostics: Diagnostics
+) {
+    private val snapshots = reuse.snapshotDir?.let { ModelSnapshotStore(it) }
+
+    /**
+     * The Spoon model of [files], parsing [reducedSources] in place of the files they reduce.
+     * A model of the same sources kept in memory is reused. Otherwise, with a snapshot directory,
+     * the model last saved in [snapshotSlot] is loaded instead when it was built from the same
+     * sources, and a rebuilt model is saved there. Models are built by [launch].
+     */
+    fun build(
+        files: Collection<File>,
+        reducedSources: Map<File, String> = emptyMap(),
+        snapshotSlot: String = "model",
+        launch: () -> Launcher = { launcherFor(files, reducedSources) }
+    ): CtModel {
+        val models = reuse.models
+        if (snapshots == null && models == null) return launch().model
+        val slot = "${File(projectDir).absolutePath}#$snapshotSlot"
+        val key = snapshotKey(files, reducedSources)
+
+        models?.get(slot, key)?.let { model ->
+            diagnostics.note { "Model ($snapshotSlot): reused from memory" }
+            return model
+        }
+        val model = loadOrBuild(snapshotSlot, slot, key, launch)
+        models?.put(slot, key, model)
+        return model
+    }
+
+    private fun loadOrBuild(snapshotSlot: String, slot: String, key: String, launch: () -> Launcher): CtModel {
+        val store = snapshots ?: return launch().model
+
+        val loadStart = System.nanoTime()
+        store.load(slot, key)?.let { snapshot ->
+            diagnostics.note { "Model snapshot ($snapshotSlot): loaded in ${millisSince(loadStart)} ms, the build took ${snapshot.buildMillis} ms" }
+            return snapshot.model
+        }
+        val buildStart = System.nanoTime()
+        val launcher = launch()
+        val buildMillis = millisSince(buildStart)
+        val saveStart = System.nanoTime()
+        val saved = store.save(slot, key, launcher.factory, buildMillis)
+        val saveNote = if (saved) "saved in ${millisSince(saveStart)} ms" else "could not be saved"
+        diagnostics.note { "Model snapshot ($snapshotSlot): none for these sources, built in $buildMillis ms, $saveNote" }
+        return launcher.model
+    }
+
+    /**
+     * The model of [files] kept up to date under [cacheDir] by an [IncrementalLauncher]: files
+     * added, removed or modified since the last run are compiled again, the others are loaded.
+     * The launcher goes by modification times; when the content hashes show a change it cannot
+     * see, the model is rebuilt from scratch.
+     */
+    fun incremental(files: Collection<File>, cacheDir: File): CtModel {
+        val models = reuse.models
+        val slot = "${File(projectDir).absolutePath}#incremental"
+        val key = models?.let { snapshotKey(files, emptyMap()) }
+        if (key != null) {
+            models?.get(slot, key)?.let { model ->
+                diagnostics.note { "Incremental model: ${files.size} files, reused from memory" }
+                return model
+            }
+        }
+        val start = System.nanoTime()
+        val directory = File(cacheDir, "spoon-model/${sha256(File(projectDir).absolutePath)}")
+        Files.createDirectories(directory.toPath())
+        val inputs = files.map { it.absoluteFile }.toSet()
+        val hashes = inputs.associate { it.path to contentHash(it) }
+        val hashesFile = File(directory, CONTENT_HASHES_FILE)
+        val unseen = hasChangesUnseenByModificationTime(hashes, hashesFile)
+        val launcher = IncrementalLauncher(inputs, emptySet(), directory, unseen)
+        configure(launcher)
+        val changed = unseen || launcher.changesPresent()
+        val model = launcher.buildModel()
+        launcher.saveCache()
+        saveContentHashes(hashes, hashesFile)
+        val state = when {
+            unseen -> "files changed without a newer modification time, rebuilt"
+            changed -> "changed files recompiled"
+            else -> "no changes"
+        }
+        diagnostics.note { "Incremental model: ${files.size} files, $state, ready in ${millisSince(start)} ms" }
+        if (key != null) {
+            models?.put(slot, key, model)
+        }
+        return model
+    }
+
+    /**
+     * The launcher of one round of an expansion: the [IncrementalLauncher] kept in [directory] for
+     * the rounds of that expansion. A round loaded from a snapshot or from memory leaves nothing
+     * there, and the next round built compiles all its files.
+     */
+    fun expansionRound(files: Collection<File>, directory: File): Launcher {
+        val launcher = IncrementalLauncher(files.map { it.absoluteFile }.toSet(), emptySet(), directory)
+        configure(launcher)
+        launcher.buildModel()
+        launcher.saveCache()
+        return launcher
+    }
+
+    /**
+     * Whether a file's contents differ from the last incremental build while its modification time
+     * is not newer than that build (a checkout or copy keeping the old time). [IncrementalLauncher]
+     * compares modification times only and would keep the stale model of such a file.
+     */
+    private fun hasChangesUnseenByModificationTime(hashes: Map<String, String>, hashesFile: File): Boolean {
+        val previous = Properties()
+        try {
+            hashesFile.inputStream().use { previous.load(it) }
+        } catch (e: IOException) {
+            // No previous build, or no record of it: the launcher builds everything anyway
+            return false
+        }
+        val builtAt = previous.getProperty(BUILT_AT_KEY)?.toLongOrNull() ?: return true
+        return hashes.any { (path, hash) ->
+            val previousHash = previous.getProperty(path)
+            previousHash != null && previousHash != hash && File(path).lastModified() <= builtAt
+        }
+    }
+
+    private fun saveContentHashes(hashes: Map<String, String>, hashesFile: File) {
+        val properties = Properties()
+        hashes.forEach { (path, hash) -> properties.setProperty(path, hash) }
+        // Taken after the launcher saved its cache, so files written during the build count as unseen
+        properties.setProperty(BUILT_AT_KEY, System.currentTimeMillis().toString())
+        try {
+            hashesFile.outputStream().use { properties.store(it, null) }
+        } catch (e: IOException) {
+            // The next run cannot check for unseen changes and relies on modification times
+            hashesFile.delete()
+        }
+    }
+
+    private fun launcherFor(files: Collection<File>, reducedSources: Map<File, String>): Launcher {
+        val launcher = Launcher()
+        configure(launcher)
+
+        // Reduced sources are parsed from temporary copies, one directory each to keep the file names endpoints report
+        val dietDir = if (reducedSources.isEmpty()) null else Files.createTempDirectory("contract-coverage-diet")
+        try {
+            files.forEachIndexed { index, file ->
+                val reduced = reducedSources[file]
+                if (reduced == null || dietDir == null) {
+                    launcher.addInputResource(file.absolutePath)
+                } else {
+                    val copy = Files.createDirectories(dietDir.resolve(index.toString())).resolve(file.name)
+                    Files.writeString(copy, reduced)
+                    launcher.addInputResource(copy.toString())
+                }
+            }
+            launcher.buildModel()
+        } finally {
+            dietDir?.toFile()?.deleteRecursively()
+        }
+        return launcher
+    }
+
+    private fun configure(launcher: Launcher) {
+        // Configure Spoon to be more tolerant
+        launcher.environment.apply {
+            setNoClasspath(true)
+            setIgnoreDuplicateDeclarations(true)
+            complianceLevel = COMPLIANCE_LEVEL
+            isAutoImports = false
+        }
+    }
+
+    /**
+     * SHA-256 of the inputs of a model build: the Spoon settings, and the path and contents of
+     * every file in order.
+     */
+    private fun snapshotKey(files: Collection<File>, reducedSources: Map<File, String>): String {
+        val digest = MessageDigest.getInstance("SHA-256")
+        digest.update("compliance=$COMPLIANCE_LEVEL\n".toByteArray())
+        for (file in files) {
+            val reduced = reducedSources[file]
+            if (reduced != null) {
+                digest.update("${file.absolutePath} reduced ${reduced.length}\n$reduced\n".toByteArray())
+            } else {
+                digest.update("${file.absolutePath} ${contentHash(file)}\n".toByteArray())
+            }
+        }
+        return digest.digest().joinToString("") { "%02x".format(it) }
+    }
+
+    private fun contentHash(file: File): String = (projectFiles?.sourceFile(file) ?: SourceFile.of(file)).contentHash
+
+    private fun sha256(text: String): String {
+        return MessageDigest.getInstance("SHA-256").digest(text.toByteArray()).joinToString("") { "%02x".format(it) }
+    }
+
+    private fun millisSince(start: Long): Long = (System.nanoTime() - start) / 1_000_000
+
+    private companion object {
+        const val COMPLIANCE_LEVEL = 17
+        const val CONTENT_HASHES_FILE = "content-hashes.properties"
+        /** Key of the build time in [CONTENT_HASHES_FILE]; file paths are absolute, so no path is this */
+        const val BUILT_AT_KEY = "built-at"
+    }
+}
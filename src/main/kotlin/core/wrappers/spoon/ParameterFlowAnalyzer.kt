@@ -104,16 +104,18 @@ class ParameterFlowAnalyzer {
      * 
      * @param varName The variable name to trace
      * @param method The method to search in
+     * @param index Index of the model containing the method
      * @return The parameter dependency if found, null otherwise
      */
     fun traceVariableToParameter(
         varName: String,
-        method: CtMethod<*>
+        method: CtMethod<*>,
+        index: ModelIndex
     ): List<ParameterDependency>? {
-        val body = method.body ?: return null
+        if (method.body == null) return null
         
         // Find assignment to this variable
-        val assignment = findVariableAssignment(varName, body) ?: return null
+        val assignment = findVariableAssignment(varName, method, index) ?: return null
         
         // Find the direct parameter index (for path-like usage)
         val pathParamIndex = findPathParameterIndex(assignment, method)
@@ -125,23 +127,20 @@ class ParameterFlowAnalyzer {
         return null
     }
     
-    private fun findVariableAssignment(varName: String, block: CtBlock<*>): CtExpression<*>? {
-        for (statement in block.statements) {
-            when (statement) {
-                is CtLocalVariable<*> -> {
-                    if (statement.simpleName == varName) {
-                        return statement.defaultExpression
-                    }
-                }
-                is CtAssignment<*, *> -> {
-                    val assigned = statement.assigned
-                    if (assigned is CtVariableWrite<*> && assigned.variable.simpleName == varName) {
-                        return statement.assignment
-                    }
-                }
-            }
+    /**
+     * Find the value assigned to a variable: its declaration initializer, or else the first assignment.
+     */
+    private fun findVariableAssignment(varName: String, method: CtMethod<*>, index: ModelIndex): CtExpression<*>? {
+        val declaration = index.localVariablesOf(method).firstOrNull { it.simpleName == varName }
+        if (declaration != null) {
+            return declaration.defaultExpression
         }
-        return null
+        
+        val assignment = index.assignmentsIn(method).firstOrNull { statement ->
+            val assigned = statement.assigned
+            assigned is CtVariableWrite<*> && assigned.variable.simpleName == varName
+        }
+        return assignment?.assignment
     }
     
     /**
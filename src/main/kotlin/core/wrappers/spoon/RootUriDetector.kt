@@ -4,15 +4,15 @@ import org.example.core.entities.UnresolvedMarkers
 import spoon.reflect.CtModel
 import spoon.reflect.code.*
 import spoon.reflect.declaration.CtClass
-import spoon.reflect.declaration.CtElement
 import spoon.reflect.declaration.CtMethod
+import java.util.IdentityHashMap
 
 /**
  * Resolves rootUri configuration for RestTemplate.
  * 
  * Logic:
  * - If rootUri() is not used → return NotFound (use path as-is)
- * - If rootUri() is used and value is a literal → return Resolved with path
+ * - If rootUri() is used and value is a literal (or a final field initialized with one) → return Resolved with path
  * - If rootUri() is used but value is dynamic → return Dynamic
  */
 class RootUriDetector(
@@ -34,18 +34,82 @@ class RootUriDetector(
     }
     
     /**
-     * Try to resolve rootUri for the class containing the RestTemplate call.
+     * rootUri results of one model. Every rootUri() call is resolved once when the
+     * table is built, and each client class maps to its result.
+     */
+    private class RootUriTable(
+        val model: CtModel,
+        /** Classes declaring a rootUri() call, in model order, with the result of the first one */
+        val rootUriClasses: List<Pair<CtClass<*>, RootUriResult>>,
+        val resultsByClass: IdentityHashMap<CtClass<*>, RootUriResult>
+    )
+    
+    @Volatile
+    private var table: RootUriTable? = null
+    
+    /**
+     * Resolve rootUri for the class containing the RestTemplate call.
+     * This is a lookup in the table precomputed for the model.
      */
     fun resolveRootUri(containingClass: CtClass<*>?, model: CtModel): RootUriResult {
         if (containingClass == null) return RootUriResult.NotFound
         
+        val table = tableFor(model)
+        // Nested and anonymous classes are not precomputed; resolve them on first use
+        synchronized(table.resultsByClass) {
+            return table.resultsByClass.getOrPut(containingClass) {
+                computeRootUri(containingClass, table.rootUriClasses, model)
+            }
+        }
+    }
+    
+    private fun tableFor(model: CtModel): RootUriTable {
+        val current = table
+        if (current != null && current.model === model) return current
+        synchronized(this) {
+            val built = table
+            if (built != null && built.model === model) return built
+            return buildTable(model).also { table = it }
+        }
+    }
+    
+    /**
+     * Collect the rootUri() configuration of every class in one pass, then map each class to its result.
+     */
+    private fun buildTable(model: CtModel): RootUriTable {
+        val index = ModelIndex.of(model)
+        
+        val rootUriClasses = index.classes
+            .map { ctClass ->
+                val result = try {
+                    findRootUriInClass(ctClass, model)
+                } catch (e: Exception) {
+                    RootUriResult.NotFound
+                }
+                ctClass to result
+            }
+            .filter { (_, result) -> result != RootUriResult.NotFound }
+        
+        val resultsByClass = IdentityHashMap<CtClass<*>, RootUriResult>()
+        for (ctClass in index.classes) {
+            resultsByClass[ctClass] = computeRootUri(ctClass, rootUriClasses, model)
+        }
+        
+        return RootUriTable(model, rootUriClasses, resultsByClass)
+    }
+    
+    private fun computeRootUri(
+        containingClass: CtClass<*>,
+        rootUriClasses: List<Pair<CtClass<*>, RootUriResult>>,
+        model: CtModel
+    ): RootUriResult {
         try {
             // Strategy 1: Check Factory classes that create this client
-            val factoryResult = checkFactoryClasses(containingClass.simpleName, model)
+            val factoryResult = checkFactoryClasses(containingClass.simpleName, rootUriClasses)
             if (factoryResult != RootUriResult.NotFound) return factoryResult
             
             // Strategy 2: Check if RestTemplate is created within the class itself
-            val localResult = checkLocalRestTemplateCreation(containingClass, model)
+            val localResult = findRootUriInClass(containingClass, model)
             if (localResult != RootUriResult.NotFound) return localResult
         } catch (e: Exception) {
             // If any error occurs during analysis, assume dynamic
@@ -58,29 +122,23 @@ class RootUriDetector(
     /**
      * Check Factory classes that might create this client with rootUri
      */
-    private fun checkFactoryClasses(clientClassName: String, model: CtModel): RootUriResult {
-        val allClasses = model.allTypes.filterIsInstance<CtClass<*>>()
-        
-        val factoryClasses = allClasses.filter { 
-            it.simpleName.endsWith("Factory") || 
-            it.simpleName.endsWith("Builder") ||
-            it.simpleName.contains(clientClassName.removeSuffix("Client"))
+    private fun checkFactoryClasses(
+        clientClassName: String,
+        rootUriClasses: List<Pair<CtClass<*>, RootUriResult>>
+    ): RootUriResult {
+        val factory = rootUriClasses.firstOrNull { (candidate, _) ->
+            candidate.simpleName.endsWith("Factory") || 
+            candidate.simpleName.endsWith("Builder") ||
+            candidate.simpleName.contains(clientClassName.removeSuffix("Client"))
         }
         
-        for (factory in factoryClasses) {
-            for (method in factory.methods) {
-                val result = tryResolveRootUriInMethod(method, model)
-                if (result != RootUriResult.NotFound) return result
-            }
-        }
-        
-        return RootUriResult.NotFound
+        return factory?.second ?: RootUriResult.NotFound
     }
     
     /**
-     * Check if RestTemplate is created locally with rootUri
+     * Find the rootUri configuration of the first method of a class that calls rootUri()
      */
-    private fun checkLocalRestTemplateCreation(ctClass: CtClass<*>, model: CtModel): RootUriResult {
+    private fun findRootUriInClass(ctClass: CtClass<*>, model: CtModel): RootUriResult {
         for (method in ctClass.methods) {
             val result = tryResolveRootUriInMethod(method, model)
             if (result != RootUriResult.NotFound) return result
@@ -93,13 +151,13 @@ class RootUriDetector(
      * Try to resolve rootUri in a specific method
      */
     private fun tryResolveRootUriInMethod(method: CtMethod<*>, model: CtModel): RootUriResult {
-        val rootUriCall = findRootUriCall(method) ?: return RootUriResult.NotFound
+        val rootUriCall = findRootUriCall(method, model) ?: return RootUriResult.NotFound
         
         val arg = rootUriCall.arguments.firstOrNull() ?: return RootUriResult.Dynamic
         
-        // If argument is a literal string, we can resolve it
-        if (arg is CtLiteral<*> && arg.value is String) {
-            val url = arg.value as String
+        // If argument is a literal string (directly or through a constant), we can resolve it
+        val url = resolveLiteralArgument(arg, model)
+        if (url != null) {
             val path = extractPathFromUrl(url)
             return if (path.isNotEmpty()) {
                 RootUriResult.Resolved(path)
@@ -113,29 +171,31 @@ class RootUriDetector(
     }
     
     /**
-     * Find a rootUri() call in a method by scanning its body
+     * Get the String value of a rootUri argument that is a literal or a final field
+     * initialized with a literal.
      */
-    private fun findRootUriCall(method: CtMethod<*>): CtInvocation<*>? {
-        val body = method.body ?: return null
-        return findRootUriInElement(body)
-    }
-    
-    /**
-     * Recursively find rootUri invocation in an element
-     */
-    private fun findRootUriInElement(element: CtElement): CtInvocation<*>? {
-        if (element is CtInvocation<*> && element.executable.simpleName == "rootUri") {
-            return element
-        }
+    private fun resolveLiteralArgument(arg: CtExpression<*>, model: CtModel): String? {
+        if (arg is CtLiteral<*>) return arg.value as? String
         
-        for (child in element.directChildren) {
-            val found = findRootUriInElement(child)
-            if (found != null) return found
+        if (arg is CtFieldRead<*>) {
+            val field = ModelIndex.of(model)
+                .findField(arg.variable.declaringType?.qualifiedName, arg.variable.simpleName)
+            val initializer = field?.defaultExpression
+            if (field != null && field.isFinal && initializer is CtLiteral<*>) {
+                return initializer.value as? String
+            }
         }
         
         return null
     }
     
+    /**
+     * Find a rootUri() call in a method body
+     */
+    private fun findRootUriCall(method: CtMethod<*>, model: CtModel): CtInvocation<*>? {
+        return ModelIndex.of(model).invocationsIn(method).firstOrNull { it.executable.simpleName == "rootUri" }
+    }
+    
     /**
      * Extract path from URL (e.g., "https://api.com/v1" -> "/v1")
      */
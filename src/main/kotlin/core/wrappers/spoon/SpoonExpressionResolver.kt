@@ -1,6 +1,8 @@
 package org.example.core.wrappers.spoon
 
+import org.example.core.entities.ResolvedValue
 import org.example.core.entities.UnresolvedMarkers
+import org.example.core.services.filedetection.LexicalConstantIndex
 import spoon.reflect.CtModel
 import spoon.reflect.code.CtBinaryOperator
 import spoon.reflect.code.CtExpression
@@ -8,16 +10,89 @@ import spoon.reflect.code.CtFieldRead
 import spoon.reflect.code.CtInvocation
 import spoon.reflect.code.CtLiteral
 import spoon.reflect.code.CtLocalVariable
-import spoon.reflect.code.CtReturn
 import spoon.reflect.code.CtVariableRead
 import spoon.reflect.declaration.CtElement
-import spoon.reflect.declaration.CtField
 import spoon.reflect.declaration.CtMethod
 import spoon.reflect.declaration.CtParameter
 import spoon.reflect.reference.CtLocalVariableReference
-import spoon.reflect.visitor.Filter
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicLong
 
-class SpoonExpressionResolver {
+/**
+ * Resolves String expressions of a Spoon model to [ResolvedValue]s.
+ *
+ * Safe for concurrent use on a model that is no longer modified: the memo table is shared
+ * between threads and truncation tracking is per thread.
+ *
+ * @param constantIndex String constants of the whole project, for fields declared outside the model
+ */
+class SpoonExpressionResolver(private val constantIndex: LexicalConstantIndex? = null) {
+
+    /**
+     * Memoized results of [resolveExpression] for the current model.
+     * Each entry remembers the recursion depth it was computed at: an untruncated result
+     * is reproduced exactly by any call made at the same or a shallower depth, so entries
+     * written by other threads never change a result.
+     */
+    private val memo = ConcurrentHashMap<MemoKey, MemoEntry>()
+    @Volatile
+    private var memoModel: CtModel? = null
+    private val memoHits = AtomicLong()
+    private val memoMisses = AtomicLong()
+    
+    /**
+     * Number of times a resolution on the current thread was cut short by the recursion limit.
+     * Results computed while this grows are partial and never memoized.
+     */
+    private val truncations = ThreadLocal.withInitial { TruncationCounter() }
+    
+    private class TruncationCounter {
+        var count = 0L
+    }
+    
+    /**
+     * Code outside the current model that unresolved values depend on, see [missingSymbols].
+     */
+    private val missingSymbols: MutableSet<MissingSymbol> = ConcurrentHashMap.newKeySet()
+    
+    /**
+     * Identity-based memo key. Spoon elements implement structural equals, so two
+     * `url` reads in different methods would otherwise share an entry.
+     */
+    private class MemoKey(val expr: CtExpression<*>, val contextMethod: CtMethod<*>?) {
+        override fun equals(other: Any?): Boolean {
+            return other is MemoKey && other.expr === expr && other.contextMethod === contextMethod
+        }
+        
+        override fun hashCode(): Int {
+            return 31 * System.identityHashCode(expr) + System.identityHashCode(contextMethod)
+        }
+    }
+    
+    private class MemoEntry(val value: ResolvedValue, val depth: Int)
+    
+    /**
+     * Hit/miss counters of the expression memo table
+     */
+    data class CacheStats(val hits: Long, val misses: Long) {
+        val hitRate: Double get() = if (hits + misses == 0L) 0.0 else hits.toDouble() / (hits + misses)
+    }
+    
+    /**
+     * Symbols outside the model that values resolved so far depend on: methods whose parameters
+     * have no caller in the model, and types whose fields are read but not declared in it.
+     */
+    fun missingSymbols(): Set<MissingSymbol> = missingSymbols.toSet()
+    
+    fun cacheStats(): CacheStats = CacheStats(memoHits.get(), memoMisses.get())
+
+    /**
+     * Find a local variable declared anywhere in [method] through the model index.
+     */
+    private fun findLocalVariable(method: CtMethod<*>?, name: String, model: CtModel): CtLocalVariable<*>? {
+        if (method == null) return null
+        return ModelIndex.of(model).localVariablesOf(method).find { it.simpleName == name }
+    }
 
     /**
      * Context for parameter resolution within a specific call site
@@ -33,7 +108,7 @@ class SpoonExpressionResolver {
         args: List<CtExpression<*>>,
         scopeMethod: CtMethod<*>?,
         model: CtModel
-    ): String {
+    ): ResolvedValue {
         val context = ParamContext(params, args)
         return resolveExpressionWithContext(expr, scopeMethod, model, context)
     }
@@ -44,9 +119,12 @@ class SpoonExpressionResolver {
         model: CtModel,
         paramContext: ParamContext?,
         depth: Int = 0
-    ): String {
-        if (expr == null) return "null expression"
-        if (depth > 5) return UnresolvedMarkers.UNRESOLVED_URL
+    ): ResolvedValue {
+        if (expr == null) return ResolvedValue.Unknown
+        if (depth > 5) {
+            truncations.get().count++
+            return depthLimitReached()
+        }
         
         return when (expr) {
             is CtVariableRead<*> -> {
@@ -64,9 +142,7 @@ class SpoonExpressionResolver {
                 }
                 
                 // Check for local variable - resolve with context
-                val localVar = contextMethod?.getElements<CtLocalVariable<*>>{it is CtLocalVariable<*>}
-                    ?.filterIsInstance<CtLocalVariable<*>>()
-                    ?.find { it.simpleName == varName }
+                val localVar = findLocalVariable(contextMethod, varName, model)
                 
                 if (localVar != null) {
                     val defaultExpr = localVar.defaultExpression
@@ -80,24 +156,12 @@ class SpoonExpressionResolver {
                 resolveExpression(expr, contextMethod, model, null, depth + 1)
             }
             
-            is CtLiteral<*> -> expr.value.toString()
+            is CtLiteral<*> -> ResolvedValue.literal(expr.value.toString())
             
             is CtBinaryOperator<*> -> {
                 val left = resolveExpressionWithContext(expr.leftHandOperand, contextMethod, model, paramContext, depth + 1)
                 val right = resolveExpressionWithContext(expr.rightHandOperand, contextMethod, model, paramContext, depth + 1)
-                
-                if (UnresolvedMarkers.isUnresolved(left) && right.startsWith("/")) {
-                    return right
-                }
-                
-                val result = left + right
-                return if (UnresolvedMarkers.isUnresolved(right) && left.startsWith("/")) {
-                    left.trimEnd('/') + "/{dynamic}"
-                } else if (result.contains(UnresolvedMarkers.UNRESOLVED_VARIABLE)) {
-                    result.replace(UnresolvedMarkers.UNRESOLVED_VARIABLE, "{dynamic}")
-                } else {
-                    result
-                }
+                concatUrlParts(left, right)
             }
             
             is CtInvocation<*> -> {
@@ -121,7 +185,7 @@ class SpoonExpressionResolver {
         model: CtModel,
         paramContext: ParamContext?,
         depth: Int
-    ): String? {
+    ): ResolvedValue? {
         val methodName = expr.executable.simpleName
         val typeName = expr.executable.declaringType?.qualifiedName ?: expr.type?.qualifiedName
         
@@ -134,24 +198,24 @@ class SpoonExpressionResolver {
         // Extract chain info with param context
         val chainInfo = extractUriBuilderChainWithContext(expr, contextMethod, model, paramContext, depth)
         
-        val segmentsPath = chainInfo.pathSegments.joinToString("")
+        val segmentsPath = ResolvedValue.concat(chainInfo.pathSegments)
         
-        if (segmentsPath.isNotEmpty()) {
+        if (segmentsPath.text.isNotEmpty()) {
             val baseUrlPath = chainInfo.baseUrl?.let {
-                if (!UnresolvedMarkers.isUnresolved(it)) { extractPathFromUrl(it) } else { "" }
-            } ?: ""
+                if (!it.isUnresolved) { extractPathFromUrl(it) } else { ResolvedValue.EMPTY }
+            } ?: ResolvedValue.EMPTY
             
-            val fullPath = if (baseUrlPath.isNotEmpty() && baseUrlPath != "/") {
+            val fullPath = if (baseUrlPath.text.isNotEmpty() && baseUrlPath.text != "/") {
                 baseUrlPath + segmentsPath
             } else {
                 segmentsPath
             }
             
-            return if (fullPath.startsWith("/")) fullPath else "/$fullPath"
+            return if (fullPath.text.startsWith("/")) fullPath else ResolvedValue.literal("/") + fullPath
         }
         
         return chainInfo.baseUrl?.let { 
-            if (!UnresolvedMarkers.isUnresolved(it)) {
+            if (!it.isUnresolved) {
                 extractPathFromUrl(it)
             } else {
                 null
@@ -166,8 +230,8 @@ class SpoonExpressionResolver {
         paramContext: ParamContext?,
         depth: Int
     ): UriBuilderChainInfo {
-        var baseUrl: String? = null
-        val pathSegments = mutableListOf<String>()
+        var baseUrl: ResolvedValue? = null
+        val pathSegments = mutableListOf<ResolvedValue>()
         
         var current: CtExpression<*>? = expr
         
@@ -180,9 +244,9 @@ class SpoonExpressionResolver {
                     val pathArg = invocation.arguments.firstOrNull()
                     if (pathArg != null) {
                         val resolvedPath = resolveExpressionWithContext(pathArg, contextMethod, model, paramContext, depth + 1)
-                        if (!UnresolvedMarkers.isUnresolved(resolvedPath)) {
+                        if (!resolvedPath.isUnresolved) {
                             pathSegments.add(0, resolvedPath)
-                        } else if (resolvedPath.contains("{dynamic}")) {
+                        } else if (resolvedPath.hasPlaceholder("dynamic")) {
                             pathSegments.add(0, resolvedPath)
                         }
                     }
@@ -190,14 +254,14 @@ class SpoonExpressionResolver {
                 "pathSegment" -> {
                     val segments = invocation.arguments.map { arg ->
                         val resolved = resolveExpressionWithContext(arg, contextMethod, model, paramContext, depth + 1)
-                        if (!UnresolvedMarkers.isUnresolved(resolved) && resolved.isNotBlank()) {
+                        if (!resolved.isUnresolved && resolved.text.isNotBlank()) {
                             resolved
                         } else {
-                            "{dynamic}"
+                            ResolvedValue.DYNAMIC
                         }
                     }
                     if (segments.isNotEmpty()) {
-                        val combinedPath = "/" + segments.joinToString("/")
+                        val combinedPath = ResolvedValue.join(segments, "/", prefix = "/")
                         pathSegments.add(0, combinedPath)
                     }
                 }
@@ -215,35 +279,60 @@ class SpoonExpressionResolver {
         return UriBuilderChainInfo(baseUrl, pathSegments)
     }
 
-    fun resolveExpression(expr: CtExpression<*>?, contextMethod: CtMethod<*>?, model: CtModel, context: CtElement? = null, depth: Int = 0): String {
-        if (expr == null) return "null expression"
+    fun resolveExpression(expr: CtExpression<*>?, contextMethod: CtMethod<*>?, model: CtModel, context: CtElement? = null, depth: Int = 0): ResolvedValue {
+        if (expr == null) return ResolvedValue.Unknown
         
         // Prevent infinite recursion
-        if (depth > 5) return UnresolvedMarkers.UNRESOLVED_URL
-
+        if (depth > 5) {
+            truncations.get().count++
+            return depthLimitReached()
+        }
+        
+        if (memoModel !== model) {
+            synchronized(memo) {
+                if (memoModel !== model) {
+                    memo.clear()
+                    missingSymbols.clear()
+                    memoModel = model
+                }
+            }
+        }
+        
+        val key = MemoKey(expr, contextMethod)
+        val cached = memo[key]
+        if (cached != null && depth <= cached.depth) {
+            memoHits.incrementAndGet()
+            return cached.value
+        }
+        memoMisses.incrementAndGet()
+        
+        val truncationCounter = truncations.get()
+        val truncationsBefore = truncationCounter.count
+        val value = computeExpression(expr, contextMethod, model, context, depth)
+        
+        // A result cut short by the depth limit could differ when reached from a shallower call
+        if (truncationCounter.count == truncationsBefore) {
+            memo.merge(key, MemoEntry(value, depth)) { existing, computed ->
+                if (computed.depth > existing.depth) computed else existing
+            }
+        }
+        return value
+    }
+    
+    private fun computeExpression(expr: CtExpression<*>, contextMethod: CtMethod<*>?, model: CtModel, context: CtElement?, depth: Int): ResolvedValue {
+        // Values that are the same constant on every path are taken from the dataflow fixpoint,
+        // which follows parameters, fields and returns without a depth limit
+        if (expr !is CtLiteral<*>) {
+            ModelIndex.of(model).constants.constantOf(expr)?.let { return ResolvedValue.literal(it) }
+        }
+        
         return when (expr) {
-            is CtLiteral<*> -> expr.value.toString()
+            is CtLiteral<*> -> ResolvedValue.literal(expr.value.toString())
 
             is CtBinaryOperator<*> -> {
                 val left = resolveExpression(expr.leftHandOperand, contextMethod, model)
                 val right = resolveExpression(expr.rightHandOperand, contextMethod, model)
-                
-                // If left is dynamic but right is a path (starts with /), use only the path
-                // This handles: dynamicBaseUrl + "/api/users" -> "/api/users"
-                if (UnresolvedMarkers.isUnresolved(left) && right.startsWith("/")) {
-                    return right
-                }
-                
-                // Replace unresolved parts with {dynamic} to preserve path structure
-                // This handles: "/users/" + id -> "/users/{dynamic}"
-                val result = left + right
-                return if (UnresolvedMarkers.isUnresolved(right) && left.startsWith("/")) {
-                    left.trimEnd('/') + "/{dynamic}"
-                } else if (result.contains(UnresolvedMarkers.UNRESOLVED_VARIABLE)) {
-                    result.replace(UnresolvedMarkers.UNRESOLVED_VARIABLE, "{dynamic}")
-                } else {
-                    result
-                }
+                concatUrlParts(left, right)
             }
 
             is CtFieldRead<*> -> {
@@ -251,14 +340,19 @@ class SpoonExpressionResolver {
                 val declType = expr.variable.declaringType?.qualifiedName
                 val fieldName = expr.variable.simpleName
 
-                val fieldDecl = model.getElements<CtField<*>> { e -> e is CtField<*> }
-                    .find { it.simpleName == fieldName && it.declaringType?.qualifiedName == declType }
+                val fieldDecl = ModelIndex.of(model).findField(declType, fieldName)
 
                 // Se conseguirmos o valor default do campo, usamos ele
                 val defaultExpr = fieldDecl?.defaultExpression
                 if (defaultExpr != null) {
                     return resolveExpression(defaultExpr, null, model)
                 }
+                if (fieldDecl == null) {
+                    constantIndex?.constantOf(declType, fieldName)?.let { return ResolvedValue.literal(it) }
+                }
+                if (fieldDecl == null && declType != null) {
+                    missingSymbols.add(MissingSymbol.DeclarationOf(declType))
+                }
 
                 // If field is not found in model, return field name as fallback
                 // This handles constants like BASE_URL, ENDPOINT, etc.
@@ -267,11 +361,11 @@ class SpoonExpressionResolver {
                 val typeName = fieldDecl?.type?.simpleName
                 return if (typeName == "String" && fieldName.contains(Regex("[A-Z_]+"))) {
                     // This is likely a String constant we couldn't resolve - mark as dynamic
-                    UnresolvedMarkers.UNRESOLVED_VARIABLE
+                    ResolvedValue.dynamic("field $fieldName has no initializer", UnresolvedMarkers.UNRESOLVED_VARIABLE)
                 } else if (typeName != null) {
-                    "{$typeName}"
+                    ResolvedValue.placeholder(typeName)
                 } else {
-                    fieldName
+                    ResolvedValue.literal(fieldName)
                 }
             }
 
@@ -279,15 +373,13 @@ class SpoonExpressionResolver {
                 val varName = expr.variable.simpleName
 
                 // 1. Tenta como variável local
-                val localVar = contextMethod?.getElements<CtLocalVariable<*>>{it is CtLocalVariable<*>}
-                    ?.filterIsInstance<CtLocalVariable<*>>()
-                    ?.find { it.simpleName == varName }
+                val localVar = findLocalVariable(contextMethod, varName, model)
 
                 if (localVar != null) {
                     val defaultExpr = localVar.defaultExpression
                     if (defaultExpr != null) {
                         val resolved = resolveExpression(defaultExpr, contextMethod, model)
-                        if (!UnresolvedMarkers.isUnresolved(resolved)) {
+                        if (!resolved.isUnresolved) {
                             return resolved
                         }
                     }
@@ -299,7 +391,7 @@ class SpoonExpressionResolver {
                         if (methodName in listOf("toUri", "build", "toUriString")) {
                             // Try to resolve the UriComponentsBuilder chain
                             val uriResult = tryResolveUriComponentsBuilder(defaultExpr, contextMethod, model)
-                            if (uriResult != null && !UnresolvedMarkers.isUnresolved(uriResult)) {
+                            if (uriResult != null && !uriResult.isUnresolved) {
                                 return uriResult
                             }
                         }
@@ -308,21 +400,25 @@ class SpoonExpressionResolver {
 
                 // 2. Tenta resolver como parâmetro (mesmo que nome seja diferente)
                 if (depth < 5) {
+                    val modelIndex = ModelIndex.of(model)
                     contextMethod?.parameters?.forEachIndexed { index, param ->
                         // Se o nome da variável lida bate com o nome do parâmetro
                         if (param.simpleName == varName) {
                             // Busca chamadas ao método atual
-                            val calls = model.getElements<CtInvocation<*>>{it is CtInvocation<*>}
-                                .filter { it.executable.simpleName == contextMethod.simpleName && it.arguments.size > index }
+                            val calls = modelIndex.callGraph.callersOf(contextMethod)
+                                .filter { it.arguments.size > index }
+                            if (calls.isEmpty()) {
+                                missingSymbols.add(MissingSymbol.callersOf(contextMethod))
+                            }
 
                             for (call in calls) {
-                                val callerMethod = call.getParent(CtMethod::class.java)
+                                val callerMethod = modelIndex.enclosingMethod(call)
                                 val argExpr = call.arguments[index]
                                 val resolved = resolveExpression(argExpr, callerMethod, model, null, depth + 1)
                                 // Accept paths that start with / even if they contain {dynamic}
                                 // This allows partially resolved paths like /users/{dynamic}
-                                if (!UnresolvedMarkers.isUnresolved(resolved) || 
-                                    (resolved.startsWith("/") && resolved.contains("{dynamic}"))) {
+                                if (!resolved.isUnresolved || 
+                                    (resolved.text.startsWith("/") && resolved.hasPlaceholder("dynamic"))) {
                                     return resolved
                                 }
                             }
@@ -331,13 +427,13 @@ class SpoonExpressionResolver {
 
                     // 3. Tenta resolver por casamento indireto (mesmo se nomes não batem)
                     val indirectMatch = contextMethod?.parameters?.mapIndexedNotNull { index, _ ->
-                        val calls = model.getElements<CtInvocation<*>>{it is CtInvocation<*>}
-                            .filter { it.executable.simpleName == contextMethod.simpleName && it.arguments.size > index }
+                        val calls = modelIndex.callGraph.callersOf(contextMethod)
+                            .filter { it.arguments.size > index }
 
                         for (call in calls) {
                             val argExpr = call.arguments[index]
                             if (argExpr is CtVariableRead<*> && argExpr.variable.simpleName == varName) {
-                                val callerMethod = call.getParent(CtMethod::class.java)
+                                val callerMethod = modelIndex.enclosingMethod(call)
                                 return@mapIndexedNotNull resolveExpression(argExpr, callerMethod, model, null, depth + 1)
                             }
                         }
@@ -345,20 +441,20 @@ class SpoonExpressionResolver {
                     }?.firstOrNull()
 
                     if (indirectMatch != null) return indirectMatch
+                } else {
+                    truncations.get().count++
                 }
 
-                return UnresolvedMarkers.UNRESOLVED_VARIABLE
+                return ResolvedValue.dynamic("$varName is only known at runtime", UnresolvedMarkers.UNRESOLVED_VARIABLE)
             }
 
 
             is CtLocalVariableReference<*> -> {
                 val method: CtMethod<*> = contextMethod ?: expr.getParent(CtMethod::class.java)
-                val localVar = method.body?.statements
-                    ?.filterIsInstance<CtLocalVariable<*>>()
-                    ?.firstOrNull { it.simpleName == expr.simpleName }
+                val localVar = findLocalVariable(method, expr.simpleName, model)
 
                 val defaultExpr = localVar?.defaultExpression
-                return defaultExpr?.let { resolveExpression(it, method, model) } ?: "{${expr.simpleName}}"
+                return defaultExpr?.let { resolveExpression(it, method, model) } ?: ResolvedValue.placeholder(expr.simpleName)
             }
 
             is CtInvocation<*> -> {
@@ -380,10 +476,14 @@ class SpoonExpressionResolver {
                 // Check for getter on parameter object: param.getBaseURL(), param.getTokenUrl(), etc.
                 // Try to trace back to the caller and find the actual value
                 val target = expr.target
-                if (target is CtVariableRead<*> && depth < 5) {
-                    val paramResult = tryResolveMethodOnParameter(target, expr, contextMethod, model, depth)
-                    if (paramResult != null && !UnresolvedMarkers.isUnresolved(paramResult)) {
-                        return paramResult
+                if (target is CtVariableRead<*>) {
+                    if (depth < 5) {
+                        val paramResult = tryResolveMethodOnParameter(target, expr, contextMethod, model, depth)
+                        if (paramResult != null && !paramResult.isUnresolved) {
+                            return paramResult
+                        }
+                    } else {
+                        truncations.get().count++
                     }
                 }
 
@@ -393,33 +493,81 @@ class SpoonExpressionResolver {
                     val formatString = firstArg.value as String
                     return try {
                         // Remove o primeiro argumento (formato) e aplica String.format
-                        String.format(formatString, *resolvedArgs.drop(1).toTypedArray())
+                        format(formatString, resolvedArgs.drop(1)) ?: ResolvedValue.concat(resolvedArgs)
                     } catch (e: Exception) {
                         // Se der erro, apenas concatena como fallback
-                        resolvedArgs.joinToString("")
+                        ResolvedValue.concat(resolvedArgs)
                     }
                 }
 
                 // Tentativa de resolução por retorno do método
-                val calledMethod = model.getElements<CtMethod<*>>{it -> it is CtMethod<*>}
-                    .filterIsInstance<CtMethod<*>>()
-                    .firstOrNull { it.simpleName == execRef.simpleName && it.parameters.size == execRef.parameters.size }
+                val modelIndex = ModelIndex.of(model)
+                val calledMethod = modelIndex.methodsNamed(execRef.simpleName)
+                    .firstOrNull { it.parameters.size == execRef.parameters.size }
 
                 if (calledMethod != null) {
-                    val returnStmt = calledMethod.getElements<CtReturn<*>>(CtReturn::class.java as Filter<CtReturn<*>?>?)
-                        .filterIsInstance<CtReturn<*>>()
-                        .firstOrNull()
+                    val returnStmt = modelIndex.returnsOf(calledMethod).firstOrNull()
 
                     if (returnStmt != null) {
                         return resolveExpression(returnStmt.returnedExpression, calledMethod, model, context)
                     }
                 }
 
-                return resolvedArgs.joinToString("")
+                return ResolvedValue.concat(resolvedArgs)
             }
 
-            else -> UnresolvedMarkers.UNRESOLVED_EXPRESSION
+            else -> ResolvedValue.Unknown
+        }
+    }
+    
+    /**
+     * Concatenate the operands of a `+` on URL parts.
+     */
+    private fun concatUrlParts(left: ResolvedValue, right: ResolvedValue): ResolvedValue {
+        // If left is dynamic but right is a path (starts with /), use only the path
+        // This handles: dynamicBaseUrl + "/api/users" -> "/api/users"
+        if (left.isUnresolved && right.text.startsWith("/")) {
+            return right
+        }
+        
+        // Replace unresolved parts with {dynamic} to preserve path structure
+        // This handles: "/users/" + id -> "/users/{dynamic}"
+        return if (right.isUnresolved && left.text.startsWith("/")) {
+            left.trimEnd('/') + ResolvedValue.literal("/") + ResolvedValue.DYNAMIC
+        } else {
+            (left + right).withPlaceholdersFor(UnresolvedMarkers.UNRESOLVED_VARIABLE)
+        }
+    }
+    
+    /**
+     * String.format over resolved values. `%s` takes the argument as is, so placeholders and
+     * unresolved parts survive formatting; other conversions need fully known arguments.
+     * Returns null when the pattern cannot be applied.
+     */
+    private fun format(pattern: String, args: List<ResolvedValue>): ResolvedValue? {
+        if (args.all { it is ResolvedValue.Literal }) {
+            return ResolvedValue.literal(String.format(pattern, *args.map { it.text }.toTypedArray()))
+        }
+        
+        val parts = mutableListOf<ResolvedValue>()
+        var argIndex = 0
+        var start = 0
+        for (specifier in FORMAT_SPECIFIER.findAll(pattern)) {
+            parts.add(ResolvedValue.literal(pattern.substring(start, specifier.range.first)))
+            when (specifier.value) {
+                "%s" -> parts.add(args.getOrNull(argIndex++) ?: return null)
+                "%%" -> parts.add(ResolvedValue.literal("%"))
+                "%n" -> parts.add(ResolvedValue.literal(System.lineSeparator()))
+                else -> return null
+            }
+            start = specifier.range.last + 1
         }
+        parts.add(ResolvedValue.literal(pattern.substring(start)))
+        return ResolvedValue.concat(parts)
+    }
+    
+    private fun depthLimitReached(): ResolvedValue {
+        return ResolvedValue.dynamic("resolution depth limit reached")
     }
 
     /**
@@ -434,7 +582,7 @@ class SpoonExpressionResolver {
         expr: CtInvocation<*>,
         contextMethod: CtMethod<*>?,
         model: CtModel
-    ): String? {
+    ): ResolvedValue? {
         val methodName = expr.executable.simpleName
         
         // Check if this is a terminal method of UriComponentsBuilder chain
@@ -450,38 +598,38 @@ class SpoonExpressionResolver {
         }
         
         // Build the path from segments
-        val segmentsPath = chainInfo.pathSegments.joinToString("")
+        val segmentsPath = ResolvedValue.concat(chainInfo.pathSegments)
         
         // If we have path segments, prioritize them (ignore dynamic base URL)
-        if (segmentsPath.isNotEmpty()) {
+        if (segmentsPath.text.isNotEmpty()) {
             // If the only content is {dynamic}, it's not useful - return null
-            val cleanedPath = segmentsPath.replace("/", "").replace("{dynamic}", "")
+            val cleanedPath = segmentsPath.text.replace("/", "").replace("{dynamic}", "")
             if (cleanedPath.isBlank()) {
                 return null // All dynamic, no static paths found
             }
             
             // Check if baseUrl has a static path component we should include
             val baseUrlPath = chainInfo.baseUrl?.let { 
-                if (!UnresolvedMarkers.isUnresolved(it)) {
+                if (!it.isUnresolved) {
                     extractPathFromUrl(it) 
                 } else {
-                    "" // Ignore dynamic base URLs
+                    ResolvedValue.EMPTY // Ignore dynamic base URLs
                 }
-            } ?: ""
+            } ?: ResolvedValue.EMPTY
             
-            val fullPath = if (baseUrlPath.isNotEmpty() && baseUrlPath != "/") {
+            val fullPath = if (baseUrlPath.text.isNotEmpty() && baseUrlPath.text != "/") {
                 baseUrlPath + segmentsPath
             } else {
                 segmentsPath
             }
             
             // Ensure path starts with /
-            return if (fullPath.startsWith("/")) fullPath else "/$fullPath"
+            return if (fullPath.text.startsWith("/")) fullPath else ResolvedValue.literal("/") + fullPath
         }
         
         // No segments, try to extract path from base URL
         return chainInfo.baseUrl?.let { 
-            if (!UnresolvedMarkers.isUnresolved(it)) {
+            if (!it.isUnresolved) {
                 extractPathFromUrl(it)
             } else {
                 null // Can't resolve - base URL is dynamic with no path segments
@@ -493,8 +641,8 @@ class SpoonExpressionResolver {
      * Data class to hold extracted information from UriComponentsBuilder chain
      */
     private data class UriBuilderChainInfo(
-        val baseUrl: String? = null,
-        val pathSegments: List<String> = emptyList()
+        val baseUrl: ResolvedValue? = null,
+        val pathSegments: List<ResolvedValue> = emptyList()
     )
     
     /**
@@ -510,8 +658,8 @@ class SpoonExpressionResolver {
         contextMethod: CtMethod<*>?,
         model: CtModel
     ): UriBuilderChainInfo {
-        var baseUrl: String? = null
-        val pathSegments = mutableListOf<String>()
+        var baseUrl: ResolvedValue? = null
+        val pathSegments = mutableListOf<ResolvedValue>()
         
         var current: CtExpression<*>? = expr
         var builderVarName: String? = null
@@ -525,7 +673,7 @@ class SpoonExpressionResolver {
                     val pathArg = invocation.arguments.firstOrNull()
                     if (pathArg != null) {
                         val resolvedPath = resolveExpression(pathArg, contextMethod, model)
-                        if (!UnresolvedMarkers.isUnresolved(resolvedPath)) {
+                        if (!resolvedPath.isUnresolved) {
                             pathSegments.add(0, resolvedPath)
                         }
                     }
@@ -533,14 +681,14 @@ class SpoonExpressionResolver {
                 "pathSegment" -> {
                     val segments = invocation.arguments.map { arg ->
                         val resolved = resolveExpression(arg, contextMethod, model)
-                        if (!UnresolvedMarkers.isUnresolved(resolved) && resolved.isNotBlank()) {
+                        if (!resolved.isUnresolved && resolved.text.isNotBlank()) {
                             resolved
                         } else {
-                            "{dynamic}"
+                            ResolvedValue.DYNAMIC
                         }
                     }
                     if (segments.isNotEmpty()) {
-                        val combinedPath = "/" + segments.joinToString("/")
+                        val combinedPath = ResolvedValue.join(segments, "/", prefix = "/")
                         pathSegments.add(0, combinedPath)
                     }
                 }
@@ -583,13 +731,11 @@ class SpoonExpressionResolver {
         varName: String,
         contextMethod: CtMethod<*>,
         model: CtModel
-    ): List<String> {
-        val pathSegments = mutableListOf<String>()
+    ): List<ResolvedValue> {
+        val pathSegments = mutableListOf<ResolvedValue>()
         
         // Find all invocations in the method body
-        val invocations = contextMethod.body?.getElements<CtInvocation<*>> { it is CtInvocation<*> }
-            ?.filterIsInstance<CtInvocation<*>>()
-            ?: return pathSegments
+        val invocations = ModelIndex.of(model).invocationsIn(contextMethod)
         
         for (invocation in invocations) {
             // Check if this is a pathSegment call on our variable
@@ -624,22 +770,22 @@ class SpoonExpressionResolver {
     private fun extractPathSegmentsFromChain(
         expr: CtInvocation<*>,
         model: CtModel
-    ): List<String> {
-        val segments = mutableListOf<String>()
+    ): List<ResolvedValue> {
+        val segments = mutableListOf<ResolvedValue>()
         var current: CtExpression<*>? = expr
         
         while (current is CtInvocation<*>) {
             if (current.executable.simpleName == "pathSegment") {
                 val resolvedSegments = current.arguments.map { arg ->
                     val resolved = resolveExpression(arg, null, model)
-                    if (!UnresolvedMarkers.isUnresolved(resolved) && resolved.isNotBlank()) {
+                    if (!resolved.isUnresolved && resolved.text.isNotBlank()) {
                         resolved
                     } else {
-                        "{dynamic}"
+                        ResolvedValue.DYNAMIC
                     }
                 }
                 if (resolvedSegments.isNotEmpty()) {
-                    segments.add(0, "/" + resolvedSegments.joinToString("/"))
+                    segments.add(0, ResolvedValue.join(resolvedSegments, "/", prefix = "/"))
                 }
             }
             current = current.target
@@ -655,10 +801,8 @@ class SpoonExpressionResolver {
         varName: String,
         contextMethod: CtMethod<*>,
         model: CtModel
-    ): String? {
-        val localVar = contextMethod.body?.getElements<CtLocalVariable<*>> { it is CtLocalVariable<*> }
-            ?.filterIsInstance<CtLocalVariable<*>>()
-            ?.find { it.simpleName == varName }
+    ): ResolvedValue? {
+        val localVar = findLocalVariable(contextMethod, varName, model)
         
         val defaultExpr = localVar?.defaultExpression
         if (defaultExpr is CtInvocation<*>) {
@@ -682,7 +826,7 @@ class SpoonExpressionResolver {
      * 1. Finding the enum constant and extracting its constructor argument (if enum is in model)
      * 2. Fallback: converting enum name to lowercase with _/- conventions
      */
-    private fun tryResolveEnumGetValue(expr: CtInvocation<*>, model: CtModel): String? {
+    private fun tryResolveEnumGetValue(expr: CtInvocation<*>, model: CtModel): ResolvedValue? {
         val methodName = expr.executable.simpleName
         
         // Check if it's a getValue() or similar accessor method
@@ -699,32 +843,28 @@ class SpoonExpressionResolver {
         val enumConstantName = target.variable.simpleName
         val enumTypeName = target.variable.declaringType?.qualifiedName
         
-        // Try to find the enum type in the model
-        val enumType = if (enumTypeName != null) {
-            model.allTypes.find { it.qualifiedName == enumTypeName && it.isEnum }
+        // Try to find the enum constant in the model
+        val enumConstant = if (enumTypeName != null) {
+            ModelIndex.of(model).findField(enumTypeName, enumConstantName)
+                ?.takeIf { it.declaringType?.isEnum == true }
         } else null
         
-        if (enumType != null) {
-            // Find the enum constant
-            val enumConstant = enumType.fields.find { it.simpleName == enumConstantName }
+        if (enumConstant != null) {
+            // Get the default expression (constructor call) of the enum constant
+            val defaultExpr = enumConstant.defaultExpression
             
-            if (enumConstant != null) {
-                // Get the default expression (constructor call) of the enum constant
-                val defaultExpr = enumConstant.defaultExpression
-                
-                // For enums like: API("api"), the defaultExpression is a constructor call
-                if (defaultExpr is CtInvocation<*>) {
-                    val firstArg = defaultExpr.arguments.firstOrNull()
-                    if (firstArg is CtLiteral<*>) {
-                        return firstArg.value?.toString()
-                    }
+            // For enums like: API("api"), the defaultExpression is a constructor call
+            if (defaultExpr is CtInvocation<*>) {
+                val firstArg = defaultExpr.arguments.firstOrNull()
+                if (firstArg is CtLiteral<*>) {
+                    return firstArg.value?.toString()?.let { ResolvedValue.literal(it) }
                 }
             }
         }
         
         // Fallback: Convert enum constant name to likely value
         // API -> "api", ORDER_ADDRESS -> "order-address", LINE_ITEMS -> "line-items"
-        return enumConstantNameToValue(enumConstantName)
+        return ResolvedValue.literal(enumConstantNameToValue(enumConstantName))
     }
     
     /**
@@ -753,7 +893,7 @@ class SpoonExpressionResolver {
         contextMethod: CtMethod<*>?,
         model: CtModel,
         depth: Int
-    ): String? {
+    ): ResolvedValue? {
         if (contextMethod == null) return null
         
         val varName = target.variable.simpleName
@@ -764,21 +904,19 @@ class SpoonExpressionResolver {
         if (paramIndex < 0) return null
         
         // Find callers of this method and get the argument at paramIndex
-        val callers = model.getElements<CtInvocation<*>> { it is CtInvocation<*> }
-            .filter { 
-                it.executable.simpleName == contextMethod.simpleName && 
-                it.arguments.size > paramIndex 
-            }
+        val modelIndex = ModelIndex.of(model)
+        val callers = modelIndex.callGraph.callersOf(contextMethod)
+            .filter { it.arguments.size > paramIndex }
         
         for (caller in callers) {
             val argExpr = caller.arguments[paramIndex]
-            val callerMethod = caller.getParent(CtMethod::class.java)
+            val callerMethod = modelIndex.enclosingMethod(caller)
             
             // Now we need to find what getterName returns on this object
             // If argExpr is a builder pattern like GetRequest.builder().baseURL(X).build()
             // we need to find the value of X
             val builderValue = tryResolveBuilderValue(argExpr, getterName, callerMethod, model, depth + 1)
-            if (builderValue != null && !UnresolvedMarkers.isUnresolved(builderValue)) {
+            if (builderValue != null && !builderValue.isUnresolved) {
                 return builderValue
             }
         }
@@ -796,7 +934,7 @@ class SpoonExpressionResolver {
         contextMethod: CtMethod<*>?,
         model: CtModel,
         depth: Int
-    ): String? {
+    ): ResolvedValue? {
         if (expr == null) return null
         
         // Convert getter name to setter/builder method name
@@ -822,8 +960,11 @@ class SpoonExpressionResolver {
         contextMethod: CtMethod<*>?,
         model: CtModel,
         depth: Int
-    ): String? {
-        if (depth > 5) return null
+    ): ResolvedValue? {
+        if (depth > 5) {
+            truncations.get().count++
+            return null
+        }
         
         var current: CtExpression<*>? = expr
         
@@ -845,9 +986,7 @@ class SpoonExpressionResolver {
         // Also check if expr is a variable that was assigned a builder result
         if (expr is CtVariableRead<*>) {
             val varName = expr.variable.simpleName
-            val localVar = contextMethod?.getElements<CtLocalVariable<*>> { it is CtLocalVariable<*> }
-                ?.filterIsInstance<CtLocalVariable<*>>()
-                ?.find { it.simpleName == varName }
+            val localVar = findLocalVariable(contextMethod, varName, model)
             
             if (localVar?.defaultExpression != null) {
                 return findBuilderSetterValue(localVar.defaultExpression, fieldName, contextMethod, model, depth + 1)
@@ -862,20 +1001,25 @@ class SpoonExpressionResolver {
      * Example: "https://api.example.com/v1/users" -> "/v1/users"
      *          "/users" -> "/users"
      */
-    private fun extractPathFromUrl(url: String): String {
+    private fun extractPathFromUrl(url: ResolvedValue): ResolvedValue {
+        val text = url.text
         // If it's already just a path, return it
-        if (url.startsWith("/")) {
+        if (text.startsWith("/")) {
             return url
         }
         
         // Try to parse as URL and extract path
         return try {
-            val uri = java.net.URI(url)
-            uri.path ?: url
+            val uri = java.net.URI(text)
+            uri.path?.let { ResolvedValue.literal(it) } ?: url
         } catch (e: Exception) {
-            // If parsing fails, try simple regex extraction
-            val pathMatch = Regex("""https?://[^/]+(/[^\s]*)""").find(url)
-            pathMatch?.groupValues?.get(1) ?: url
+            // If parsing fails (placeholders are not valid URI characters), try simple regex extraction
+            val pathMatch = Regex("""https?://[^/]+(/[^\s]*)""").find(text)
+            pathMatch?.groups?.get(1)?.let { url.slice(it.range.first, it.range.last + 1) } ?: url
         }
     }
+    
+    private companion object {
+        val FORMAT_SPECIFIER = Regex("%[-#+ 0,(<]*\\d*(\\.\\d+)?[a-zA-Z%]")
+    }
 }
\ No newline at end of file
@@ -2,19 +2,34 @@ package org.example.core.wrappers.spoon
 
 import org.example.core.entities.Endpoint
 import org.example.core.entities.HttpMethod
+import org.example.core.services.cache.EndpointCache
+import org.example.core.services.filedetection.ChangeImpact
+import org.example.core.services.filedetection.ChangeSet
+import org.example.core.services.filedetection.ClientDependencies
 import org.example.core.services.filedetection.ClientFileDetector
+import org.example.core.services.filedetection.FileInventory
+import org.example.core.services.filedetection.ImportIndex
+import org.example.core.services.filedetection.JavaFileWalker
+import org.example.core.services.filedetection.LexicalConstantIndex
+import org.example.core.services.filedetection.MethodBodyReducer
 import org.example.core.services.filedetection.ProjectFileScanner
+import org.example.core.services.filedetection.QualifiedClass
 import org.example.core.services.filedetection.RestTemplateFileDetector
+import org.example.core.services.filedetection.ScanResult
+import org.example.core.utils.Diagnostics
 import org.example.core.wrappers.StaticCodeAnalyzer
+import org.example.core.wrappers.lexical.FastPathMode
+import org.example.core.wrappers.lexical.LexicalCallExtractor
 import org.example.core.wrappers.spoon.callextractors.CallExtractor
 import org.example.core.wrappers.spoon.callextractors.ExchangeCallExtractor
 import org.example.core.wrappers.spoon.callextractors.SimpleMethodCallExtractor
-import spoon.Launcher
-import org.example.core.entities.UnresolvedMarkers
 import spoon.reflect.CtModel
 import spoon.reflect.code.*
-import spoon.reflect.declaration.CtClass
 import spoon.reflect.declaration.CtMethod
+import java.nio.file.Files
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ForkJoinPool
 
 data class MethodCallContext(
     val method: CtMethod<*>,
@@ -24,11 +39,46 @@ data class MethodCallContext(
 class SpoonWrapper(
     private val projectDir: String,
     private val detectors: List<ClientFileDetector> = listOf(RestTemplateFileDetector()),
-    private val callerDepth: Int = 1
+    private val callerDepth: Int = 1,
+    /** Threads used to scan files and extract endpoints; the result is the same for any count */
+    private val threads: Int = 1,
+    /**
+     * When set, [callerDepth] is ignored: the model starts from the client files and grows with the
+     * files that unresolved values depend on, up to this many files (see [expandOnDemand]).
+     */
+    private val fileBudget: Int? = null,
+    /** Java files of [projectDir] already walked by the caller (e.g. with excludes); walked here when null */
+    private val inventory: FileInventory? = null,
+    /** Resolve literal-only client files without Spoon (see [LexicalCallExtractor]); ignored with a [fileBudget] */
+    private val fastPath: FastPathMode = FastPathMode.OFF,
+    /** Drop the method bodies of caller files that endpoint extraction does not read (see [MethodBodyReducer]) */
+    private val dietCallers: Boolean = false,
+    /** Directory of the per-client-file endpoint cache (see [EndpointCache]); ignored with a [fileBudget] */
+    private val cacheDir: java.io.File? = null,
+    /** Snapshots, models in memory and the incremental model used instead of building models anew (see [ModelSource]) */
+    modelReuse: ModelReuse = ModelReuse(),
+    /**
+     * Analyze only the client files these changes can affect (see [ChangeImpact]); the result
+     * replaces the endpoints reported under [changedSourceFileNames]. Ignored with a [fileBudget].
+     */
+    private val changes: ChangeSet? = null,
+    /** Notes on models, caches and timings in verbose mode, and warnings */
+    private val diagnostics: Diagnostics = Diagnostics()
 ) : StaticCodeAnalyzer {
 
-    private val launcher = initLauncher()
-    private val spoonExpressionResolver = SpoonExpressionResolver()
+    private val projectFiles: FileInventory? = inventory
+        ?: java.io.File(projectDir).takeIf { it.isDirectory }?.let { JavaFileWalker().walk(it.toPath()) }
+    private val incremental = modelReuse.incremental
+    private val modelSource = ModelSource(projectDir, projectFiles, modelReuse, diagnostics)
+    // Constants of files left out of the model are still resolved from their source text
+    private val constantIndex = projectFiles?.let { LexicalConstantIndex(it.files) }
+    private val spoonExpressionResolver = SpoonExpressionResolver(constantIndex)
+    // Shared by the cache and the change set, which both follow the dependencies of client files
+    private val clientDependencies: ClientDependencies? by lazy {
+        val inventory = projectFiles ?: return@lazy null
+        constantIndex?.let { ClientDependencies(inventory, it, callerDepth) }
+    }
+    private var changeSlice: ChangeImpact.Slice? = null
     private val classifier = RestTemplateCallClassifier()
     private val rootUriDetector = RootUriDetector(spoonExpressionResolver)
     private val parameterFlowAnalyzer = ParameterFlowAnalyzer()
@@ -42,43 +92,137 @@ class SpoonWrapper(
         SimpleMethodCallExtractor({ c, call -> c.isRestTemplatePatch(call) }, HttpMethod.PATCH, classifier, spoonExpressionResolver, rootUriDetector),
         SimpleMethodCallExtractor({ c, call -> c.isRestTemplateDelete(call) }, HttpMethod.DELETE, classifier, spoonExpressionResolver, rootUriDetector),
     )
+    
+    /**
+     * What [analyzeInvocations] prepares on first use: the Spoon model (none when the fast
+     * path or the cache covered every client file), the endpoints found without it by client
+     * file, for a cross-check the model of every relevant file, and the cache lookup.
+     */
+    private class Preparation(
+        val model: CtModel?,
+        val lexicalEndpoints: Map<java.io.File, List<Endpoint>> = emptyMap(),
+        val referenceModel: CtModel? = null,
+        val cacheLookup: CacheLookup? = null
+    )
+    
+    // Not built by the constructor: demand-driven expansion extracts endpoints while building the model
+    private val preparation by lazy { initLauncher() }
+    
+    /**
+     * With [changes], names of the files whose reported endpoints [analyzeInvocations] replaces:
+     * endpoints of an earlier report under other names are still valid. Null without changes.
+     */
+    val changedSourceFileNames: Set<String>?
+        get() {
+            // The slice is taken while preparing
+            preparation
+            return changeSlice?.sourceFileNames
+        }
 
     override fun analyzeInvocations(): List<Endpoint> {
-        val model = launcher.model
-        return extractEndpoints(model)
+        val cacheLookup = preparation.cacheLookup
+        // Endpoints of cached client files come from the cache, even when the model holds those files
+        val modelEndpoints = preparation.model
+            ?.let { model -> extractAttributedEndpoints(model) { origin -> cacheLookup?.isCached(origin) != true } }
+            .orEmpty()
+        val cachedEndpoints = cacheLookup?.cachedEndpoints?.values?.flatten().orEmpty()
+        var endpoints = deduplicate(preparation.lexicalEndpoints.values.flatten() + modelEndpoints.map { it.second } + cachedEndpoints)
+        cacheLookup?.store(preparation.lexicalEndpoints, modelEndpoints, ::deduplicate, diagnostics)
+        preparation.referenceModel?.let { reference ->
+            val spoonEndpoints = extractEndpoints(reference)
+            printCrossCheck(endpoints, spoonEndpoints)
+            endpoints = spoonEndpoints
+        }
+        // Only the scanning pipeline reports statistics, like the scan itself
+        if (projectFiles != null) printResolverStats()
+        return endpoints
+    }
+    
+    /**
+     * Print how the endpoints of the fast path differ from those of the full Spoon model.
+     */
+    private fun printCrossCheck(fastPathEndpoints: List<Endpoint>, spoonEndpoints: List<Endpoint>) {
+        val fastPathByKey = fastPathEndpoints.associateBy { deduplicationKey(it) }
+        val spoonByKey = spoonEndpoints.associateBy { deduplicationKey(it) }
+        val onlyFastPath = fastPathByKey.keys - spoonByKey.keys
+        val onlySpoon = spoonByKey.keys - fastPathByKey.keys
+        
+        if (onlyFastPath.isEmpty() && onlySpoon.isEmpty()) {
+            diagnostics.warn("Fast path cross-check: ${spoonEndpoints.size} endpoints, same as the Spoon model")
+            return
+        }
+        diagnostics.warn("Fast path cross-check: ${onlyFastPath.size + onlySpoon.size} differences with the Spoon model")
+        onlyFastPath.forEach { diagnostics.warn("  only in fast path: ${describe(fastPathByKey.getValue(it))}") }
+        onlySpoon.forEach { diagnostics.warn("  only in Spoon model: ${describe(spoonByKey.getValue(it))}") }
+    }
+    
+    private fun describe(endpoint: Endpoint): String {
+        val source = endpoint.sourceFile?.let { " ($it)" } ?: ""
+        return "${endpoint.method.value} ${endpoint.path}$source"
+    }
+    
+    /**
+     * Note expression cache statistics (for CLI feedback)
+     */
+    private fun printResolverStats() {
+        val stats = spoonExpressionResolver.cacheStats()
+        diagnostics.note { "Expression cache: ${stats.hits} hits, ${stats.misses} misses (${String.format("%.1f", stats.hitRate * 100)}% hit rate)" }
     }
 
     fun extractEndpoints(model: CtModel): List<Endpoint> {
+        return deduplicate(extractAttributedEndpoints(model).map { it.second })
+    }
+    
+    /**
+     * The endpoints of the model before deduplication, each with the file of the RestTemplate
+     * call it comes from (null when Spoon has no position for it). RestTemplate calls in files
+     * rejected by [includeOrigin] are not resolved.
+     */
+    private fun extractAttributedEndpoints(
+        model: CtModel,
+        includeOrigin: (java.io.File?) -> Boolean = { true }
+    ): List<Pair<java.io.File?, Endpoint>> {
+        // Single traversal of the model, shared by every lookup below
+        val index = ModelIndex.of(model)
+        if (threads > 1) index.resolveReferences()
+        
         // Phase 1: Direct RestTemplate calls
-        val projectCalls = findCallsWithResolvedArgs(model)
-        val directEndpoints = projectCalls.mapNotNull { (call, context) ->
-            val extractor = extractors.firstOrNull { it.supports(call) } ?: return@mapNotNull null
-            extractor.extract(call, context, model)
+        val projectCalls = findCallsWithResolvedArgs(index).filter { (call, _) -> includeOrigin(call.position?.file) }
+        val directEndpoints = mapInOrder(projectCalls) { (call, context) ->
+            extractors.firstOrNull { it.supports(call) }?.extract(call, context, model)?.let { call.position?.file to it }
         }
         
         // Phase 2: Endpoints through wrapper methods (parameter flow analysis)
-        val wrapperEndpoints = findEndpointsThroughWrappers(model)
+        val wrapperEndpoints = findEndpointsThroughWrappers(index, model, includeOrigin)
         
-        // Deduplicate endpoints
-        // For dynamic URLs (<dynamic-url>), keep separate entries per sourceFile
-        // For resolved URLs, deduplicate by path+method
-        val allEndpoints = directEndpoints + wrapperEndpoints
-        return allEndpoints
-            .groupBy { endpoint ->
-                if (UnresolvedMarkers.isUnresolved(endpoint.path)) {
-                    // For dynamic URLs, key includes sourceFile to keep them separate
-                    Triple(endpoint.path, endpoint.method, endpoint.sourceFile)
-                } else {
-                    // For resolved URLs, key by path+method only
-                    Triple(endpoint.path, endpoint.method, null)
-                }
-            }
+        return directEndpoints + wrapperEndpoints
+    }
+    
+    private fun deduplicate(endpoints: List<Endpoint>): List<Endpoint> {
+        return endpoints
+            .groupBy { deduplicationKey(it) }
             .map { (_, endpoints) ->
                 // Prefer endpoint with non-null sourceFile
-                endpoints.firstOrNull { it.sourceFile != null } ?: endpoints.first()
+                val kept = endpoints.firstOrNull { it.sourceFile != null } ?: endpoints.first()
+                // The other files reporting it are kept too: a delta run replaces an endpoint only with all of them
+                val otherFiles = endpoints.flatMapTo(LinkedHashSet()) { listOfNotNull(it.sourceFile) + it.otherSourceFiles }
+                kept.sourceFile?.let { otherFiles.remove(it) }
+                kept.copy(otherSourceFiles = otherFiles)
             }
     }
     
+    /**
+     * Dynamic URLs (<dynamic-url>) keep separate entries per sourceFile,
+     * resolved URLs are deduplicated by path+method.
+     */
+    private fun deduplicationKey(endpoint: Endpoint): Triple<String, HttpMethod, String?> {
+        return if (endpoint.isDynamic) {
+            Triple(endpoint.path, endpoint.method, endpoint.sourceFile)
+        } else {
+            Triple(endpoint.path, endpoint.method, null)
+        }
+    }
+    
     /**
      * Find endpoints that are passed through wrapper methods.
      * 
@@ -115,26 +259,79 @@ class SpoonWrapper(
      * }
      * ```
      */
-    private fun findEndpointsThroughWrappers(model: CtModel): List<Endpoint> {
-        val endpoints = mutableListOf<Endpoint>()
+    private fun findEndpointsThroughWrappers(
+        index: ModelIndex,
+        model: CtModel,
+        includeOrigin: (java.io.File?) -> Boolean
+    ): List<Pair<java.io.File?, Endpoint>> {
+        // Step 1: Summarize every wrapper method once, grouped by method name for dispatch
+        val summariesByName = summarizeWrapperMethods(index)
+            .filter { includeOrigin(it.method.position?.file) }
+            .groupBy { it.method.simpleName }
+        if (summariesByName.isEmpty()) return emptyList()
         
-        val allClasses = model.allTypes.filterIsInstance<CtClass<*>>()
+        // Step 2: Match all wrapper call sites in a single pass over the invocations,
+        // dispatching each one on its callee. Match by method name, optionally check declaring type
+        val callSites = mutableListOf<Triple<CtInvocation<*>, CtMethod<*>, WrapperSummary>>()
         
-        // Step 1: Find wrapper classes and their wrapper methods
-        val wrapperMethods = mutableListOf<WrapperMethodInfo>()
-        
-        for (ctClass in allClasses) {
-            // Check if class has RestTemplate (field OR method that returns RestTemplate)
-            val hasRestTemplateField = ctClass.fields.any { 
-                it.type?.simpleName in listOf("RestTemplate", "TestRestTemplate") 
-            }
-            val hasRestTemplateMethod = hasMethodReturningRestTemplate(ctClass)
-            
-            if (!hasRestTemplateField && !hasRestTemplateMethod) continue
+        for (callSite in index.invocations) {
+            val summaries = summariesByName[callSite.executable?.simpleName] ?: continue
+            val callerMethod = index.enclosingMethod(callSite) ?: continue
+            val calleeTypeName = callSite.executable?.declaringType?.simpleName
             
+            for (summary in summaries) {
+                if (summary.declaringTypeName != null && summary.declaringTypeName != calleeTypeName) continue
+                callSites.add(Triple(callSite, callerMethod, summary))
+            }
+        }
+        
+        // Step 3: Resolve the matched call sites
+        return mapInOrder(callSites) { (callSite, callerMethod, summary) ->
+            resolveWrapperCallSite(callSite, callerMethod, summary, model)
+        }
+    }
+    
+    /**
+     * Apply [transform] to every item on [threads] threads, keeping the non-null results in item order.
+     */
+    private fun <T, R : Any> mapInOrder(items: List<T>, transform: (T) -> R?): List<R> {
+        if (threads <= 1 || items.size <= 1) return items.mapNotNull(transform)
+        
+        val pool = ForkJoinPool(threads)
+        try {
+            // An ordered parallel stream collects results in encounter order
+            return pool.submit(Callable { items.parallelStream().map { transform(it) }.toList() })
+                .get()
+                .filterNotNull()
+        } catch (e: ExecutionException) {
+            throw e.cause ?: e
+        } finally {
+            pool.shutdown()
+        }
+    }
+    
+    /**
+     * Summary of a wrapper method: which parameter flows into a RestTemplate URL, and with which HTTP method.
+     * A method delegating to several RestTemplate calls has one summary per call.
+     */
+    private data class WrapperSummary(
+        val method: CtMethod<*>,
+        val declaringTypeName: String?,
+        val endpointParamIndex: Int,
+        val httpMethod: HttpMethod
+    )
+    
+    /**
+     * Find wrapper methods (in classes with a RestTemplate field OR a method that returns RestTemplate)
+     * and summarize how their parameters reach the RestTemplate URL.
+     */
+    private fun summarizeWrapperMethods(index: ModelIndex): List<WrapperSummary> {
+        val summaries = mutableListOf<WrapperSummary>()
+        
+        for (ctClass in index.restTemplateClasses) {
             // Find methods that delegate to RestTemplate with parameter as URL part
             for (method in ctClass.methods) {
-                val restTemplateCalls = findRestTemplateCallsInMethod(method)
+                val restTemplateCalls = index.invocationsIn(method).filter { classifier.isRestTemplateCall(it) }
                 
                 for (restCall in restTemplateCalls) {
                     val urlArg = restCall.arguments.firstOrNull() ?: continue
@@ -145,7 +342,7 @@ class SpoonWrapper(
                     
                     if (pathParamIndex < 0 && urlArg is CtVariableRead<*>) {
                         val varDeps = parameterFlowAnalyzer.traceVariableToParameter(
-                            urlArg.variable.simpleName, method
+                            urlArg.variable.simpleName, method, index
                         )
                         if (!varDeps.isNullOrEmpty()) {
                             pathParamIndex = varDeps.first().parameterIndex
@@ -153,9 +350,9 @@ class SpoonWrapper(
                     }
                     
                     if (pathParamIndex >= 0) {
-                        wrapperMethods.add(WrapperMethodInfo(
-                            wrapperClass = ctClass,
+                        summaries.add(WrapperSummary(
                             method = method,
+                            declaringTypeName = method.declaringType?.simpleName,
                             endpointParamIndex = pathParamIndex,
                             httpMethod = httpMethod
                         ))
@@ -164,58 +361,7 @@ class SpoonWrapper(
             }
         }
         
-        // Step 2: Find call sites of wrapper methods and resolve endpoints
-        for (wrapperMethod in wrapperMethods) {
-            val resolvedEndpoints = resolveEndpointsFromCallSites(
-                wrapperMethod.method,
-                wrapperMethod.endpointParamIndex,
-                wrapperMethod.httpMethod,
-                model
-            )
-            endpoints.addAll(resolvedEndpoints)
-        }
-        
-        return endpoints
-    }
-    
-    /**
-     * Check if a class has a method that returns RestTemplate.
-     * This detects patterns like: private RestTemplate createRestTemplate() { return new RestTemplateBuilder().build(); }
-     */
-    private fun hasMethodReturningRestTemplate(ctClass: CtClass<*>): Boolean {
-        return ctClass.methods.any { method ->
-            val returnType = method.type?.simpleName
-            returnType in listOf("RestTemplate", "TestRestTemplate")
-        }
-    }
-    
-    /**
-     * Info about a wrapper method that delegates to RestTemplate
-     */
-    private data class WrapperMethodInfo(
-        val wrapperClass: CtClass<*>,
-        val method: CtMethod<*>,
-        val endpointParamIndex: Int,
-        val httpMethod: HttpMethod
-    )
-    
-    /**
-     * Find RestTemplate method invocations in a method body.
-     */
-    private fun findRestTemplateCallsInMethod(method: CtMethod<*>): List<CtInvocation<*>> {
-        val body = method.body ?: return emptyList()
-        val result = mutableListOf<CtInvocation<*>>()
-        findRestTemplateCallsRecursive(body, result)
-        return result
-    }
-    
-    private fun findRestTemplateCallsRecursive(element: spoon.reflect.declaration.CtElement, result: MutableList<CtInvocation<*>>) {
-        if (element is CtInvocation<*> && classifier.isRestTemplateCall(element)) {
-            result.add(element)
-        }
-        for (child in element.directChildren) {
-            findRestTemplateCallsRecursive(child, result)
-        }
+        return summaries
     }
     
     /**
@@ -244,96 +390,43 @@ class SpoonWrapper(
     }
     
     /**
-     * Find call sites of a method and resolve the endpoint argument.
+     * Resolve the endpoint argument of a wrapper call site, with the file of the wrapper method.
      */
-    private fun resolveEndpointsFromCallSites(
-        wrapperMethod: CtMethod<*>,
-        endpointParamIndex: Int,
-        httpMethod: HttpMethod,
+    private fun resolveWrapperCallSite(
+        callSite: CtInvocation<*>,
+        callerMethod: CtMethod<*>,
+        summary: WrapperSummary,
         model: CtModel
-    ): List<Endpoint> {
-        val endpoints = mutableListOf<Endpoint>()
-        val methodName = wrapperMethod.simpleName
-        val declaringTypeName = wrapperMethod.declaringType?.simpleName
+    ): Pair<java.io.File?, Endpoint>? {
+        val endpointArg = callSite.arguments.getOrNull(summary.endpointParamIndex) ?: return null
         
-        // Find all invocations of this method
-        val allClasses = model.allTypes.filterIsInstance<CtClass<*>>()
+        val resolvedPath = spoonExpressionResolver.resolveExpression(endpointArg, callerMethod, model)
+        if (resolvedPath.isUnresolved) return null
         
-        for (ctClass in allClasses) {
-            for (method in ctClass.methods) {
-                val body = method.body ?: continue
-                val callSites = findCallSitesInBlock(body, methodName, declaringTypeName)
-                
-                for (callSite in callSites) {
-                    val endpointArg = callSite.arguments.getOrNull(endpointParamIndex) ?: continue
-                    
-                    val resolvedPath = spoonExpressionResolver.resolveExpression(endpointArg, method, model)
-                    
-                    if (!UnresolvedMarkers.isUnresolved(resolvedPath)) {
-                        val path = org.example.core.utils.urlToPath(resolvedPath)
-                        // Only add valid paths (must start with / or be a full URL)
-                        if (!UnresolvedMarkers.isPathUnresolved(path) && 
-                            (path.startsWith("/") || path.contains("://"))) {
-                            val sourceFile = resolveSourceFile(callSite)
-                            endpoints.add(Endpoint(path, httpMethod, sourceFile))
-                        }
-                    }
-                }
-            }
+        val path = org.example.core.utils.urlToPath(resolvedPath)
+        // Only add valid paths (must start with / or be a full URL)
+        if (path.isUnresolvedPath || 
+            !(path.text.startsWith("/") || path.text.contains("://"))) {
+            return null
         }
         
-        return endpoints
-    }
-    
-    /**
-     * Find call sites in a code block.
-     */
-    private fun findCallSitesInBlock(
-        block: CtBlock<*>,
-        methodName: String,
-        declaringTypeName: String?
-    ): List<CtInvocation<*>> {
-        val result = mutableListOf<CtInvocation<*>>()
-        findCallSitesRecursive(block, methodName, declaringTypeName, result)
-        return result
-    }
-    
-    private fun findCallSitesRecursive(
-        element: spoon.reflect.declaration.CtElement,
-        methodName: String,
-        declaringTypeName: String?,
-        result: MutableList<CtInvocation<*>>
-    ) {
-        if (element is CtInvocation<*>) {
-            val execMethodName = element.executable?.simpleName
-            val execDeclaringType = element.executable?.declaringType?.simpleName
-            
-            if (execMethodName == methodName) {
-                // Match by method name, optionally check declaring type
-                if (declaringTypeName == null || execDeclaringType == declaringTypeName) {
-                    result.add(element)
-                }
-            }
-        }
-        
-        for (child in element.directChildren) {
-            findCallSitesRecursive(child, methodName, declaringTypeName, result)
-        }
+        return summary.method.position?.file to Endpoint(path.text, summary.httpMethod, resolveSourceFile(callSite))
     }
 
     fun findCallsWithResolvedArgs(model: CtModel): List<Pair<CtInvocation<*>, MethodCallContext>> {
-        val result = mutableListOf<Pair<CtInvocation<*>, MethodCallContext>>()
+        return findCallsWithResolvedArgs(ModelIndex.of(model))
+    }
 
-        val allInvocations = model.getElements<CtInvocation<*>> { it is CtInvocation<*> }
-            .filterIsInstance<CtInvocation<*>>()
+    private fun findCallsWithResolvedArgs(index: ModelIndex): List<Pair<CtInvocation<*>, MethodCallContext>> {
+        val result = mutableListOf<Pair<CtInvocation<*>, MethodCallContext>>()
 
-        allInvocations.forEach { invocation ->
+        index.invocations.forEach { invocation ->
             if (!classifier.isRestTemplateCall(invocation)) return@forEach
 
-            val parentMethod = invocation.getParent(CtMethod::class.java) ?: return@forEach
+            val parentMethod = index.enclosingMethod(invocation) ?: return@forEach
 
             // Para cada chamada ao método que contém o RestTemplate, gerar um contexto com os argumentos do call site
-            val callSites = findMethodCallSites(parentMethod, model)
+            val callSites = index.callGraph.callersOf(parentMethod)
 
             if (callSites.isEmpty()) {
                 // No call sites found. Include if:
@@ -355,52 +448,207 @@ class SpoonWrapper(
         return result
     }
     
-    private fun findMethodCallSites(method: CtMethod<*>, model: CtModel): List<CtInvocation<*>> {
-        val allInvocations = model.getElements<CtInvocation<*>> { it is CtInvocation<*> }
-            .filterIsInstance<CtInvocation<*>>()
-        return allInvocations.filter { inv ->
-            val decl = inv.executable.declaration as? CtMethod<*>
-            decl?.signature == method.signature &&
-                    decl.declaringType?.qualifiedName == method.declaringType?.qualifiedName
-        }
+    /**
+     * Reduced sources of the caller files among [modelFiles] when [dietCallers] is set, by file.
+     */
+    private fun dietSources(
+        clientFiles: Collection<java.io.File>,
+        modelFiles: Collection<java.io.File>,
+        inventory: FileInventory
+    ): Map<java.io.File, String> {
+        if (!dietCallers) return emptyMap()
+        val clients = clientFiles.toSet()
+        val callers = modelFiles.filter { it !in clients }
+        val reduced = MethodBodyReducer().reduce(
+            clientFiles.map { inventory.sourceFile(it) },
+            callers.map { inventory.sourceFile(it) }
+        )
+        diagnostics.note { "Diet parsing: ${reduced.size} of ${callers.size} caller files reduced" }
+        return reduced
     }
-
-    private fun initLauncher(): Launcher {
+    
+    /**
+     * Build the model from the client files only, then repeatedly add the files declaring the
+     * callers and constants that unresolved values depend on, until nothing more can be added
+     * or the model holds [budget] files.
+     * 
+     * Each round resolves every endpoint of the current model and collects its [MissingSymbol]s:
+     * wrapper and service methods whose URL parameters have no caller in the model, and types
+     * whose constants are read but not declared in it. Deep caller chains are followed one
+     * layer per round, without pulling in unrelated callers the way a fixed depth does.
+     * Rounds are built with [ModelSource.expansionRound], which compiles only the files a round adds
+     * and loads the others from the previous round.
+     */
+    private fun expandOnDemand(scanResult: ScanResult, inventory: FileInventory, budget: Int): CtModel {
+        val importIndex = ImportIndex(inventory.files)
+        val files = LinkedHashSet(scanResult.clientFiles)
+        val roundsDir = Files.createTempDirectory("contract-coverage-expansion").toFile()
+        var rounds = 0
+        
         try {
-            val launcher = Launcher()
-            
-            // Configure Spoon to be more tolerant
-            launcher.environment.apply {
-                setNoClasspath(true)
-                setIgnoreDuplicateDeclarations(true)
-                complianceLevel = 17
-                isAutoImports = false
+            while (true) {
+                rounds++
+                val model = modelSource.build(files, snapshotSlot = "expansion-$rounds") { modelSource.expansionRound(files, roundsDir) }
+                val wanted = findMissingSymbols(model)
+                    .flatMap { filesDeclaring(it, importIndex) }
+                    .toSet()
+                // Project order keeps the choice under the budget deterministic
+                val candidates = inventory.files.map { it.file }.filter { it in wanted && it !in files }
+                val added = candidates.take(maxOf(0, budget - files.size))
+                
+                if (added.isEmpty()) {
+                    val budgetNote = if (candidates.isNotEmpty()) ", file budget of $budget reached" else ""
+                    diagnostics.note { "Demand-driven expansion: ${files.size} files after $rounds rounds$budgetNote" }
+                    return model
+                }
+                files.addAll(added)
             }
-            
+        } finally {
+            roundsDir.deleteRecursively()
+        }
+    }
+    
+    private fun findMissingSymbols(model: CtModel): Set<MissingSymbol> {
+        // Resolving every URL records what the unresolved ones depend on
+        extractEndpoints(model)
+        
+        // Wrappers that nothing in the model calls yield no endpoint, so nothing was resolved for them
+        val index = ModelIndex.of(model)
+        val uncalledWrappers = summarizeWrapperMethods(index)
+            .map { it.method }
+            .filter { index.callGraph.callersOf(it).isEmpty() }
+            .map { MissingSymbol.callersOf(it) }
+        
+        return spoonExpressionResolver.missingSymbols() + uncalledWrappers
+    }
+    
+    private fun filesDeclaring(symbol: MissingSymbol, importIndex: ImportIndex): List<java.io.File> {
+        return when (symbol) {
+            is MissingSymbol.CallersOf -> importIndex.filesReferencingAny(
+                symbol.typeNames.map { QualifiedClass.of(it) },
+                mentioning = symbol.methodName
+            )
+            is MissingSymbol.DeclarationOf -> importIndex.filesDeclaring(QualifiedClass.of(symbol.typeName).fullyQualifiedName)
+        }
+    }
+    
+    /**
+     * Resolve the [clientFiles] that need no model with [LexicalCallExtractor], and build the model
+     * from the other client files and their callers only. [relevantFiles] are the client files
+     * with their callers.
+     */
+    private fun prepareFastPath(
+        scanner: ProjectFileScanner,
+        scanResult: ScanResult,
+        clientFiles: List<java.io.File>,
+        relevantFiles: Collection<java.io.File>,
+        inventory: FileInventory,
+        constantIndex: LexicalConstantIndex,
+        cacheLookup: CacheLookup?
+    ): Preparation {
+        val lexical = LexicalCallExtractor(constantIndex).extract(
+            clientFiles.map { inventory.sourceFile(it) },
+            relevantFiles.map { inventory.sourceFile(it) }
+        )
+        val modelFiles = if (lexical.unresolvedFiles.isEmpty()) {
+            emptySet()
+        } else {
+            scanner.findRelevantFiles(lexical.unresolvedFiles, inventory, callerDepth)
+        }
+        diagnostics.note {
+            "Lexical fast path: ${lexical.resolvedFiles.size} of ${clientFiles.size} client files " +
+                "resolved without Spoon, ${modelFiles.size} files left for the model"
+        }
+        
+        val referenceModel = if (fastPath == FastPathMode.CROSS_CHECK) {
+            modelSource.build(scanResult.allRelevantFiles, dietSources(scanResult.clientFiles, scanResult.allRelevantFiles, inventory), "reference")
+        } else {
+            null
+        }
+        return Preparation(
+            model = if (modelFiles.isEmpty()) null else modelSource.build(modelFiles, dietSources(scanResult.clientFiles, modelFiles, inventory)),
+            lexicalEndpoints = lexical.endpointsByFile,
+            referenceModel = referenceModel,
+            cacheLookup = cacheLookup
+        )
+    }
+    
+    /**
+     * The [clientFiles] that [changes] can affect, remembered for [changedSourceFileNames].
+     */
+    private fun sliceOf(changes: ChangeSet, clientFiles: List<java.io.File>): ChangeImpact.Slice? {
+        val dependencies = clientDependencies ?: return null
+        val slice = ChangeImpact(dependencies).sliceOf(clientFiles, changes)
+        diagnostics.note {
+            "Changes: ${changes.changedFiles.size} changed and ${changes.deletedFiles.size} deleted files, " +
+                "${slice.clientFiles.size} of ${clientFiles.size} client files affected"
+        }
+        changeSlice = slice
+        return slice
+    }
+    
+    /**
+     * Split the [clientFiles] into those whose cached endpoints are still valid and those to
+     * analyze, or null without a [cacheDir].
+     */
+    private fun lookUpCache(clientFiles: List<java.io.File>): CacheLookup? {
+        val directory = cacheDir ?: return null
+        val dependencies = clientDependencies ?: return null
+        val settings = "callerDepth=$callerDepth fastPath=$fastPath dietCallers=$dietCallers " +
+            "clients=${detectors.joinToString(",") { it.clientName }}"
+        return CacheLookup.of(EndpointCache(directory, settings), dependencies, clientFiles, diagnostics)
+    }
+    
+    private fun initLauncher(): Preparation {
+        try {
             val file = java.io.File(projectDir)
             
-            if (file.isDirectory) {
+            if (projectFiles != null) {
                 // Use ProjectFileScanner for smart file detection
-                val scanner = ProjectFileScanner(detectors)
-                val scanResult = scanner.scan(file, callerDepth)
+                val scanner = ProjectFileScanner(detectors, probeConcurrency = threads)
+                val scanResult = scanner.scan(projectFiles, if (fileBudget != null) 0 else callerDepth)
                 
                 // Print scan statistics
-                scanner.printScanStats(scanResult)
+                scanner.printScanStats(scanResult, diagnostics.stream)
                 
-                // Add all relevant files to Spoon
-                scanResult.allRelevantFiles.forEach { javaFile ->
-                    launcher.addInputResource(javaFile.absolutePath)
+                if (fileBudget != null) {
+                    return Preparation(expandOnDemand(scanResult, projectFiles, fileBudget))
                 }
-            } else if (file.isFile && file.extension == "java") {
-                // Se for um arquivo Java específico
-                launcher.addInputResource(projectDir)
-            } else {
-                // Fallback: adiciona como está
-                launcher.addInputResource(projectDir)
+                
+                // Client files that the changes cannot affect are left out
+                val slice = changes?.let { sliceOf(it, scanResult.clientFiles) }
+                val affectedFiles = slice?.clientFiles ?: scanResult.clientFiles
+                
+                // So are client files with valid cache entries, with the callers only they need
+                val cacheLookup = lookUpCache(affectedFiles)
+                val clientFiles = cacheLookup?.pendingFingerprints?.keys?.toList() ?: affectedFiles
+                val relevantFiles = when {
+                    slice == null && cacheLookup == null -> scanResult.allRelevantFiles
+                    clientFiles.isEmpty() -> emptyList()
+                    else -> scanner.findRelevantFiles(clientFiles, projectFiles, callerDepth).toList()
+                }
+                
+                if (fastPath != FastPathMode.OFF && constantIndex != null) {
+                    return prepareFastPath(scanner, scanResult, clientFiles, relevantFiles, projectFiles, constantIndex, cacheLookup)
+                }
+                if (relevantFiles.isEmpty()) {
+                    return Preparation(null, cacheLookup = cacheLookup)
+                }
+                if (incremental && cacheDir != null && cacheLookup != null) {
+                    // The whole relevant file set keeps the incremental model stable between runs;
+                    // endpoints are resolved again only for the client files the cache invalidated
+                    return Preparation(modelSource.incremental(scanResult.allRelevantFiles, cacheDir), cacheLookup = cacheLookup)
+                }
+                
+                // Add all relevant files to Spoon; client files are never reduced, cached or not
+                return Preparation(
+                    modelSource.build(relevantFiles, dietSources(scanResult.clientFiles, relevantFiles, projectFiles)),
+                    cacheLookup = cacheLookup
+                )
             }
             
-            launcher.buildModel()
-            return launcher
+            // Se for um arquivo Java específico (ou fallback: adiciona como está)
+            return Preparation(modelSource.build(listOf(file)))
         } catch (e: Exception) {
             // Check if error is related to unsupported Java version (e.g., "Unrecognized option : -23")
             var currentException: Throwable? = e
@@ -445,4 +693,4 @@ class SpoonWrapper(
             throw RuntimeException(errorDetails, e)
         }
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,7 @@
 package org.example.core.wrappers.spoon.callextractors
 
 import org.example.core.entities.Endpoint
+import org.example.core.entities.ResolvedValue
 import org.example.core.entities.UnresolvedMarkers
 import org.example.core.utils.urlToPath
 import org.example.core.wrappers.spoon.MethodCallContext
@@ -31,12 +32,12 @@ class SimpleMethodCallExtractor(
 
         val resolvedUrl = call.arguments.getOrNull(0)?.let { arg ->
             resolver.resolveExpressionWithParams(arg, parameters, callArgs, scopeMethod, model)
-        } ?: UnresolvedMarkers.UNRESOLVED_URL
+        } ?: ResolvedValue.dynamic("no URL argument")
 
         var path = urlToPath(resolvedUrl)
         
         // Try to resolve rootUri and combine with path
-        if (rootUriDetector != null && path == "/") {
+        if (rootUriDetector != null && path.text == "/") {
             try {
                 val containingClass = call.getParent(CtClass::class.java)
                 path = resolvePathWithRootUri(path, containingClass, model)
@@ -45,30 +46,31 @@ class SimpleMethodCallExtractor(
             }
         }
         
-        val finalPath = if (UnresolvedMarkers.isPathUnresolved(path)) {
+        val finalPath = if (path.isUnresolvedPath) {
             UnresolvedMarkers.UNRESOLVED_URL
         } else {
-            path
+            path.text
         }
+        val dynamicReason = if (path.isUnresolvedPath) path.dynamicReason ?: "URL has no path" else null
 
         val sourceFile = resolveSourceFile(call)
-        return Endpoint(finalPath, httpMethod, sourceFile)
+        return Endpoint(finalPath, httpMethod, sourceFile, dynamicReason)
     }
     
     /**
      * Combine path with rootUri if available.
      */
-    private fun resolvePathWithRootUri(path: String, containingClass: CtClass<*>?, model: CtModel): String {
+    private fun resolvePathWithRootUri(path: ResolvedValue, containingClass: CtClass<*>?, model: CtModel): ResolvedValue {
         if (rootUriDetector == null) return path
         
         return when (val result = rootUriDetector.resolveRootUri(containingClass, model)) {
             is RootUriDetector.RootUriResult.NotFound -> path
             is RootUriDetector.RootUriResult.Resolved -> {
-                val rootPath = result.path.trimEnd('/')
-                val endpointPath = if (path == "/") "" else path
+                val rootPath = ResolvedValue.literal(result.path.trimEnd('/'))
+                val endpointPath = if (path.text == "/") ResolvedValue.EMPTY else path
                 rootPath + endpointPath
             }
-            is RootUriDetector.RootUriResult.Dynamic -> UnresolvedMarkers.UNRESOLVED_URL
+            is RootUriDetector.RootUriResult.Dynamic -> ResolvedValue.dynamic("rootUri is not a constant")
         }
     }
 }
@@ -0,0 +1,117 @@
+package org.example.infraestructure.daemon
+
+import picocli.CommandLine
+import java.io.BufferedInputStream
+import java.io.BufferedOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.File
+import java.io.IOException
+import java.io.PrintStream
+import java.net.UnixDomainSocketAddress
+import java.nio.channels.Channels
+import java.nio.channels.SocketChannel
+import java.nio.file.Files
+import java.nio.file.Path
+
+/**
+ * Sends command lines to the daemon listening on [socket] and copies its output to this process.
+ * Sockets of other users are left alone, as if no daemon were running.
+ */
+class DaemonClient(private val socket: Path) {
+
+    fun isRunning(): Boolean = connect()?.use { true } ?: false
+
+    /**
+     * Run [args] in the daemon as if from [workingDirectory] with [environment]; the exit code, or
+     * null when no daemon took the request (none is running, or it speaks another protocol version).
+     */
+    fun run(args: Array<String>, workingDirectory: File, environment: Map<String, String> = System.getenv()): Int? {
+        val channel = connect() ?: return null
+        val out = System.out
+        val err = System.err
+        channel.use {
+            val input = try {
+                val output = DataOutputStream(BufferedOutputStream(Channels.newOutputStream(channel)))
+                output.writeInt(DaemonProtocol.VERSION)
+                output.writeInt(DaemonProtocol.RUN)
+                output.writeUTF(workingDirectory.absolutePath)
+                output.writeInt(environment.size)
+                environment.forEach { (name, value) ->
+                    output.writeUTF(name)
+                    output.writeUTF(value)
+                }
+                output.writeInt(args.size)
+                args.forEach { output.writeUTF(it) }
+                output.flush()
+                DataInputStream(BufferedInputStream(Channels.newInputStream(channel)))
+            } catch (e: IOException) {
+                // Nothing ran yet: the caller can still run the command itself
+                return null
+            }
+
+            try {
+                while (true) {
+                    when (input.readByte()) {
+                        DaemonProtocol.STDOUT -> copyFrame(input, out)
+                        DaemonProtocol.STDERR -> copyFrame(input, err)
+                        DaemonProtocol.EXIT -> return input.readInt()
+                        DaemonProtocol.REFUSED -> return null
+                        else -> throw IOException("unexpected message")
+                    }
+                }
+            } catch (e: IOException) {
+                err.println("Error: lost the connection to the daemon: ${e.message ?: e.javaClass.simpleName}")
+                return CommandLine.ExitCode.SOFTWARE
+            }
+        }
+    }
+
+    /**
+     * Ask the daemon to stop after the run in progress; false if none is running.
+     */
+    fun stop(): Boolean {
+        val channel = connect() ?: return false
+        return channel.use {
+            try {
+                val output = DataOutputStream(BufferedOutputStream(Channels.newOutputStream(channel)))
+                output.writeInt(DaemonProtocol.VERSION)
+                output.writeInt(DaemonProtocol.STOP)
+                output.flush()
+                DataInputStream(Channels.newInputStream(channel)).readByte() == DaemonProtocol.EXIT
+            } catch (e: IOException) {
+                false
+            }
+        }
+    }
+
+    private fun copyFrame(input: DataInputStream, target: PrintStream) {
+        val bytes = ByteArray(input.readInt())
+        input.readFully(bytes)
+        target.write(bytes)
+        target.flush()
+    }
+
+    private fun connect(): SocketChannel? {
+        return try {
+            // A socket of another user could be a daemon that reads the arguments and fakes the output
+            if (!Files.exists(socket) || !DaemonProtocol.isOwnedByCurrentUser(socket)) return null
+            SocketChannel.open(UnixDomainSocketAddress.of(socket))
+        } catch (e: IOException) {
+            null
+        }
+    }
+
+    companion object {
+        /**
+         * Run [args] in the current user's daemon, if one is running and the command can run there;
+         * null to run it in this process. `CONTRACT_COVERAGE_DAEMON=off` never forwards.
+         */
+        fun forward(args: Array<String>): Int? {
+            if (System.getenv("CONTRACT_COVERAGE_DAEMON") == "off") return null
+            // A watch session keeps running in the terminal that started it
+            if ("--watch" in args) return null
+            return DaemonClient(DaemonProtocol.defaultSocket()).run(args, File("").absoluteFile)
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.infraestructure.daemon
+
+import java.io.DataOutputStream
+import java.io.OutputStream
+import java.nio.file.Files
+import java.nio.file.LinkOption
+import java.nio.file.Path
+
+/**
+ * Messages between [DaemonClient] and [DaemonServer] over a Unix domain socket.
+ *
+ * A request is the protocol version and its kind; a run adds the client's working directory, its
+ * environment variables and its command line arguments. The daemon answers with frames: output for stdout or stderr, then
+ * the exit code. A daemon speaking another version refuses the request, and the client runs it.
+ */
+internal object DaemonProtocol {
+    /** Changed whenever clients and daemons of the previous version cannot talk anymore */
+    const val VERSION = 2
+
+    const val RUN = 1
+    const val STOP = 2
+
+    const val STDOUT: Byte = 1
+    const val STDERR: Byte = 2
+    const val EXIT: Byte = 3
+    const val REFUSED: Byte = 4
+
+    /**
+     * The socket of the current user's daemon, unless `CONTRACT_COVERAGE_SOCKET` names another one:
+     * in the user's runtime directory (`XDG_RUNTIME_DIR`), or else in a directory of their own in
+     * the temporary directory (`TMPDIR`, the JVM's otherwise). The daemon makes sure only the user
+     * can enter that directory. The launcher's `daemon-client.py` follows the same rules.
+     */
+    fun defaultSocket(): Path {
+        System.getenv("CONTRACT_COVERAGE_SOCKET")?.let { return Path.of(it) }
+        val directory = System.getenv("XDG_RUNTIME_DIR")?.takeIf { it.isNotEmpty() }
+            ?.let { Path.of(it, "contract-coverage") }
+            ?: Path.of(temporaryDirectory(), "contract-coverage-${System.getProperty("user.name")}")
+        return directory.resolve("daemon.sock")
+    }
+
+    private fun temporaryDirectory(): String {
+        return System.getenv("TMPDIR")?.takeIf { it.isNotEmpty() } ?: System.getProperty("java.io.tmpdir")
+    }
+
+    /**
+     * Whether [path] belongs to the user running this process; true where files have no owner.
+     */
+    fun isOwnedByCurrentUser(path: Path): Boolean {
+        return try {
+            val currentUser = path.fileSystem.userPrincipalLookupService.lookupPrincipalByName(System.getProperty("user.name"))
+            Files.getOwner(path, LinkOption.NOFOLLOW_LINKS) == currentUser
+        } catch (e: UnsupportedOperationException) {
+            true
+        }
+    }
+}
+
+/**
+ * Output of a run sent as frames of one [type]; frames of several streams interleave safely.
+ */
+internal class FrameOutputStream(private val output: DataOutputStream, private val type: Byte) : OutputStream() {
+
+    override fun write(b: Int) = write(byteArrayOf(b.toByte()), 0, 1)
+
+    override fun write(b: ByteArray, off: Int, len: Int) {
+        if (len == 0) return
+        synchronized(output) {
+            output.writeByte(type.toInt())
+            output.writeInt(len)
+            output.write(b, off, len)
+            output.flush()
+        }
+    }
+}
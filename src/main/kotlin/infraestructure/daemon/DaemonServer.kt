@@ -0,0 +1,222 @@
+package org.example.infraestructure.daemon
+
+import org.example.core.services.pact.PactReader
+import org.example.core.wrappers.spoon.ModelMemory
+import org.example.infraestructure.interfaces.ContractCoverageCommand
+import picocli.CommandLine
+import java.io.BufferedInputStream
+import java.io.BufferedOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.File
+import java.io.IOException
+import java.io.PrintStream
+import java.net.StandardProtocolFamily
+import java.net.UnixDomainSocketAddress
+import java.nio.channels.Channels
+import java.nio.channels.SelectionKey
+import java.nio.channels.Selector
+import java.nio.channels.ServerSocketChannel
+import java.nio.channels.SocketChannel
+import java.nio.file.FileAlreadyExistsException
+import java.nio.file.Files
+import java.nio.file.LinkOption
+import java.nio.file.Path
+import java.nio.file.attribute.PosixFilePermissions
+import java.time.Duration
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+/**
+ * A resident process that runs command lines sent by [DaemonClient]s, so that repeated runs skip
+ * JVM startup and class loading, and reuse warmed code, a [PactReader] and the Spoon models of
+ * earlier runs (see [ModelMemory]) for each project root.
+ *
+ * Runs are served one at a time, since they share the models. Each run prints to streams that
+ * send its output to its client, and sees the client's environment variables; the settings of
+ * the daemon's JVM (locale, default charset, heap, system properties) apply to every run. The
+ * daemon stops when asked to, or after [idleTimeout] without requests (never when zero); after
+ * each run, models used least recently are dropped while the heap in use is above [maxHeapBytes].
+ * A client has [requestTimeout] to send its request once connected, so that one connecting
+ * without a word does not hold up the others.
+ *
+ * Only the user running the daemon may connect, since a request reads and writes files as that
+ * user: the socket is created in a directory that only they can enter.
+ */
+class DaemonServer(
+    private val socket: Path,
+    private val idleTimeout: Duration,
+    maxHeapBytes: Long,
+    private val requestTimeout: Duration = DEFAULT_REQUEST_TIMEOUT
+) {
+    /**
+     * A request read from a client: [RUN][DaemonProtocol.RUN] [args] from [workingDirectory] with the
+     * client's [environment], or stop.
+     */
+    private class Request(
+        val stop: Boolean,
+        val workingDirectory: File = File(""),
+        val environment: Map<String, String> = emptyMap(),
+        val args: Array<String> = emptyArray()
+    )
+
+    private val models = ModelMemory(maxHeapBytes)
+    private val pactReader = PactReader()
+    private val log: PrintStream = System.err
+    private val requestTimer = Executors.newSingleThreadScheduledExecutor { task ->
+        Thread(task, "daemon-request-timeout").apply { isDaemon = true }
+    }
+
+    @Volatile
+    private var stopped = false
+
+    /**
+     * Serve requests until stopped.
+     *
+     * @throws IllegalStateException if another daemon is listening on [socket], or if the directory
+     * of [socket] belongs to another user or others can enter it
+     */
+    fun serve() {
+        check(!DaemonClient(socket).isRunning()) { "A daemon is already listening on $socket" }
+        // Before binding: the socket is reachable by whoever can enter its directory as soon as it exists
+        prepareDirectory(socket.toAbsolutePath().parent)
+        // Left behind by a daemon that did not stop cleanly
+        Files.deleteIfExists(socket)
+
+        try {
+            ServerSocketChannel.open(StandardProtocolFamily.UNIX).use { server ->
+                server.bind(UnixDomainSocketAddress.of(socket))
+                server.configureBlocking(false)
+                Selector.open().use { selector ->
+                    server.register(selector, SelectionKey.OP_ACCEPT)
+                    log.println("Daemon listening on $socket")
+                    acceptLoop(server, selector)
+                }
+            }
+        } finally {
+            requestTimer.shutdownNow()
+            Files.deleteIfExists(socket)
+        }
+        log.println("Daemon stopped")
+    }
+
+    private fun acceptLoop(server: ServerSocketChannel, selector: Selector) {
+        var lastRequest = System.nanoTime()
+        while (!stopped) {
+            val idleMillis = (System.nanoTime() - lastRequest) / 1_000_000
+            val remainingMillis = if (idleTimeout.isZero) 0 else idleTimeout.toMillis() - idleMillis
+            if (!idleTimeout.isZero && remainingMillis <= 0) {
+                log.println("Daemon idle for ${idleTimeout.toMinutes()} minutes")
+                return
+            }
+            selector.select(remainingMillis)
+            selector.selectedKeys().clear()
+            val channel = server.accept() ?: continue
+
+            channel.use { handle(it) }
+            val evicted = models.trim()
+            if (evicted > 0) {
+                log.println("Daemon heap above the cap: $evicted models dropped, ${models.size()} kept")
+            }
+            lastRequest = System.nanoTime()
+        }
+    }
+
+    private fun handle(channel: SocketChannel) {
+        channel.configureBlocking(true)
+        try {
+            val input = DataInputStream(BufferedInputStream(Channels.newInputStream(channel)))
+            val output = DataOutputStream(BufferedOutputStream(Channels.newOutputStream(channel)))
+            // Closing the channel ends a read that is still waiting, with an IOException
+            val timeout = requestTimer.schedule({ channel.close() }, requestTimeout.toMillis(), TimeUnit.MILLISECONDS)
+            val request = try {
+                readRequest(input)
+            } finally {
+                timeout.cancel(false)
+            }
+            if (request == null) {
+                output.writeByte(DaemonProtocol.REFUSED.toInt())
+                output.flush()
+                return
+            }
+            val exitCode = if (request.stop) {
+                stopped = true
+                CommandLine.ExitCode.OK
+            } else {
+                run(request, output)
+            }
+            synchronized(output) {
+                output.writeByte(DaemonProtocol.EXIT.toInt())
+                output.writeInt(exitCode)
+                output.flush()
+            }
+        } catch (e: IOException) {
+            // The client went away; the next one gets a fresh connection
+            log.println("Daemon request failed: ${e.message ?: e.javaClass.simpleName}")
+        }
+    }
+
+    /**
+     * The request of a client, or null if it speaks another protocol version.
+     */
+    private fun readRequest(input: DataInputStream): Request? {
+        if (input.readInt() != DaemonProtocol.VERSION) return null
+        return when (input.readInt()) {
+            DaemonProtocol.STOP -> Request(stop = true)
+            else -> {
+                val workingDirectory = File(input.readUTF())
+                val environment = LinkedHashMap<String, String>()
+                repeat(input.readInt()) { environment[input.readUTF()] = input.readUTF() }
+                Request(stop = false, workingDirectory, environment, Array(input.readInt()) { input.readUTF() })
+            }
+        }
+    }
+
+    private fun run(request: Request, output: DataOutputStream): Int {
+        val runOut = PrintStream(FrameOutputStream(output, DaemonProtocol.STDOUT), true, Charsets.UTF_8)
+        val runErr = PrintStream(FrameOutputStream(output, DaemonProtocol.STDERR), true, Charsets.UTF_8)
+        return try {
+            val command = ContractCoverageCommand(request.workingDirectory, models, pactReader, runOut, runErr, request.environment)
+            ContractCoverageCommand.commandLine(command).execute(*request.args)
+        } catch (e: Exception) {
+            runErr.println("Fatal error: ${e.message ?: e.javaClass.name}")
+            CommandLine.ExitCode.SOFTWARE
+        } finally {
+            runOut.flush()
+            runErr.flush()
+        }
+    }
+
+    /**
+     * Create [directory] for the user alone, or check that an existing one is theirs and closed to
+     * others. Without POSIX permissions, the directory is only created.
+     */
+    private fun prepareDirectory(directory: Path) {
+        if ("posix" !in directory.fileSystem.supportedFileAttributeViews()) {
+            Files.createDirectories(directory)
+            return
+        }
+        if (Files.notExists(directory, LinkOption.NOFOLLOW_LINKS)) {
+            directory.parent?.let { Files.createDirectories(it) }
+            try {
+                Files.createDirectory(directory, PosixFilePermissions.asFileAttribute(OWNER_ONLY))
+                // The umask may have taken permissions away, never added any
+                return
+            } catch (e: FileAlreadyExistsException) {
+                // Created meanwhile, maybe by another user: checked below
+            }
+        }
+        check(Files.isDirectory(directory, LinkOption.NOFOLLOW_LINKS)) { "The socket directory $directory is not a directory" }
+        check(DaemonProtocol.isOwnedByCurrentUser(directory)) { "The socket directory $directory belongs to another user" }
+        val permissions = Files.getPosixFilePermissions(directory, LinkOption.NOFOLLOW_LINKS)
+        check(permissions.none { it !in OWNER_ONLY }) {
+            "Other users can enter the socket directory $directory (${PosixFilePermissions.toString(permissions)}); only its owner may"
+        }
+    }
+
+    companion object {
+        val DEFAULT_REQUEST_TIMEOUT: Duration = Duration.ofSeconds(10)
+
+        private val OWNER_ONLY = PosixFilePermissions.fromString("rwx------")
+    }
+}
@@ -1,10 +1,27 @@
 package org.example.infraestructure.interfaces
 
 import org.example.ContractCoverageApp
+import org.example.core.entities.Coverage
+import org.example.core.entities.CoverageDelta
+import org.example.core.entities.EndpointStatus
+import org.example.core.services.filedetection.ChangeSet
+import org.example.core.services.filedetection.DirectoryWatcher
+import org.example.core.services.filedetection.FileInventory
+import org.example.core.services.filedetection.GitChanges
+import org.example.core.services.filedetection.JavaFileWalker
+import org.example.core.services.pact.PactReader
+import org.example.core.services.reports.JsonReportReader
 import org.example.core.services.reports.JsonReportWriter
+import org.example.core.utils.Diagnostics
+import org.example.core.wrappers.lexical.FastPathMode
+import org.example.core.wrappers.spoon.ModelMemory
+import org.example.core.wrappers.spoon.ModelReuse
 import org.example.core.wrappers.spoon.SpoonWrapper
 import picocli.CommandLine
 import java.io.File
+import java.io.PrintStream
+import java.io.PrintWriter
+import java.nio.file.Files
 import java.util.concurrent.Callable
 
 @CommandLine.Command(
@@ -13,7 +30,19 @@ import java.util.concurrent.Callable
     mixinStandardHelpOptions = true,
     version = ["1.0-SNAPSHOT"]
 )
-class ContractCoverageCommand : Callable<Int> {
+class ContractCoverageCommand(
+    /** Directory that relative paths are resolved against, when it is not the one of this process (in the daemon) */
+    private val workingDirectory: File? = null,
+    /** Spoon models kept between the runs of a long-running process */
+    private val models: ModelMemory? = null,
+    private val pactReader: PactReader = PactReader(),
+    /** Where the run prints its results; the daemon passes the streams of the client it runs for */
+    private val out: PrintStream = System.out,
+    /** Where the run prints errors and diagnostics */
+    private val err: PrintStream = System.err,
+    /** Environment variables of the run, those of the client in the daemon */
+    private val environment: Map<String, String> = System.getenv()
+) : Callable<Int> {
 
     @CommandLine.Option(
         names = ["-s", "--source-code-dir"],
@@ -53,93 +82,144 @@ class ContractCoverageCommand : Callable<Int> {
     )
     private var threshold: Double? = null
 
+    @CommandLine.Option(
+        names = ["--threads"],
+        description = ["Number of threads for file scanning and endpoint extraction (default: 1)"],
+        paramLabel = "<count>"
+    )
+    // Opt-in: extraction then reads the Spoon model from several threads, which Spoon does not document as safe
+    private var threads: Int = 1
+
+    @CommandLine.Option(
+        names = ["--file-budget"],
+        description = ["Add caller and constant files on demand, following unresolved URLs, up to this many files (default: one fixed level of callers)"],
+        paramLabel = "<count>"
+    )
+    private var fileBudget: Int? = null
+
+    @CommandLine.Option(
+        names = ["--exclude"],
+        description = ["Comma-separated globs, relative to the source directory, of files and directories to skip in addition to .gitignore rules (e.g. 'legacy/**,**/generated-sources')"],
+        split = ",",
+        paramLabel = "<glob>"
+    )
+    private var excludes: List<String> = emptyList()
+
+    @CommandLine.Option(
+        names = ["--fast-path"],
+        description = ["Resolve client files whose URLs are literals or constants without building a Spoon model for them: \${COMPLETION-CANDIDATES} (default: off). cross_check also runs the full model and reports differences"],
+        paramLabel = "<mode>"
+    )
+    private var fastPath: FastPathMode = FastPathMode.OFF
+
+    @CommandLine.Option(
+        names = ["--diet-callers"],
+        description = ["Parse caller files without the method bodies that do not lead to client calls, to save time and memory with deep caller levels"],
+        defaultValue = "false"
+    )
+    private var dietCallers: Boolean = false
+
+    @CommandLine.Option(
+        names = ["--cache-dir"],
+        description = ["Directory in which the endpoints of each client file are kept between runs; only client files whose sources or dependencies changed are analyzed again"],
+        paramLabel = "<dir>"
+    )
+    private var cacheDir: File? = null
+
+    @CommandLine.Option(
+        names = ["--snapshot-dir"],
+        description = ["Directory in which built Spoon models are saved, to be loaded instead of rebuilt while the files they were built from are unchanged"],
+        paramLabel = "<dir>"
+    )
+    private var snapshotDir: File? = null
+
+    @CommandLine.Option(
+        names = ["--incremental"],
+        description = ["Keep the Spoon model of all relevant files in the cache directory and recompile only the files changed since the last run (requires --cache-dir)"],
+        defaultValue = "false"
+    )
+    private var incremental: Boolean = false
+
+    @CommandLine.Option(
+        names = ["--since"],
+        description = ["Analyze only the client files affected by the changes since this git revision (read from the local repository) and write the coverage delta against --baseline instead of a full report"],
+        paramLabel = "<git-ref>"
+    )
+    private var since: String? = null
+
+    @CommandLine.Option(
+        names = ["--baseline"],
+        description = ["Report of a full run at the --since revision, whose endpoints are kept for the files the changes do not affect"],
+        paramLabel = "<report-path>"
+    )
+    private var baselinePath: String? = null
+
+    @CommandLine.Option(
+        names = ["--watch"],
+        description = ["Keep running and report again whenever Java or Pact files change; source changes are analyzed incrementally (in --cache-dir, or a temporary directory without it)"],
+        defaultValue = "false"
+    )
+    private var watch: Boolean = false
+
+    @CommandLine.Option(
+        names = ["-v", "--verbose"],
+        description = ["Also print how the analysis went: models reused, loaded or rebuilt, cache hits and timings"],
+        defaultValue = "false"
+    )
+    private var verbose: Boolean = false
+
+    /** Pact files found by [validateInputs] */
+    private var pactFiles: List<File> = emptyList()
+
     override fun call(): Int {
         try {
             printBanner()
             
             if (dryRun) {
-                println("Running in DRY-RUN mode (exit code will always be 0)")
-                println()
+                out.println("Running in DRY-RUN mode (exit code will always be 0)")
+                out.println()
             }
             
             // Validate inputs
+            resolvePaths()
             validateInputs()
 
-            val analyzer = SpoonWrapper(codePath)
-            val reportWriter = JsonReportWriter()
-            val app = ContractCoverageApp(analyzer, reportWriter)
-
-            val coverage = app.run(outputPath, pactPath)
-            
-            // Count total Java files in project
-            val totalProjectFiles = countJavaFiles(File(codePath))
-            
-            // Log coverage information
-            println("Coverage: ${String.format("%.2f", coverage.coveragePercent)}%")
-            println("Total endpoints: ${coverage.totalCodeEndpoints}")
-            println("  - Matched: ${coverage.matchedByPact}")
-            println("  - Missing: ${coverage.missingEndpoints.size}")
-            println()
-            println("Project files: $totalProjectFiles")
-            println()
-            
-            // Log matched endpoints
-            if (coverage.matchedEndpoints.isNotEmpty()) {
-                println("Matched endpoints:")
-                coverage.matchedEndpoints.forEach { endpoint ->
-                    val source = endpoint.sourceFile?.let { " ($it)" } ?: ""
-                    println("  ✓ ${endpoint.method.value} ${endpoint.path}$source")
-                }
-                println()
-            }
-            
-            // Log missing endpoints
-            if (coverage.missingEndpoints.isNotEmpty()) {
-                println("Missing endpoints:")
-                coverage.missingEndpoints.forEach { endpoint ->
-                    val source = endpoint.sourceFile?.let { " ($it)" } ?: ""
-                    println("  ✗ ${endpoint.method.value} ${endpoint.path}$source")
-                }
-                println()
+            // Walk the source tree once; the analyzer and the file count share the result
+            val inventory = JavaFileWalker(excludes).walk(File(codePath).toPath())
+            if (watch) {
+                watchForChanges(inventory)
+                return CommandLine.ExitCode.OK
             }
-            
-            println("Report generated at: $outputPath")
-            println()
 
-            // Check threshold if specified
-            var exitCode = CommandLine.ExitCode.OK
-            if (threshold != null) {
-                val thresholdValue = threshold!!
-                if (thresholdValue < 0 || thresholdValue > 100) {
-                    System.err.println("${red("Error:")} Threshold must be between 0 and 100")
-                    return if (dryRun) {
-                        CommandLine.ExitCode.OK
-                    } else {
-                        CommandLine.ExitCode.USAGE
-                    }
-                }
+            val baseline = baselinePath?.let { JsonReportReader().readCoverage(it) }
+            val changes = since?.let { GitChanges(File(codePath), environment).since(it) }
+            val analyzer = createAnalyzer(inventory, changes)
+            val app = ContractCoverageApp(analyzer, JsonReportWriter(), pactReader)
 
-                val thresholdMet = coverage.coveragePercent >= thresholdValue
-                if (thresholdMet) {
-                    println(green("✓ Threshold met: ${String.format("%.2f", coverage.coveragePercent)}% >= ${String.format("%.2f", thresholdValue)}%"))
-                } else {
-                    println(red("✗ Threshold not met: ${String.format("%.2f", coverage.coveragePercent)}% < ${String.format("%.2f", thresholdValue)}%"))
-                    if (!dryRun) {
-                        exitCode = CommandLine.ExitCode.SOFTWARE  // Exit code 1: threshold not met
-                    }
-                }
+            val coverage = if (baseline != null) {
+                val delta = app.runDelta(outputPath, pactFiles, baseline, analyzer.changedSourceFileNames.orEmpty())
+                printDelta(delta)
+                delta.coverage
+            } else {
+                app.run(outputPath, pactFiles)
             }
+            printCoverage(coverage, inventory, listEndpoints = baseline == null)
 
-            return exitCode
+            // Check threshold if specified
+            return if (!thresholdMet(coverage) && !dryRun) {
+                CommandLine.ExitCode.SOFTWARE  // Exit code 1: threshold not met
+            } else {
+                CommandLine.ExitCode.OK
+            }
         } catch (e: IllegalArgumentException) {
-            System.err.println("Error: ${e.message}")
+            err.println("Error: ${e.message}")
             return if (dryRun) {
                 CommandLine.ExitCode.OK  // In dry-run mode, always return success
             } else {
                 CommandLine.ExitCode.USAGE  // Exit code 2: usage error
             }
         } catch (e: Exception) {
-            System.err.println("Error: ${e.message}")
+            err.println("Error: ${e.message}")
             return if (dryRun) {
                 CommandLine.ExitCode.OK  // In dry-run mode, always return success
             } else {
@@ -148,6 +228,21 @@ class ContractCoverageCommand : Callable<Int> {
         }
     }
 
+    /**
+     * Resolve the relative paths of the options against [workingDirectory], if there is one.
+     */
+    private fun resolvePaths() {
+        val directory = workingDirectory ?: return
+        fun resolve(path: String): String = if (File(path).isAbsolute) path else File(directory, path).path
+
+        codePath = resolve(codePath)
+        pactPath = resolve(pactPath)
+        outputPath = resolve(outputPath)
+        baselinePath = baselinePath?.let { resolve(it) }
+        cacheDir = cacheDir?.let { File(resolve(it.path)) }
+        snapshotDir = snapshotDir?.let { File(resolve(it.path)) }
+    }
+
     private fun validateInputs() {
         val codeDir = File(codePath)
         if (!codeDir.exists()) {
@@ -165,12 +260,32 @@ class ContractCoverageCommand : Callable<Int> {
             throw IllegalArgumentException("Pact path is not a directory: $pactPath")
         }
         
+        if (threads < 1) {
+            throw IllegalArgumentException("Thread count must be at least 1: $threads")
+        }
+        if (threshold != null && (threshold!! < 0 || threshold!! > 100)) {
+            throw IllegalArgumentException("Threshold must be between 0 and 100")
+        }
+        if (fileBudget != null && fileBudget!! < 1) {
+            throw IllegalArgumentException("File budget must be at least 1: $fileBudget")
+        }
+        if (incremental && cacheDir == null) {
+            throw IllegalArgumentException("--incremental requires --cache-dir")
+        }
+        if ((since == null) != (baselinePath == null)) {
+            throw IllegalArgumentException("--since and --baseline must be used together")
+        }
+        if (watch && since != null) {
+            throw IllegalArgumentException("--watch cannot be used with --since")
+        }
+        if (watch && workingDirectory != null) {
+            throw IllegalArgumentException("--watch runs in the foreground and cannot be sent to the daemon")
+        }
+        
         // Check if directory contains JSON files
-        val jsonFiles = pactDir.listFiles { file ->
-            file.isFile && file.name.endsWith(".json", ignoreCase = true)
-        } ?: emptyArray()
+        pactFiles = pactReader.listPactFiles(pactPath)
         
-        if (jsonFiles.isEmpty()) {
+        if (pactFiles.isEmpty()) {
             throw IllegalArgumentException("No JSON files found in Pact directory: $pactPath")
         }
 
@@ -182,6 +297,151 @@ class ContractCoverageCommand : Callable<Int> {
         }
     }
 
+    private fun createAnalyzer(inventory: FileInventory, changes: ChangeSet?, models: ModelMemory? = this.models): SpoonWrapper {
+        return SpoonWrapper(
+            codePath,
+            threads = threads,
+            fileBudget = fileBudget,
+            inventory = inventory,
+            fastPath = fastPath,
+            dietCallers = dietCallers,
+            cacheDir = cacheDir,
+            modelReuse = ModelReuse(snapshotDir, incremental, models),
+            changes = changes,
+            diagnostics = Diagnostics(err, verbose)
+        )
+    }
+
+    /**
+     * Report once, then again after every burst of changes until the process is stopped. Source
+     * changes go through the endpoint cache and the incremental model, so only the affected client
+     * files are analyzed again; Pact changes only compare the endpoints already found again.
+     * The model stays in memory between cycles, so sources that did not change are not loaded again.
+     */
+    private fun watchForChanges(initialInventory: FileInventory) {
+        if (cacheDir == null) {
+            val temporaryCache = Files.createTempDirectory("contract-coverage-watch").toFile()
+            Runtime.getRuntime().addShutdownHook(Thread { temporaryCache.deleteRecursively() })
+            cacheDir = temporaryCache
+        }
+        incremental = true
+        val watchModels = models ?: ModelMemory(Runtime.getRuntime().maxMemory() / 4 * 3)
+
+        var inventory = initialInventory
+        var app = ContractCoverageApp(createAnalyzer(inventory, null, watchModels), JsonReportWriter(), pactReader)
+        var report = app.analyze()
+        val initialCoverage = app.compare(report, outputPath, pactFiles)
+        printCoverage(initialCoverage, inventory, listEndpoints = true)
+        thresholdMet(initialCoverage)
+
+        DirectoryWatcher(
+            File(codePath).toPath(),
+            File(pactPath).toPath(),
+            ignoredFiles = setOf(File(outputPath).toPath()),
+            excludes = excludes
+        ).use { watcher ->
+            while (true) {
+                out.println("Watching $codePath and $pactPath for changes (Ctrl+C to stop)")
+                out.println()
+                val changes = watcher.awaitChanges()
+                try {
+                    if (changes.sourcesChanged) {
+                        out.println("Changed source files: ${changes.sourceFiles.size}, analyzing again")
+                        inventory = JavaFileWalker(excludes).walk(File(codePath).toPath())
+                        app = ContractCoverageApp(createAnalyzer(inventory, null, watchModels), JsonReportWriter(), pactReader)
+                        report = app.analyze()
+                        watchModels.trim()
+                    } else {
+                        out.println("Changed Pact files: ${changes.pactFiles.size}, comparing again")
+                    }
+                    pactFiles = pactReader.listPactFiles(pactPath)
+                    val coverage = app.compare(report, outputPath, pactFiles)
+                    printCoverage(coverage, inventory, listEndpoints = true)
+                    thresholdMet(coverage)
+                } catch (e: Exception) {
+                    // A half-saved file or Pact must not end the session; the next save fixes it
+                    err.println("${red("Error:")} ${e.message}")
+                    out.println()
+                }
+            }
+        }
+    }
+
+    private fun printCoverage(coverage: Coverage, inventory: FileInventory, listEndpoints: Boolean) {
+        // Count total Java files in project
+        val totalProjectFiles = countJavaFiles(inventory)
+
+        // Log coverage information
+        out.println("Coverage: ${String.format("%.2f", coverage.coveragePercent)}%")
+        out.println("Total endpoints: ${coverage.totalCodeEndpoints}")
+        out.println("  - Matched: ${coverage.matchedByPact}")
+        out.println("  - Missing: ${coverage.missingEndpoints.size}")
+        out.println()
+        out.println("Project files: $totalProjectFiles")
+        out.println()
+
+        // Log matched endpoints
+        if (listEndpoints && coverage.matchedEndpoints.isNotEmpty()) {
+            out.println("Matched endpoints:")
+            coverage.matchedEndpoints.forEach { endpoint ->
+                val source = endpoint.sourceFile?.let { " ($it)" } ?: ""
+                out.println("  ✓ ${endpoint.method.value} ${endpoint.path}$source")
+            }
+            out.println()
+        }
+
+        // Log missing endpoints
+        if (listEndpoints && coverage.missingEndpoints.isNotEmpty()) {
+            out.println("Missing endpoints:")
+            coverage.missingEndpoints.forEach { endpoint ->
+                val source = endpoint.sourceFile?.let { " ($it)" } ?: ""
+                out.println("  ✗ ${endpoint.method.value} ${endpoint.path}$source")
+            }
+            out.println()
+        }
+
+        out.println("Report generated at: $outputPath")
+        out.println()
+    }
+
+    /**
+     * Print whether [coverage] meets the threshold; true when none is set.
+     */
+    private fun thresholdMet(coverage: Coverage): Boolean {
+        val thresholdValue = threshold ?: return true
+        val thresholdMet = coverage.coveragePercent >= thresholdValue
+        if (thresholdMet) {
+            out.println(green("✓ Threshold met: ${String.format("%.2f", coverage.coveragePercent)}% >= ${String.format("%.2f", thresholdValue)}%"))
+        } else {
+            out.println(red("✗ Threshold not met: ${String.format("%.2f", coverage.coveragePercent)}% < ${String.format("%.2f", thresholdValue)}%"))
+        }
+        return thresholdMet
+    }
+
+    private fun printDelta(delta: CoverageDelta) {
+        out.println("Coverage change since $since: ${String.format("%.2f", delta.baselineCoveragePercent)}% -> ${String.format("%.2f", delta.coverage.coveragePercent)}%")
+        if (delta.isEmpty) {
+            out.println("No endpoint added, removed or changed")
+            out.println()
+            return
+        }
+        printDeltaSection("Added endpoints:", delta.added)
+        printDeltaSection("Removed endpoints:", delta.removed)
+        printDeltaSection("Endpoints with a new status:", delta.statusChanged)
+    }
+
+    private fun printDeltaSection(title: String, statuses: List<EndpointStatus>) {
+        if (statuses.isEmpty()) return
+        out.println(title)
+        statuses.forEach { status ->
+            val endpoint = status.endpoint
+            val source = endpoint.sourceFile?.let { " ($it)" } ?: ""
+            val mark = if (status.matched) "✓" else "✗"
+            out.println("  $mark ${endpoint.method.value} ${endpoint.path}$source")
+        }
+        out.println()
+    }
+
     private fun printBanner() {
         val banner = """
             
@@ -194,16 +454,11 @@ class ContractCoverageCommand : Callable<Int> {
             ╚═══════════════════════════════════════════════════════════════╝
             
         """.trimIndent()
-        println(banner)
+        out.println(banner)
     }
 
     private fun green(text: String): String {
-        // Check if we're in a terminal that supports colors
-        val isTerminal = System.console() != null || 
-                        System.getenv("TERM") != null ||
-                        System.getProperty("java.class.path", "").contains("gradle")
-        
-        return if (isTerminal && System.getProperty("NO_COLOR", "").isEmpty()) {
+        return if (isColorTerminal() && System.getProperty("NO_COLOR", "").isEmpty()) {
             "\u001B[32m$text\u001B[0m"  // ANSI green
         } else {
             text  // No color if not in terminal or NO_COLOR is set
@@ -211,24 +466,41 @@ class ContractCoverageCommand : Callable<Int> {
     }
 
     private fun red(text: String): String {
-        // Check if we're in a terminal that supports colors
-        val isTerminal = System.console() != null || 
-                        System.getenv("TERM") != null ||
-                        System.getProperty("java.class.path", "").contains("gradle")
-        
-        return if (isTerminal && System.getProperty("NO_COLOR", "").isEmpty()) {
+        return if (isColorTerminal() && System.getProperty("NO_COLOR", "").isEmpty()) {
             "\u001B[31m$text\u001B[0m"  // ANSI red
         } else {
             text  // No color if not in terminal or NO_COLOR is set
         }
     }
 
-    private fun countJavaFiles(directory: File): Int {
-        if (!directory.exists() || !directory.isDirectory) return 0
-        
-        return directory.walkTopDown()
-            .filter { it.isFile && it.extension == "java" }
-            .filter { !it.path.contains("/test/") && !it.path.contains("\\test\\") }
-            .count()
+    /**
+     * Whether the output may go to a terminal that supports colors. In the daemon, only the
+     * client's environment tells: the console and class path are those of the daemon.
+     */
+    private fun isColorTerminal(): Boolean {
+        if (environment["TERM"] != null) return true
+        return workingDirectory == null &&
+            (System.console() != null || System.getProperty("java.class.path", "").contains("gradle"))
+    }
+
+    private fun countJavaFiles(inventory: FileInventory): Int {
+        return inventory.files
+            .count { !it.file.path.contains("/test/") && !it.file.path.contains("\\test\\") }
+    }
+
+    companion object {
+        /**
+         * The command line that runs [command], set up the same way in the process and in the daemon.
+         */
+        fun commandLine(command: ContractCoverageCommand = ContractCoverageCommand()): CommandLine {
+            val commandLine = CommandLine(command)
+            // Help, version and usage errors go to the streams of the run as well
+            commandLine.out = PrintWriter(command.out, true)
+            commandLine.err = PrintWriter(command.err, true)
+            commandLine.isUnmatchedArgumentsAllowed = false
+            commandLine.isStopAtUnmatched = false
+            commandLine.isCaseInsensitiveEnumValuesAllowed = true
+            return commandLine
+        }
     }
-}
\ No newline at end of file
+}
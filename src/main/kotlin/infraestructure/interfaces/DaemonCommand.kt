@@ -0,0 +1,70 @@
+package org.example.infraestructure.interfaces
+
+import org.example.infraestructure.daemon.DaemonClient
+import org.example.infraestructure.daemon.DaemonProtocol
+import org.example.infraestructure.daemon.DaemonServer
+import picocli.CommandLine
+import java.time.Duration
+import java.util.concurrent.Callable
+
+@CommandLine.Command(
+    name = "contract-coverage daemon",
+    description = ["Keeps a warm process that runs contract-coverage command lines sent by the launcher"],
+    mixinStandardHelpOptions = true,
+    version = ["1.0-SNAPSHOT"]
+)
+class DaemonCommand : Callable<Int> {
+
+    @CommandLine.Option(
+        names = ["--idle-timeout"],
+        description = ["Minutes without requests after which the daemon stops; 0 keeps it running (default: 30)"],
+        defaultValue = "30",
+        paramLabel = "<minutes>"
+    )
+    private var idleMinutes: Long = 30
+
+    @CommandLine.Option(
+        names = ["--max-heap"],
+        description = ["Heap in MB above which the Spoon models of the projects analyzed least recently are dropped (default: three quarters of the maximum heap)"],
+        paramLabel = "<mb>"
+    )
+    private var maxHeapMb: Long? = null
+
+    @CommandLine.Option(
+        names = ["--stop"],
+        description = ["Stop the running daemon"],
+        defaultValue = "false"
+    )
+    private var stop: Boolean = false
+
+    override fun call(): Int {
+        val socket = DaemonProtocol.defaultSocket()
+        try {
+            if (stop) {
+                if (!DaemonClient(socket).stop()) {
+                    System.err.println("Error: No daemon is listening on $socket")
+                    return CommandLine.ExitCode.SOFTWARE
+                }
+                println("Daemon stopped")
+                return CommandLine.ExitCode.OK
+            }
+
+            if (idleMinutes < 0) {
+                throw IllegalArgumentException("Idle timeout must be at least 0: $idleMinutes")
+            }
+            if (maxHeapMb != null && maxHeapMb!! < 1) {
+                throw IllegalArgumentException("Maximum heap must be at least 1 MB: $maxHeapMb")
+            }
+            val maxHeapBytes = maxHeapMb?.let { it * 1024 * 1024 } ?: (Runtime.getRuntime().maxMemory() / 4 * 3)
+
+            DaemonServer(socket, Duration.ofMinutes(idleMinutes), maxHeapBytes).serve()
+            return CommandLine.ExitCode.OK
+        } catch (e: IllegalArgumentException) {
+            System.err.println("Error: ${e.message}")
+            return CommandLine.ExitCode.USAGE
+        } catch (e: Exception) {
+            System.err.println("Error: ${e.message}")
+            return CommandLine.ExitCode.SOFTWARE
+        }
+    }
+}
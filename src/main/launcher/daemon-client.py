@@ -0,0 +1,131 @@
+#!/usr/bin/env python3
+"""
+Sends a contract-coverage command line to the running daemon and prints its output, without
+starting a JVM. Speaks the protocol of DaemonProtocol (version 2) and finds the socket the same
+way: CONTRACT_COVERAGE_SOCKET, else XDG_RUNTIME_DIR, else the temporary directory.
+
+Exits with the daemon's exit code, or with 125 when no daemon took the command line (none is
+running, the socket belongs to another user, or the daemon speaks another protocol version); the
+launcher then starts the JVM.
+"""
+import os
+import pwd
+import socket
+import struct
+import sys
+
+VERSION = 2
+RUN = 1
+
+STDOUT = 1
+STDERR = 2
+EXIT = 3
+REFUSED = 4
+
+NOT_TAKEN = 125
+SOFTWARE_ERROR = 1
+
+
+def default_socket():
+    path = os.environ.get("CONTRACT_COVERAGE_SOCKET")
+    if path is not None:
+        return path
+    runtime_dir = os.environ.get("XDG_RUNTIME_DIR")
+    if runtime_dir:
+        return os.path.join(runtime_dir, "contract-coverage", "daemon.sock")
+    user = pwd.getpwuid(os.getuid()).pw_name
+    return os.path.join(os.environ.get("TMPDIR") or "/tmp", "contract-coverage-" + user, "daemon.sock")
+
+
+def utf(text):
+    """Text as written by DataOutputStream.writeUTF: modified UTF-8 of its UTF-16 code units."""
+    units = text.encode("utf-16-be", "surrogatepass")
+    data = bytearray()
+    for i in range(0, len(units), 2):
+        unit = units[i] << 8 | units[i + 1]
+        if 0 < unit < 0x80:
+            data.append(unit)
+        elif unit < 0x800:
+            data += bytes((0xC0 | unit >> 6, 0x80 | unit & 0x3F))
+        else:
+            data += bytes((0xE0 | unit >> 12, 0x80 | unit >> 6 & 0x3F, 0x80 | unit & 0x3F))
+    if len(data) > 0xFFFF:
+        raise ValueError("string longer than 65535 bytes")
+    return struct.pack(">H", len(data)) + bytes(data)
+
+
+def run_request(args):
+    environment = list(os.environ.items())
+    parts = [struct.pack(">ii", VERSION, RUN), utf(os.getcwd()), struct.pack(">i", len(environment))]
+    for name, value in environment:
+        parts += [utf(name), utf(value)]
+    parts.append(struct.pack(">i", len(args)))
+    parts += [utf(arg) for arg in args]
+    return b"".join(parts)
+
+
+def read_exactly(frames, size):
+    data = frames.read(size)
+    if len(data) < size:
+        raise ConnectionError("the daemon closed the connection")
+    return data
+
+
+def connect(path):
+    try:
+        # A socket of another user could be a daemon that reads the arguments and fakes the output
+        if os.lstat(path).st_uid != os.getuid():
+            return None
+        client = socket.socket(socket.AF_UNIX, socket.SOCK_STREAM)
+    except OSError:
+        return None
+    try:
+        client.connect(path)
+    except OSError:
+        client.close()
+        return None
+    return client
+
+
+def main(args):
+    if os.environ.get("CONTRACT_COVERAGE_DAEMON") == "off":
+        return NOT_TAKEN
+    # The daemon itself, and watch sessions, run in the terminal that started them
+    if (args and args[0] == "daemon") or "--watch" in args:
+        return NOT_TAKEN
+    client = connect(default_socket())
+    if client is None:
+        return NOT_TAKEN
+
+    with client:
+        try:
+            client.sendall(run_request(args))
+        except (OSError, ValueError):
+            # Nothing ran yet: the JVM can still run the command itself
+            return NOT_TAKEN
+
+        frames = client.makefile("rb")
+        try:
+            while True:
+                kind = read_exactly(frames, 1)[0]
+                if kind == STDOUT or kind == STDERR:
+                    (length,) = struct.unpack(">i", read_exactly(frames, 4))
+                    target = sys.stdout.buffer if kind == STDOUT else sys.stderr.buffer
+                    target.write(read_exactly(frames, length))
+                    target.flush()
+                elif kind == EXIT:
+                    return struct.unpack(">i", read_exactly(frames, 4))[0]
+                elif kind == REFUSED:
+                    return NOT_TAKEN
+                else:
+                    raise ConnectionError("unexpected message")
+        except OSError as e:
+            sys.stderr.write("Error: lost the connection to the daemon: %s\n" % e)
+            return SOFTWARE_ERROR
+
+
+if __name__ == "__main__":
+    try:
+        sys.exit(main(sys.argv[1:]))
+    except KeyboardInterrupt:
+        sys.exit(130)
@@ -0,0 +1,53 @@
+package org.example
+
+import org.example.core.entities.Coverage
+import org.example.core.entities.Endpoint
+import org.example.core.entities.HttpMethod
+import org.example.core.services.reports.JsonReportWriter
+import org.example.core.wrappers.StaticCodeAnalyzer
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.nio.file.Path
+
+class ContractCoverageAppTest {
+
+    @TempDir
+    lateinit var tempDir: Path
+
+    @Test
+    fun `should keep a baseline endpoint still reported by a file that was not replaced`() {
+        val baseline = coverageOf(
+            Endpoint("/users", HttpMethod.GET, "UserClient.java", otherSourceFiles = setOf("AdminClient.java")),
+            Endpoint("/orders", HttpMethod.GET, "UserClient.java")
+        )
+
+        // UserClient.java was analyzed again and has no calls left
+        val delta = runDelta(baseline, emptyList(), setOf("UserClient.java"))
+
+        assertEquals(listOf(Endpoint("/users", HttpMethod.GET, "AdminClient.java")), delta.coverage.missingEndpoints.filter { it.path == "/users" })
+        assertEquals(listOf("/orders"), delta.removed.map { it.endpoint.path })
+        assertEquals(emptyList<Any>(), delta.added)
+    }
+
+    @Test
+    fun `should replace a baseline endpoint when every file reporting it was replaced`() {
+        val baseline = coverageOf(
+            Endpoint("/users", HttpMethod.GET, "UserClient.java", otherSourceFiles = setOf("AdminClient.java"))
+        )
+
+        val delta = runDelta(baseline, emptyList(), setOf("UserClient.java", "AdminClient.java"))
+
+        assertEquals(listOf("/users"), delta.removed.map { it.endpoint.path })
+    }
+
+    private fun runDelta(baseline: Coverage, endpoints: List<Endpoint>, replacedSourceFiles: Set<String>) =
+        ContractCoverageApp(analyzerOf(endpoints), JsonReportWriter())
+            .runDelta(tempDir.resolve("delta.json").toString(), emptyList(), baseline, replacedSourceFiles)
+
+    private fun coverageOf(vararg missing: Endpoint) = Coverage(missing.size, 0, 0.0, missing.toList(), emptyList())
+
+    private fun analyzerOf(endpoints: List<Endpoint>) = object : StaticCodeAnalyzer {
+        override fun analyzeInvocations(): List<Endpoint> = endpoints
+    }
+}
@@ -0,0 +1,28 @@
+package core
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardCopyOption
+
+private val FIXTURES: Path = Path.of("src/test/resources/code")
+
+/**
+ * The example project [name] (e.g. `cache/test1`) under src/test/resources/code.
+ */
+fun fixture(name: String): Path = FIXTURES.resolve(name).toAbsolutePath()
+
+/**
+ * Copy the files of the example project [name] into [target], replacing the files already there,
+ * for tests that change a project between two analyses. Returns [target].
+ */
+fun copyFixture(name: String, target: Path): Path {
+    val source = fixture(name)
+    Files.walk(source).use { paths ->
+        paths.filter { Files.isRegularFile(it) }.forEach { file ->
+            val copy = target.resolve(source.relativize(file).toString())
+            Files.createDirectories(copy.parent)
+            Files.copy(file, copy, StandardCopyOption.REPLACE_EXISTING)
+        }
+    }
+    return target
+}
@@ -0,0 +1,47 @@
+package org.example.core.services.coverage
+
+import org.example.core.entities.Endpoint
+import org.example.core.entities.EndpointStatus
+import org.example.core.entities.HttpMethod
+import org.example.core.entities.UnresolvedMarkers
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+
+class CoverageDeltaCalculatorTest {
+
+    @Test
+    fun `should report added, removed and status-changed endpoints`() {
+        val pact = listOf(Endpoint("/a", HttpMethod.GET), Endpoint("/c", HttpMethod.PUT))
+        val baseline = EndpointsComparator().compare(
+            listOf(Endpoint("/a", HttpMethod.GET), Endpoint("/b", HttpMethod.POST), Endpoint("/c", HttpMethod.DELETE)),
+            pact
+        )
+        val current = EndpointsComparator().compare(
+            listOf(Endpoint("/a", HttpMethod.GET), Endpoint("/c", HttpMethod.DELETE), Endpoint("/c", HttpMethod.PUT)),
+            pact - Endpoint("/a", HttpMethod.GET)
+        )
+
+        val delta = CoverageDeltaCalculator().compare(baseline, current)
+
+        assertEquals(33.33, delta.baselineCoveragePercent)
+        assertEquals(listOf(EndpointStatus(Endpoint("/c", HttpMethod.PUT), matched = true)), delta.added)
+        assertEquals(listOf(EndpointStatus(Endpoint("/b", HttpMethod.POST), matched = false)), delta.removed)
+        assertEquals(listOf(EndpointStatus(Endpoint("/a", HttpMethod.GET), matched = false)), delta.statusChanged)
+    }
+
+    @Test
+    fun `should tell dynamic endpoints apart by source file`() {
+        val dynamic = UnresolvedMarkers.UNRESOLVED_URL
+        val baseline = EndpointsComparator().compare(listOf(Endpoint(dynamic, HttpMethod.GET, "A.java")), emptyList())
+        val current = EndpointsComparator().compare(
+            listOf(Endpoint(dynamic, HttpMethod.GET, "A.java"), Endpoint(dynamic, HttpMethod.GET, "B.java")),
+            emptyList()
+        )
+
+        val delta = CoverageDeltaCalculator().compare(baseline, current)
+
+        assertEquals(listOf("B.java"), delta.added.map { it.endpoint.sourceFile })
+        assertTrue(delta.removed.isEmpty() && delta.statusChanged.isEmpty())
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.core.services.filedetection
+
+import core.fixture
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+import java.io.File
+
+class CallerResolverTest {
+
+    private val project = fixture("callers/test1")
+
+    @Test
+    fun `should follow exact, wildcard and same-package references level by level`() {
+        val client = file("client", "ApiClient")
+        val sameService = file("client", "SamePackageService")
+        val importingService = file("service", "ImportingService")
+        val wildcardService = file("other", "WildcardService")
+        val controller = file("web", "Controller")
+        val unrelated = file("web", "Unrelated")
+        val allFiles = listOf(client, sameService, importingService, wildcardService, controller, unrelated)
+            .map { SourceFile.of(it) }
+
+        val resolver = CallerResolver()
+
+        assertEquals(
+            setOf(client, sameService, importingService, wildcardService),
+            resolver.findCallers(listOf(client), allFiles, 1)
+        )
+        assertEquals(
+            setOf(client, sameService, importingService, wildcardService, controller),
+            resolver.findCallers(listOf(client), allFiles, 3)
+        )
+        assertEquals(setOf(client), resolver.findCallers(listOf(client), allFiles, 0))
+    }
+
+    private fun file(packageName: String, className: String): File =
+        project.resolve(packageName).resolve("$className.java").toFile()
+}
@@ -0,0 +1,58 @@
+package org.example.core.services.filedetection
+
+import core.copyFixture
+import core.fixture
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.io.File
+import java.nio.file.Files
+import java.nio.file.Path
+
+class ChangeImpactTest {
+
+    @TempDir
+    lateinit var tempDir: Path
+
+    @Test
+    fun `should slice the client files reached from changed files`() {
+        val project = fixture("impact/test1")
+
+        val slice = sliceOf(project, ChangeSet(setOf(file(project, "web", "Controller")), emptyMap()))
+
+        assertEquals(listOf("OrderClient.java"), slice.clientFiles.map { it.name })
+        assertEquals(setOf("Controller.java", "OrderClient.java"), slice.sourceFileNames)
+    }
+
+    @Test
+    fun `should add client files sharing a caller with the slice`() {
+        val project = copyFixture("impact/test1", tempDir)
+        copyFixture("impact/test1-edits/shared-caller", project)
+
+        val slice = sliceOf(project, ChangeSet(setOf(file(project, "client", "OrderClient")), emptyMap()))
+
+        assertEquals(listOf("OrderClient.java", "UserClient.java"), slice.clientFiles.map { it.name }.sorted())
+    }
+
+    @Test
+    fun `should follow deleted files through the types they mentioned`() {
+        val project = fixture("impact/test1")
+        val deleted = file(project, "web", "Admin")
+        val previousText = Files.readString(fixture("impact/test1-edits/deleted/web/Admin.java"))
+
+        val slice = sliceOf(project, ChangeSet(emptySet(), mapOf(deleted to previousText)))
+
+        assertEquals(listOf("UserClient.java"), slice.clientFiles.map { it.name })
+        assertEquals(setOf("Admin.java", "UserClient.java"), slice.sourceFileNames)
+    }
+
+    private fun sliceOf(project: Path, changes: ChangeSet): ChangeImpact.Slice {
+        val inventory = JavaFileWalker().walk(project)
+        val dependencies = ClientDependencies(inventory, LexicalConstantIndex(inventory.files), callerDepth = 1)
+        val clientFiles = listOf(file(project, "client", "OrderClient"), file(project, "client", "UserClient"))
+        return ChangeImpact(dependencies).sliceOf(clientFiles, changes)
+    }
+
+    private fun file(project: Path, packageName: String, className: String): File =
+        project.resolve(packageName).resolve("$className.java").toFile()
+}
@@ -0,0 +1,49 @@
+package org.example.core.services.filedetection
+
+import core.copyFixture
+import core.fixture
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNotEquals
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.io.File
+import java.nio.file.Path
+
+class ClientDependenciesTest {
+
+    @TempDir
+    lateinit var tempDir: Path
+
+    @Test
+    fun `should depend on callers, referenced files and the constants of constants`() {
+        val project = fixture("dependencies/test1")
+
+        val dependencies = dependenciesIn(project).dependenciesOf(file(project, "client", "UserClient"))
+
+        assertEquals(
+            setOf("client/UserClient.java", "web/Controller.java", "config/Paths.java", "config/Hosts.java", "web/Request.java"),
+            dependencies.map { project.relativize(it.toPath()).toString().replace(File.separatorChar, '/') }.toSet()
+        )
+    }
+
+    @Test
+    fun `should change the fingerprint only when a dependency changes`() {
+        val project = copyFixture("dependencies/test1", tempDir)
+        val client = file(project, "client", "UserClient")
+        val before = dependenciesIn(project).fingerprint(client)
+
+        copyFixture("dependencies/test1-edits/unrelated", project)
+        assertEquals(before, dependenciesIn(project).fingerprint(client))
+
+        copyFixture("dependencies/test1-edits/hosts", project)
+        assertNotEquals(before, dependenciesIn(project).fingerprint(client))
+    }
+
+    private fun dependenciesIn(project: Path): ClientDependencies {
+        val inventory = JavaFileWalker().walk(project)
+        return ClientDependencies(inventory, LexicalConstantIndex(inventory.files), callerDepth = 1)
+    }
+
+    private fun file(project: Path, packageName: String, className: String): File =
+        project.resolve(packageName).resolve("$className.java").toFile()
+}
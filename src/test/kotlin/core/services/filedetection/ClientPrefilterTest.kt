@@ -0,0 +1,56 @@
+package org.example.core.services.filedetection
+
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.io.File
+import java.nio.ByteBuffer
+import java.nio.file.Files
+import java.nio.file.Path
+
+class ClientPrefilterTest {
+
+    @TempDir
+    lateinit var tempDir: Path
+
+    private class PatternDetector(
+        override val clientName: String,
+        private val patterns: List<String>
+    ) : ClientFileDetector {
+        override fun mightContainClient(file: File): Boolean = patterns.any { file.readText().contains(it) }
+        override fun getDetectionPatterns(): List<String> = patterns
+    }
+
+    @Test
+    fun `should find overlapping patterns in one pass`() {
+        val matcher = AhoCorasickMatcher(listOf("he", "she", "his", "hers").map { it.toByteArray() })
+
+        val found = mutableListOf<Int>()
+        matcher.scan(ByteBuffer.wrap("ushers".toByteArray())) { found.add(it); true }
+
+        assertEquals(setOf(0, 1, 3), found.toSet())
+    }
+
+    @Test
+    fun `should report which detectors matched a file`() {
+        val restTemplate = RestTemplateFileDetector()
+        val webClient = PatternDetector("WebClient", listOf("WebClient"))
+        val feign = PatternDetector("Feign", listOf("@FeignClient"))
+        val prefilter = ClientPrefilter(listOf(restTemplate, webClient, feign))
+
+        val file = tempDir.resolve("Client.java")
+        Files.writeString(file, "class Client { private WebClient client; private RestTemplate restTemplate; }")
+
+        assertEquals(listOf(restTemplate, webClient), prefilter.matchingDetectors(SourceFile.of(file.toFile())))
+    }
+
+    @Test
+    fun `should match no detector for a file without client usage`() {
+        val prefilter = ClientPrefilter(listOf(RestTemplateFileDetector()))
+
+        val file = tempDir.resolve("Plain.java")
+        Files.writeString(file, "class Plain { String template; }")
+
+        assertEquals(emptyList<ClientFileDetector>(), prefilter.matchingDetectors(SourceFile.of(file.toFile())))
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.core.services.filedetection
+
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertTimeoutPreemptively
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.nio.file.Files
+import java.nio.file.Path
+import java.time.Duration
+
+class DirectoryWatcherTest {
+
+    @TempDir
+    lateinit var tempDir: Path
+
+    @Test
+    fun `should report a burst of source and Pact changes together`() {
+        val sources = Files.createDirectories(tempDir.resolve("src/client"))
+        val pacts = Files.createDirectories(tempDir.resolve("pacts"))
+        val report = pacts.resolve("report.json")
+
+        DirectoryWatcher(tempDir.resolve("src"), pacts, ignoredFiles = setOf(report)).use { watcher ->
+            Files.writeString(sources.resolve("Client.java"), "class Client {}")
+            Files.writeString(sources.resolve("notes.txt"), "notes")
+            Files.writeString(pacts.resolve("consumer-provider.json"), "{}")
+            Files.writeString(report, "{}")
+
+            val changes = awaitChanges(watcher)
+
+            assertEquals(setOf(sources.resolve("Client.java").toAbsolutePath()), changes.sourceFiles)
+            assertEquals(setOf(pacts.resolve("consumer-provider.json").toAbsolutePath()), changes.pactFiles)
+        }
+    }
+
+    @Test
+    fun `should watch directories created after it started`() {
+        val sources = Files.createDirectories(tempDir.resolve("src"))
+        val pacts = Files.createDirectories(tempDir.resolve("pacts"))
+
+        DirectoryWatcher(sources, pacts).use { watcher ->
+            val created = Files.createDirectories(sources.resolve("web"))
+            assertTrue(awaitChanges(watcher).sourcesChanged)
+
+            Files.writeString(created.resolve("Controller.java"), "class Controller {}")
+            val changes = awaitChanges(watcher)
+
+            assertEquals(setOf(created.resolve("Controller.java").toAbsolutePath()), changes.sourceFiles)
+            assertEquals(false, changes.pactsChanged)
+        }
+    }
+
+    @Test
+    fun `should leave out the directories and files the file walker leaves out`() {
+        val sources = Files.createDirectories(tempDir.resolve("src"))
+        Files.writeString(sources.resolve(".gitignore"), "generated/\n*Generated.java\n")
+        val generated = Files.createDirectories(sources.resolve("generated"))
+        val legacy = Files.createDirectories(sources.resolve("legacy"))
+        val pacts = Files.createDirectories(tempDir.resolve("pacts"))
+
+        DirectoryWatcher(sources, pacts, excludes = listOf("legacy/**")).use { watcher ->
+            Files.writeString(generated.resolve("Dto.java"), "class Dto {}")
+            Files.writeString(legacy.resolve("Old.java"), "class Old {}")
+            Files.writeString(sources.resolve("ClientGenerated.java"), "class ClientGenerated {}")
+            Files.writeString(sources.resolve("Client.java"), "class Client {}")
+
+            val changes = awaitChanges(watcher)
+
+            assertEquals(setOf(sources.resolve("Client.java").toAbsolutePath()), changes.sourceFiles)
+        }
+    }
+
+    private fun awaitChanges(watcher: DirectoryWatcher): DirectoryWatcher.Changes {
+        return assertTimeoutPreemptively(Duration.ofSeconds(30)) { watcher.awaitChanges() }
+    }
+}
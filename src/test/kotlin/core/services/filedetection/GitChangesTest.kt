@@ -0,0 +1,66 @@
+package org.example.core.services.filedetection
+
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertThrows
+import org.junit.jupiter.api.Assumptions.assumeTrue
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.io.File
+import java.nio.file.Files
+import java.nio.file.Path
+
+class GitChangesTest {
+
+    @TempDir
+    lateinit var tempDir: Path
+
+    @BeforeEach
+    fun requireGit() {
+        assumeTrue(runCatching { git("--version") }.isSuccess, "git is not installed")
+    }
+
+    @Test
+    fun `should list changed, untracked and deleted Java files under the source directory`() {
+        git("init", "-q")
+        write("src/Kept.java", "class Kept {}")
+        write("src/Modified.java", "class Modified {}")
+        write("src/Deleted.java", "class Deleted {}")
+        write("other/Outside.java", "class Outside {}")
+        write("src/notes.txt", "notes")
+        git("add", ".")
+        git("-c", "user.name=test", "-c", "user.email=test@example.com", "commit", "-q", "-m", "baseline")
+
+        write("src/Modified.java", "class Modified { int changed; }")
+        write("src/Added.java", "class Added {}")
+        write("other/Outside.java", "class Outside { int changed; }")
+        write("src/notes.txt", "changed notes")
+        Files.delete(tempDir.resolve("src/Deleted.java"))
+
+        val sourceDir = tempDir.resolve("src").toFile()
+        val changes = GitChanges(sourceDir).since("HEAD")
+
+        assertEquals(setOf(File(sourceDir, "Modified.java"), File(sourceDir, "Added.java")), changes.changedFiles)
+        assertEquals(mapOf(File(sourceDir, "Deleted.java") to "class Deleted {}"), changes.deletedFiles)
+    }
+
+    @Test
+    fun `should reject an unknown revision`() {
+        git("init", "-q")
+
+        assertThrows(IllegalArgumentException::class.java) {
+            GitChanges(tempDir.toFile()).since("no-such-revision")
+        }
+    }
+
+    private fun write(path: String, text: String) {
+        val file = tempDir.resolve(path)
+        Files.createDirectories(file.parent)
+        Files.writeString(file, text)
+    }
+
+    private fun git(vararg args: String) {
+        val process = ProcessBuilder(listOf("git") + args).directory(tempDir.toFile()).inheritIO().start()
+        check(process.waitFor() == 0) { "git ${args.joinToString(" ")} failed" }
+    }
+}
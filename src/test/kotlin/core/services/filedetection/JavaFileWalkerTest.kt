@@ -0,0 +1,58 @@
+package org.example.core.services.filedetection
+
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.nio.file.Files
+import java.nio.file.Path
+
+class JavaFileWalkerTest {
+
+    @TempDir
+    lateinit var tempDir: Path
+
+    @Test
+    fun `should prune ignored and excluded directories and count what was skipped`() {
+        Files.writeString(tempDir.resolve(".gitignore"), "# build output\nbuild/\n*.gen.java\n!Keep.gen.java\n")
+        write("src/main/App.java")
+        write("src/main/Model.gen.java")
+        write("src/main/Keep.gen.java")
+        write("build/classes/App.java")
+        write("legacy/Old.java")
+        write(".git/objects/Blob.java")
+        write("module/src/Service.java")
+        write("module/out/Generated.java")
+        Files.writeString(tempDir.resolve("module/.gitignore"), "/out\n")
+
+        val result = JavaFileWalker(listOf("legacy/**")).walk(tempDir)
+
+        assertEquals(
+            setOf("src/main/App.java", "src/main/Keep.gen.java", "module/src/Service.java"),
+            result.files.map { tempDir.relativize(it.path).joinToString("/") }.toSet()
+        )
+        // build, legacy, .git and module/out
+        assertEquals(4, result.skippedDirectories)
+        assertEquals(1, result.skippedFiles)
+    }
+
+    @Test
+    fun `should match gitignore patterns like git does`() {
+        val rules = IgnoreRules(listOf("target", "/docs/", "**/generated/**", "*.tmp", "!keep.tmp"))
+
+        assertEquals(true, rules.match("target", true))
+        assertEquals(true, rules.match("a/b/target", true))
+        assertEquals(true, rules.match("docs", true))
+        assertEquals(null, rules.match("a/docs", true))
+        assertEquals(null, rules.match("docs", false))
+        assertEquals(true, rules.match("x/generated/Y.java", false))
+        assertEquals(true, rules.match("a/file.tmp", false))
+        assertEquals(false, rules.match("a/keep.tmp", false))
+        assertEquals(null, rules.match("src/App.java", false))
+    }
+
+    private fun write(relativePath: String) {
+        val file = tempDir.resolve(relativePath)
+        Files.createDirectories(file.parent)
+        Files.writeString(file, "class X {}")
+    }
+}
@@ -0,0 +1,24 @@
+package org.example.core.services.filedetection
+
+import core.fixture
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Test
+
+class LexicalConstantIndexTest {
+
+    @Test
+    fun `should evaluate concatenated constants across files`() {
+        val index = LexicalConstantIndex(JavaFileWalker().walk(fixture("constants/test1")).files)
+
+        assertEquals("http://api.example.com", index.constantOf("config.Hosts", "API"))
+        assertEquals("http://api.example.com/v1/users", index.constantOf("config.Paths", "USERS"))
+        assertEquals("http://api.example.com/v1/orders", index.constantOf("config.Paths", "ORDERS"))
+        assertEquals("http://api.example.com/v1", index.constantOf("config.Paths\$Nested", "PREFIX"))
+        assertEquals("http://api.example.com/v1/users", index.constantOf("Paths", "USERS"))
+        assertNull(index.constantOf("config.Paths", "instance"))
+        assertNull(index.constantOf("config.Paths", "NOW"))
+        assertNull(index.constantOf("config.Paths", "local"))
+        assertNull(index.constantOf("config.Cycle", "A"))
+    }
+}
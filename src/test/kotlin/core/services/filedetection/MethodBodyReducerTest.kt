@@ -0,0 +1,34 @@
+package org.example.core.services.filedetection
+
+import core.fixture
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+
+class MethodBodyReducerTest {
+
+    @Test
+    fun `should keep only the bodies that lead to client calls or write fields`() {
+        val client = source("ApiClient")
+        val service = source("UserService")
+        val controller = source("UserController")
+
+        val reduced = MethodBodyReducer().reduce(listOf(client), listOf(service, controller))
+
+        val reducedService = reduced.getValue(service.file)
+        assertTrue(reducedService.contains("this.prefix = prefix;"))
+        assertTrue(reducedService.contains("return client.get(prefix + USERS);"))
+        assertFalse(reducedService.contains("total++"))
+        assertTrue(reducedService.contains("public int count(java.util.List<String> items) { throw null; "))
+        assertTrue(reducedService.contains("private static final String USERS = \"/users\";"))
+        // Line numbers are kept
+        assertEquals(service.text.lines().size, reducedService.lines().size)
+
+        val reducedController = reduced.getValue(controller.file)
+        assertTrue(reducedController.contains("return service.load();"))
+        assertFalse(reducedController.contains("\"ok\""))
+    }
+
+    private fun source(className: String): SourceFile = SourceFile.of(fixture("diet/test1/$className.java").toFile())
+}
@@ -0,0 +1,57 @@
+package org.example.core.services.filedetection
+
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.nio.file.Files
+import java.nio.file.Path
+
+class ProjectFileScannerTest {
+
+    @TempDir
+    lateinit var tempDir: Path
+
+    @Test
+    fun `should find the same files with concurrent probing as with a single thread`() {
+        writeProject()
+
+        val sequential = ProjectFileScanner(listOf(RestTemplateFileDetector())).scan(tempDir.toFile())
+        val concurrent = ProjectFileScanner(listOf(RestTemplateFileDetector()), probeConcurrency = 8).scan(tempDir.toFile())
+
+        assertEquals(sequential.clientFiles, concurrent.clientFiles)
+        assertEquals(sequential.allRelevantFiles.toSet(), concurrent.allRelevantFiles.toSet())
+        assertEquals(
+            (0 until 20 step 4).map { "Client$it.java" }.toSet(),
+            concurrent.clientFiles.map { it.name }.toSet()
+        )
+    }
+
+    @Test
+    fun `should only scan java files`() {
+        writeProject()
+        Files.writeString(tempDir.resolve("notes.txt"), "RestTemplate")
+
+        val result = ProjectFileScanner(listOf(RestTemplateFileDetector()), probeConcurrency = 4).scan(tempDir.toFile(), 0)
+
+        assertEquals(5, result.clientFileCount)
+        assertEquals(0, result.callerFileCount)
+    }
+
+    private fun writeProject() {
+        val dir = Files.createDirectories(tempDir.resolve("src/scan"))
+        repeat(20) { i ->
+            val name = "Client$i"
+            val body = if (i % 4 == 0) "private RestTemplate restTemplate;" else "private String name;"
+            Files.writeString(
+                dir.resolve("$name.java"),
+                """
+                package scan;
+
+                public class $name {
+                    $body
+                }
+                """.trimIndent()
+            )
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.example.core.services.filedetection
+
+import org.example.core.services.filedetection.TypeFrameWalker.Step
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+
+class TypeFrameWalkerTest {
+
+    @Test
+    fun `should follow member types but not local, anonymous or class literal ones`() {
+        val tokens = JavaLexer.tokenize(
+            """
+            package shop;
+
+            public class Outer {
+                private final Class<?> type = Outer.class;
+
+                interface Paths {
+                    String ORDERS = "/orders";
+                }
+
+                void run() {
+                    class Local {}
+                    Runnable task = new Runnable() {
+                        public void run() {}
+                    };
+                }
+            }
+
+            enum Status { OPEN, CLOSED }
+            """.trimIndent()
+        )
+        val walker = TypeFrameWalker(tokens, "shop")
+
+        val opened = mutableListOf<String>()
+        val membersOf = mutableMapOf<String, Int>()
+        for (i in tokens.indices) {
+            if (walker.atMemberLevel && tokens[i].isPunctuation(';')) {
+                membersOf.merge(walker.currentType!!.qualifiedName, 1, Int::plus)
+            }
+            if (walker.advance(i) == Step.TYPE_OPENED) opened.add(walker.enclosingTypes.joinToString(" < "))
+        }
+
+        assertEquals(listOf("shop.Outer", "shop.Outer\$Paths < shop.Outer", "shop.Status"), opened)
+        assertEquals(mapOf("shop.Outer" to 1, "shop.Outer\$Paths" to 1), membersOf)
+        assertEquals(0, walker.depth)
+    }
+
+    @Test
+    fun `should drop annotations with their arguments`() {
+        val tokens = JavaLexer.tokenize("@Deprecated @org.example.Tag(value = \"(x)\", other = (1)) public String name")
+
+        val texts = JavaLexer.withoutAnnotations(tokens).map { it.text }
+
+        assertEquals(listOf("public", "String", "name"), texts)
+    }
+}
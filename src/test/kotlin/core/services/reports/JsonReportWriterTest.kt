@@ -1,5 +1,6 @@
 package org.example.core.services.reports
 
+import org.example.core.entities.Coverage
 import org.example.core.entities.Endpoint
 import org.example.core.entities.HttpMethod
 import org.example.core.entities.Report
@@ -66,5 +67,20 @@ class JsonReportWriterTest {
         // Then
         assertTrue(outputFile.exists())
     }
-}
 
+    @Test
+    fun `should read back every file reporting an endpoint`() {
+        // Given
+        val endpoint = Endpoint("/api/users", HttpMethod.GET, "UserClient.java", otherSourceFiles = setOf("AdminClient.java"))
+        val report = Report()
+        report.setCoverage(Coverage(1, 0, 0.0, listOf(endpoint), emptyList()))
+        val outputFile = tempDir.resolve("report.json").toFile()
+
+        // When
+        JsonReportWriter().writeReport(report, outputFile.absolutePath)
+        val coverage = JsonReportReader().readCoverage(outputFile.absolutePath)
+
+        // Then
+        assertEquals(listOf(endpoint), coverage.missingEndpoints)
+    }
+}
@@ -0,0 +1,64 @@
+package core.wrappers.lexical
+
+import core.fixture
+import core.wrappers.spoon.assertEndpointsEqual
+import org.example.core.entities.Endpoint
+import org.example.core.entities.HttpMethod
+import org.example.core.services.filedetection.JavaFileWalker
+import org.example.core.services.filedetection.LexicalConstantIndex
+import org.example.core.wrappers.lexical.FastPathMode
+import org.example.core.wrappers.lexical.LexicalCallExtractor
+import org.example.core.wrappers.spoon.SpoonWrapper
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+import java.io.File
+
+class LexicalCallExtractorTest {
+
+    private val project = fixture("lexical/test1")
+
+    @Test
+    fun `should resolve literal and constant URLs and leave wrapper files to the model`() {
+        val files = JavaFileWalker().walk(project).files
+        val clients = files.filter { it.file.name.endsWith("Client.java") }
+
+        val result = LexicalCallExtractor(LexicalConstantIndex(files)).extract(clients, files)
+
+        assertEquals(
+            listOf(
+                Endpoint("/users/{id}", HttpMethod.GET, "UserClient.java"),
+                Endpoint("/orders", HttpMethod.GET, "UserClient.java"),
+                // Private methods are reported without a call site, like in the Spoon extraction
+                Endpoint("/users/1", HttpMethod.DELETE, "UserClient.java")
+            ),
+            result.endpoints
+        )
+        assertEquals(listOf("UserClient.java"), result.resolvedFiles.map { it.name })
+        assertEquals(listOf("GenericClient.java"), result.unresolvedFiles.map { it.name })
+    }
+
+    @Test
+    fun `should report the same endpoints with and without the fast path`() {
+        val spoon = SpoonWrapper(project.toString()).analyzeInvocations()
+        val fastPath = SpoonWrapper(project.toString(), fastPath = FastPathMode.ON).analyzeInvocations()
+
+        assertEndpointsEqual(spoon, fastPath)
+        assertEquals(setOf("/users/{id}", "/orders", "/users/1", "/items"), fastPath.map { it.path }.toSet())
+    }
+
+    @Test
+    fun `should match the Spoon extraction on the example projects`() {
+        val projects = File("src/test/resources/code").listFiles().orEmpty()
+            .flatMap { it.listFiles().orEmpty().toList() }
+            .filter { it.isDirectory }
+            .sortedBy { it.path }
+
+        for (project in projects) {
+            // Projects the Spoon pipeline rejects (e.g. without client files) have nothing to compare
+            val spoon = runCatching { SpoonWrapper(project.absolutePath).analyzeInvocations() }.getOrNull() ?: continue
+            val fastPath = SpoonWrapper(project.absolutePath, fastPath = FastPathMode.ON).analyzeInvocations()
+
+            assertEndpointsEqual(spoon, fastPath)
+        }
+    }
+}
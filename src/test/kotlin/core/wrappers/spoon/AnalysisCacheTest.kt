@@ -0,0 +1,137 @@
+package core.wrappers.spoon
+
+import core.copyFixture
+import org.example.ContractCoverageApp
+import org.example.core.entities.Coverage
+import org.example.core.entities.Endpoint
+import org.example.core.services.reports.JsonReportWriter
+import org.example.core.wrappers.StaticCodeAnalyzer
+import org.example.core.wrappers.lexical.FastPathMode
+import org.example.core.wrappers.spoon.ModelReuse
+import org.example.core.wrappers.spoon.SpoonWrapper
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.nio.file.Files
+import java.nio.file.Path
+
+class AnalysisCacheTest {
+
+    @TempDir
+    lateinit var tempDir: Path
+
+    @Test
+    fun `should report the same endpoints from the cache as without it`() {
+        val project = copyProject()
+
+        val uncached = SpoonWrapper(project.toString()).analyzeInvocations()
+        val cold = cachedRun(project)
+        val warm = cachedRun(project)
+
+        assertEndpointsEqual(uncached, cold)
+        assertEndpointsEqual(uncached, warm)
+        assertTrue(cacheEntries() > 0)
+    }
+
+    @Test
+    fun `should analyze again the client files whose callers or constants changed`() {
+        val project = copyProject()
+        cachedRun(project)
+
+        edit(project, "products")
+        assertEquals(setOf("/orders", "/products"), cachedRun(project).map { it.path }.toSet())
+
+        edit(project, "orders-v2")
+        val endpoints = cachedRun(project)
+
+        assertEquals(setOf("/v2/orders", "/products"), endpoints.map { it.path }.toSet())
+        assertEndpointsEqual(SpoonWrapper(project.toString()).analyzeInvocations(), endpoints)
+    }
+
+    @Test
+    fun `should follow added, changed and removed files with an incremental model`() {
+        val project = copyProject()
+        assertEndpointsEqual(SpoonWrapper(project.toString()).analyzeInvocations(), cachedRun(project, incremental = true))
+
+        edit(project, "products")
+        edit(project, "admin")
+        Files.delete(project.resolve("client/OrderClient.java"))
+        val endpoints = cachedRun(project, incremental = true)
+
+        assertEquals(setOf("/products", "/audit"), endpoints.map { it.path }.toSet())
+        assertEndpointsEqual(SpoonWrapper(project.toString()).analyzeInvocations(), endpoints)
+    }
+
+    @Test
+    fun `should rebuild the incremental model when a file changes without a newer modification time`() {
+        val project = copyProject()
+        val controller = project.resolve("web/Controller.java")
+        cachedRun(project, incremental = true)
+
+        val modified = Files.getLastModifiedTime(controller)
+        edit(project, "products")
+        Files.setLastModifiedTime(controller, modified)
+        val endpoints = cachedRun(project, incremental = true)
+
+        assertEquals(setOf("/orders", "/products"), endpoints.map { it.path }.toSet())
+    }
+
+    @Test
+    fun `should keep separate entries for the fast path and diet parsing`() {
+        val project = copyProject()
+        cachedRun(project)
+        val entries = cacheEntries()
+
+        cachedRun(project, fastPath = FastPathMode.ON)
+        cachedRun(project, dietCallers = true)
+
+        assertEquals(3 * entries, cacheEntries())
+    }
+
+    @Test
+    fun `should keep every file calling a shared wrapper for delta runs on cached endpoints`() {
+        val project = copyFixture("cache/test2", tempDir.resolve("project"))
+        val cold = cachedRun(project)
+        val warm = cachedRun(project)
+
+        val users = warm.single { it.path == "/users" }
+        assertEquals(setOf("UserPage.java", "AdminPage.java"), setOfNotNull(users.sourceFile) + users.otherSourceFiles)
+        assertEquals(cold.toSet(), warm.toSet())
+
+        // UserPage.java was analyzed again and no longer calls the wrapper
+        val baseline = Coverage(warm.size, 0, 0.0, warm, emptyList())
+        val delta = ContractCoverageApp(analyzerOf(emptyList()), JsonReportWriter())
+            .runDelta(tempDir.resolve("delta.json").toString(), emptyList(), baseline, setOf("UserPage.java"))
+
+        assertEquals(listOf("AdminPage.java"), delta.coverage.missingEndpoints.filter { it.path == "/users" }.map { it.sourceFile })
+        assertEquals(emptyList<Any>(), delta.removed)
+    }
+
+    private fun cachedRun(
+        project: Path,
+        incremental: Boolean = false,
+        fastPath: FastPathMode = FastPathMode.OFF,
+        dietCallers: Boolean = false
+    ): List<Endpoint> {
+        return SpoonWrapper(
+            project.toString(),
+            cacheDir = tempDir.resolve("cache").toFile(),
+            modelReuse = ModelReuse(incremental = incremental),
+            fastPath = fastPath,
+            dietCallers = dietCallers
+        ).analyzeInvocations()
+    }
+
+    private fun analyzerOf(endpoints: List<Endpoint>) = object : StaticCodeAnalyzer {
+        override fun analyzeInvocations(): List<Endpoint> = endpoints
+    }
+
+    private fun cacheEntries(): Long = Files.list(tempDir.resolve("cache")).use { it.count() }
+
+    private fun copyProject(): Path = copyFixture("cache/test1", tempDir.resolve("project"))
+
+    private fun edit(project: Path, edit: String) {
+        copyFixture("cache/test1-edits/$edit", project)
+    }
+}
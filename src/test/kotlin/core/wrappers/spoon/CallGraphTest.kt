@@ -0,0 +1,42 @@
+package core.wrappers.spoon
+
+import core.fixture
+import org.example.core.wrappers.spoon.ModelIndex
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+import spoon.Launcher
+import spoon.reflect.CtModel
+
+class CallGraphTest {
+
+    @Test
+    fun `should find callers through the interface a method implements, identical calls included`() {
+        val index = ModelIndex.of(buildModel())
+
+        val impl = index.methodsNamed("fetch").single { it.declaringType.simpleName == "HttpApi" }
+        val callers = index.callGraph.callersOf(impl)
+
+        assertEquals(listOf("useApi", "useApiAgain"), callers.map { index.enclosingMethod(it)?.simpleName })
+    }
+
+    @Test
+    fun `should not take a same-named method of an unrelated type for a caller`() {
+        val index = ModelIndex.of(buildModel())
+
+        val unrelated = index.methodsNamed("fetch").single { it.declaringType.simpleName == "Cache" }
+        val callers = index.callGraph.callersOf(unrelated)
+
+        assertEquals(listOf("useCache"), callers.map { index.enclosingMethod(it)?.simpleName })
+    }
+
+    private fun buildModel(): CtModel {
+        val launcher = Launcher()
+        launcher.environment.apply {
+            setNoClasspath(true)
+            complianceLevel = 17
+        }
+        launcher.addInputResource(fixture("graph/test1").toString())
+        launcher.buildModel()
+        return launcher.model
+    }
+}
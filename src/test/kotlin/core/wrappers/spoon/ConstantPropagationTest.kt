@@ -0,0 +1,83 @@
+package core.wrappers.spoon
+
+import core.fixture
+import org.example.core.wrappers.spoon.ModelIndex
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Test
+import spoon.Launcher
+import spoon.reflect.CtModel
+import spoon.reflect.code.CtInvocation
+
+class ConstantPropagationTest {
+
+    @Test
+    fun `should resolve a URL through a deep stack of wrapper methods`() {
+        val index = ModelIndex.of(buildModel())
+
+        val url = urlArgumentOf(index, "send")
+
+        assertEquals("https://api.example.com/v1/users", index.constants.constantOf(url))
+    }
+
+    @Test
+    fun `should not pick one value when callers pass different constants`() {
+        val index = ModelIndex.of(buildModel())
+
+        val url = urlArgumentOf(index, "sendEither")
+
+        assertNull(index.constants.constantOf(url))
+    }
+
+    @Test
+    fun `should terminate on variables that grow in a loop`() {
+        val index = ModelIndex.of(buildModel())
+
+        val url = urlArgumentOf(index, "sendLooped")
+
+        assertNull(index.constants.constantOf(url))
+    }
+
+    @Test
+    fun `should follow fields assigned in constructors and static initializers`() {
+        val index = ModelIndex.of(buildModel())
+
+        val url = urlArgumentOf(index, "sendConfigured")
+
+        assertEquals("https://static.example.com/configured", index.constants.constantOf(url))
+    }
+
+    @Test
+    fun `should not keep the initializer of a field reassigned in a method`() {
+        val index = ModelIndex.of(buildModel())
+
+        val url = urlArgumentOf(index, "sendMutable")
+
+        assertNull(index.constants.constantOf(url))
+    }
+
+    @Test
+    fun `should resolve a parameter whose callers settle one after another`() {
+        val index = ModelIndex.of(buildModel())
+
+        val url = urlArgumentOf(index, "sendLayered")
+
+        assertEquals("https://api.example.com/layered", index.constants.constantOf(url))
+    }
+
+    private fun urlArgumentOf(index: ModelIndex, method: String) =
+        index.invocationsIn(index.methodsNamed(method).single())
+            .single { it.executable.simpleName == "exchange" }
+            .arguments.first()
+
+    private fun buildModel(): CtModel {
+        val launcher = Launcher()
+        launcher.environment.apply {
+            setNoClasspath(true)
+            complianceLevel = 17
+        }
+        launcher.addInputResource(fixture("propagation/test1").toString())
+        launcher.buildModel()
+        return launcher.model
+    }
+}
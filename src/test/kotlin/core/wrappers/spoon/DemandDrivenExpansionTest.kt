@@ -0,0 +1,40 @@
+package core.wrappers.spoon
+
+import core.fixture
+import org.example.core.entities.HttpMethod
+import org.example.core.wrappers.spoon.SpoonWrapper
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+
+class DemandDrivenExpansionTest {
+
+    @Test
+    fun `should follow a URL through two service layers that a fixed caller depth misses`() {
+        val project = fixture("expansion/test1").toString()
+
+        val fixed = SpoonWrapper(project).analyzeInvocations()
+        val demandDriven = SpoonWrapper(project, fileBudget = 100).analyzeInvocations()
+
+        assertFalse(fixed.any { it.path == "/users" })
+        assertTrue(demandDriven.any { it.path == "/users" && it.method == HttpMethod.GET })
+    }
+
+    @Test
+    fun `should stop expanding at the file budget`() {
+        val project = fixture("expansion/test1").toString()
+
+        val endpoints = SpoonWrapper(project, fileBudget = 2).analyzeInvocations()
+
+        assertFalse(endpoints.any { it.path == "/users" })
+    }
+
+    @Test
+    fun `should resolve constants declared in files left out of the model`() {
+        val project = fixture("expansion/test2").toString()
+
+        val endpoints = SpoonWrapper(project, callerDepth = 0).analyzeInvocations()
+
+        assertTrue(endpoints.any { it.path == "/orders" && it.method == HttpMethod.GET })
+    }
+}
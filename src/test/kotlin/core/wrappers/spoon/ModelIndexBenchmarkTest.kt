@@ -0,0 +1,81 @@
+package core.wrappers.spoon
+
+import org.example.core.wrappers.spoon.SpoonWrapper
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Tag
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.nio.file.Files
+import java.nio.file.Path
+
+/**
+ * Measures endpoint extraction on generated projects of growing size.
+ *
+ * Run with `./gradlew benchmark`.
+ */
+@Tag("benchmark")
+class ModelIndexBenchmarkTest {
+
+    @TempDir
+    lateinit var tempDir: Path
+
+    @Test
+    fun `endpoint extraction should scale linearly with the number of invocations`() {
+        // Warm up the JIT so the first measured size is not penalized
+        SpoonWrapper(writeProject(tempDir.resolve("warmup"), 25).toString()).analyzeInvocations()
+
+        val timings = listOf(50, 100, 200, 400).map { size ->
+            val spoonWrapper = SpoonWrapper(writeProject(tempDir.resolve("size-$size"), size).toString())
+
+            val start = System.nanoTime()
+            val endpoints = spoonWrapper.analyzeInvocations()
+            val elapsed = System.nanoTime() - start
+
+            assertEquals(size, endpoints.size)
+            size to elapsed
+        }
+
+        println("RestTemplate calls | extraction (ms) | per call (µs)")
+        timings.forEach { (size, elapsed) ->
+            println("%18d | %15.1f | %13.1f".format(size, elapsed / 1_000_000.0, elapsed / 1_000.0 / size))
+        }
+
+        // A per-call scan of the whole model grows the per-call cost with the input size (8x here)
+        val (smallSize, smallTime) = timings.first()
+        val (largeSize, largeTime) = timings.last()
+        val perCallGrowth = (largeTime.toDouble() / largeSize) / (smallTime.toDouble() / smallSize)
+        assertTrue(perCallGrowth < 4.0, "Per-call extraction cost grew ${"%.1f".format(perCallGrowth)}x")
+    }
+
+    private fun writeProject(dir: Path, clients: Int): Path {
+        Files.createDirectories(dir)
+
+        repeat(clients) { i ->
+            Files.writeString(
+                dir.resolve("Client$i.java"),
+                """
+                package bench;
+
+                import org.springframework.web.client.RestTemplate;
+
+                public class Client$i {
+                    private RestTemplate restTemplate;
+
+                    public String call() {
+                        return restTemplate.getForObject("/resource-$i", String.class);
+                    }
+                }
+                """.trimIndent()
+            )
+        }
+
+        val calls = (0 until clients).joinToString("\n") { i -> "        new Client$i().call();" }
+        Files.writeString(
+            dir.resolve("Main.java"),
+            "package bench;\n\npublic class Main {\n    public static void main(String[] args) {\n$calls\n    }\n}\n"
+        )
+
+        return dir
+    }
+}
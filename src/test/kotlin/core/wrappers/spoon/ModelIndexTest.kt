@@ -0,0 +1,71 @@
+package core.wrappers.spoon
+
+import org.example.core.wrappers.spoon.ModelIndex
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNotNull
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Assertions.assertSame
+import org.junit.jupiter.api.Test
+import spoon.Launcher
+import spoon.reflect.CtModel
+
+class ModelIndexTest {
+
+    private val model = buildModel("src/test/resources/code/exchange/test16")
+
+    @Test
+    fun `should build the index once per model`() {
+        assertSame(ModelIndex.of(model), ModelIndex.of(model))
+    }
+
+    @Test
+    fun `should index invocations by name and find the callers of a method`() {
+        val index = ModelIndex.of(model)
+
+        assertEquals(4, index.invocationsNamed("exchange").size)
+
+        val get = index.methodsNamed("get").single()
+        val callSites = index.callGraph.callersOf(get)
+        assertEquals(1, callSites.size)
+        assertEquals("getGroups", index.enclosingMethod(callSites.single())?.simpleName)
+    }
+
+    @Test
+    fun `should index fields by owner type`() {
+        val index = ModelIndex.of(model)
+
+        assertNotNull(index.findField("instrument.test16.MarketingService", "GROUPS_ENDPOINT"))
+        assertNotNull(index.findField("instrument.test16.LowLevelClient", "BASE_URL"))
+        assertNull(index.findField("instrument.test16.LowLevelClient", "GROUPS_ENDPOINT"))
+    }
+
+    @Test
+    fun `should index local variables and returns by method`() {
+        val index = ModelIndex.of(model)
+
+        val get = index.methodsNamed("get").single()
+        assertEquals(listOf("restTemplate", "entity", "response"), index.localVariablesOf(get).map { it.simpleName })
+
+        val createRestTemplate = index.methodsNamed("createRestTemplate").single()
+        assertEquals(1, index.returnsOf(createRestTemplate).size)
+        assertEquals(1, index.invocationsIn(createRestTemplate).count { it.executable.simpleName == "rootUri" })
+    }
+
+    @Test
+    fun `should find classes with RestTemplate fields or factory methods`() {
+        val index = ModelIndex.of(model)
+
+        assertEquals(listOf("LowLevelClient"), index.restTemplateClasses.map { it.simpleName })
+    }
+
+    private fun buildModel(path: String): CtModel {
+        val launcher = Launcher()
+        launcher.environment.apply {
+            setNoClasspath(true)
+            complianceLevel = 17
+        }
+        launcher.addInputResource(path)
+        launcher.buildModel()
+        return launcher.model
+    }
+}
@@ -0,0 +1,43 @@
+package core.wrappers.spoon
+
+import core.copyFixture
+import org.example.core.wrappers.spoon.ModelReuse
+import org.example.core.wrappers.spoon.SpoonWrapper
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.io.File
+import java.nio.file.Files
+import java.nio.file.Path
+
+class ModelSnapshotTest {
+
+    @TempDir
+    lateinit var tempDir: Path
+
+    @Test
+    fun `should report the same endpoints from a loaded model as from a built one`() {
+        val project = File("src/test/resources/code/exchange/test4").absolutePath
+
+        val built = SpoonWrapper(project).analyzeInvocations()
+        val first = SpoonWrapper(project, modelReuse = ModelReuse(snapshotDir = tempDir.toFile())).analyzeInvocations()
+        val loaded = SpoonWrapper(project, modelReuse = ModelReuse(snapshotDir = tempDir.toFile())).analyzeInvocations()
+
+        assertTrue(Files.list(tempDir).use { stream -> stream.anyMatch { it.toString().endsWith(".model") } })
+        assertEndpointsEqual(built, first)
+        assertEndpointsEqual(built, loaded)
+    }
+
+    @Test
+    fun `should rebuild the model when a source file changed`() {
+        val project = copyFixture("snapshot/test1", tempDir.resolve("project"))
+        val snapshots = tempDir.resolve("snapshots").toFile()
+        SpoonWrapper(project.toString(), modelReuse = ModelReuse(snapshotDir = snapshots)).analyzeInvocations()
+
+        copyFixture("snapshot/test1-edits/orders", project)
+        val endpoints = SpoonWrapper(project.toString(), modelReuse = ModelReuse(snapshotDir = snapshots)).analyzeInvocations()
+
+        assertEquals(listOf("/orders"), endpoints.map { it.path })
+    }
+}
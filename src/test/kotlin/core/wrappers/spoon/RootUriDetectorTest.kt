@@ -0,0 +1,60 @@
+package core.wrappers.spoon
+
+import org.example.core.wrappers.spoon.ModelIndex
+import org.example.core.wrappers.spoon.RootUriDetector
+import org.example.core.wrappers.spoon.RootUriDetector.RootUriResult
+import org.example.core.wrappers.spoon.SpoonExpressionResolver
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+import spoon.Launcher
+import spoon.reflect.CtModel
+import spoon.reflect.declaration.CtClass
+
+class RootUriDetectorTest {
+
+    private val detector = RootUriDetector(SpoonExpressionResolver())
+
+    @Test
+    fun `should give every call of a client class the rootUri of its factory`() {
+        val model = buildModel("src/test/resources/code/rooturi/test1")
+
+        val calls = ModelIndex.of(model).invocationsNamed("getForObject")
+
+        assertEquals(4, calls.size)
+        calls.forEach { call ->
+            assertEquals(RootUriResult.Resolved("/v1"), detector.resolveRootUri(call.getParent(CtClass::class.java), model))
+        }
+    }
+
+    @Test
+    fun `should tell a dynamic rootUri from a missing one`() {
+        val model = buildModel("src/test/resources/code/rooturi/test2")
+
+        assertEquals(RootUriResult.Dynamic, detector.resolveRootUri(classNamed(model, "ConfigurableClient"), model))
+        assertEquals(RootUriResult.NotFound, detector.resolveRootUri(classNamed(model, "PlainClient"), model))
+    }
+
+    @Test
+    fun `should precompute the results again for another model`() {
+        val factoryModel = buildModel("src/test/resources/code/rooturi/test1")
+        val plainModel = buildModel("src/test/resources/code/rooturi/test2")
+
+        assertEquals(RootUriResult.Resolved("/v1"), detector.resolveRootUri(classNamed(factoryModel, "UserClient"), factoryModel))
+        assertEquals(RootUriResult.NotFound, detector.resolveRootUri(classNamed(plainModel, "PlainClient"), plainModel))
+        assertEquals(RootUriResult.Resolved("/v1"), detector.resolveRootUri(classNamed(factoryModel, "OrderClient"), factoryModel))
+    }
+
+    private fun classNamed(model: CtModel, simpleName: String): CtClass<*> =
+        ModelIndex.of(model).classes.single { it.simpleName == simpleName }
+
+    private fun buildModel(path: String): CtModel {
+        val launcher = Launcher()
+        launcher.environment.apply {
+            setNoClasspath(true)
+            complianceLevel = 17
+        }
+        launcher.addInputResource(path)
+        launcher.buildModel()
+        return launcher.model
+    }
+}
@@ -0,0 +1,61 @@
+package core.wrappers.spoon
+
+import org.example.core.wrappers.spoon.ModelIndex
+import org.example.core.wrappers.spoon.SpoonExpressionResolver
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNotEquals
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import spoon.Launcher
+import spoon.reflect.CtModel
+import spoon.reflect.code.CtExpression
+import spoon.reflect.declaration.CtMethod
+
+class SpoonExpressionResolverTest {
+
+    private val model = buildModel("src/test/resources/code/resolver/test1")
+    private val index = ModelIndex.of(model)
+    private val send = index.methodsNamed("send").single()
+    private val url = index.invocationsIn(send).single { it.executable.simpleName == "exchange" }.arguments.first()
+
+    @Test
+    fun `should give the same results from the memo as without memoized entries`() {
+        val expressions = index.invocations.flatMap { it.arguments }
+        val shared = SpoonExpressionResolver()
+
+        val firstPass = expressions.map { resolve(shared, it) }
+        val secondPass = expressions.map { resolve(shared, it) }
+        val unmemoized = expressions.map { resolve(SpoonExpressionResolver(), it) }
+
+        assertEquals(unmemoized, firstPass)
+        assertEquals(unmemoized, secondPass)
+        assertTrue(shared.cacheStats().hits > 0)
+        assertEquals("/a", resolve(SpoonExpressionResolver(), url).text)
+    }
+
+    @Test
+    fun `should not reuse memoized results across the depth limit`() {
+        // The URL is four parameters away from its literal, past the limit when starting at depth 4
+        val cutShort = SpoonExpressionResolver().resolveExpression(url, send, model, depth = 4)
+        assertNotEquals("/a", cutShort.text)
+
+        val resolver = SpoonExpressionResolver()
+        assertEquals(cutShort, resolver.resolveExpression(url, send, model, depth = 4))
+        assertEquals("/a", resolver.resolveExpression(url, send, model).text)
+        assertEquals(cutShort, resolver.resolveExpression(url, send, model, depth = 4))
+    }
+
+    private fun resolve(resolver: SpoonExpressionResolver, expr: CtExpression<*>) =
+        resolver.resolveExpression(expr, expr.getParent(CtMethod::class.java), model)
+
+    private fun buildModel(path: String): CtModel {
+        val launcher = Launcher()
+        launcher.environment.apply {
+            setNoClasspath(true)
+            complianceLevel = 17
+        }
+        launcher.addInputResource(path)
+        launcher.buildModel()
+        return launcher.model
+    }
+}
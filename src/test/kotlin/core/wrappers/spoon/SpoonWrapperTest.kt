@@ -4,16 +4,18 @@ import org.example.core.entities.Endpoint
 import org.example.core.entities.HttpMethod
 import org.example.core.wrappers.spoon.SpoonWrapper
 import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNotNull
+import org.junit.jupiter.api.Assertions.assertNull
 import org.junit.jupiter.api.Test
 import java.nio.file.Paths
 
 /**
- * Compare endpoints ignoring sourceFile field.
+ * Compare endpoints ignoring sourceFile, otherSourceFiles and dynamicReason fields.
  * This allows tests to focus on path and method without worrying about file detection.
  */
 fun assertEndpointsEqual(expected: List<Endpoint>, actual: List<Endpoint>) {
-    val expectedNormalized = expected.map { it.copy(sourceFile = null) }.sortedBy { "${it.method}:${it.path}" }
-    val actualNormalized = actual.map { it.copy(sourceFile = null) }.sortedBy { "${it.method}:${it.path}" }
+    val expectedNormalized = expected.map { it.copy(sourceFile = null, dynamicReason = null, otherSourceFiles = emptySet()) }.sortedBy { "${it.method}:${it.path}" }
+    val actualNormalized = actual.map { it.copy(sourceFile = null, dynamicReason = null, otherSourceFiles = emptySet()) }.sortedBy { "${it.method}:${it.path}" }
     assertEquals(expectedNormalized, actualNormalized)
 }
 
@@ -1062,4 +1064,135 @@ class SpoonWrapperTest {
 
         assertEndpointsEqual(expectedEndpoints, endpoints)
     }
-}
\ No newline at end of file
+
+    @Test
+    fun `19) Dynamic URLs - should report why the path could not be resolved`() {
+        val projectDir = Paths.get("$exchangePath/test4").toAbsolutePath().toString()
+
+        val spoonWrapper = SpoonWrapper(projectDir)
+
+        val endpoints: List<Endpoint> = spoonWrapper.analyzeInvocations()
+
+        val dynamicEndpoints = endpoints.filter { it.isDynamic }
+        assertEquals(2, dynamicEndpoints.size)
+        dynamicEndpoints.forEach { assertNotNull(it.dynamicReason) }
+        assertNull(endpoints.single { !it.isDynamic }.dynamicReason)
+    }
+
+    @Test
+    fun `20) Parallel extraction - should report the same endpoints in the same order as a sequential run`() {
+        listOf("test4", "test10", "test18").forEach { test ->
+            val projectDir = Paths.get("$exchangePath/$test").toAbsolutePath().toString()
+
+            val sequential = SpoonWrapper(projectDir).analyzeInvocations()
+            val parallel = SpoonWrapper(projectDir, threads = 4).analyzeInvocations()
+
+            assertEquals(sequential, parallel, "Endpoints of $test")
+        }
+    }
+
+    @Test
+    fun `21) Diet parsing - should report the same endpoints with the unused bodies of caller files dropped`() {
+        listOf("test4", "test10", "test16", "test18").forEach { test ->
+            val projectDir = Paths.get("$exchangePath/$test").toAbsolutePath().toString()
+
+            val full = SpoonWrapper(projectDir, callerDepth = 2).analyzeInvocations()
+            val diet = SpoonWrapper(projectDir, callerDepth = 2, dietCallers = true).analyzeInvocations()
+
+            assertEquals(full, diet, "Endpoints of $test")
+        }
+    }
+
+    @Test
+    fun `22) Interface dispatch - should resolve identical calls through an interface from every caller`() {
+        val projectDir = Paths.get("$exchangePath/test19").toAbsolutePath().toString()
+
+        val spoonWrapper = SpoonWrapper(projectDir)
+
+        val endpoints: List<Endpoint> = spoonWrapper.analyzeInvocations()
+
+        val expectedEndpoints = listOf(
+            Endpoint("/users", HttpMethod.GET),
+            Endpoint("/orders", HttpMethod.GET)
+        )
+
+        assertEndpointsEqual(expectedEndpoints, endpoints)
+    }
+
+    @Test
+    fun `23) Parallel extraction - should report the same endpoints on every parallel run over several clients`() {
+        val projectDir = Paths.get("$exchangePath/test20").toAbsolutePath().toString()
+
+        val sequential = SpoonWrapper(projectDir).analyzeInvocations()
+
+        val expectedEndpoints = listOf(
+            Endpoint("/users", HttpMethod.GET),
+            Endpoint("/users", HttpMethod.POST),
+            Endpoint("/orders", HttpMethod.GET),
+            Endpoint("/orders", HttpMethod.DELETE),
+            Endpoint("/invoices", HttpMethod.PUT),
+            Endpoint("/health", HttpMethod.GET)
+        )
+        assertEndpointsEqual(expectedEndpoints, sequential)
+
+        // Each run builds a new model, so Spoon's lazy lookups start cold every time
+        repeat(5) { run ->
+            val parallel = SpoonWrapper(projectDir, threads = 8).analyzeInvocations()
+            assertEquals(sequential, parallel, "Endpoints of parallel run $run")
+        }
+    }
+
+    @Test
+    fun `24) Field constants - should resolve each constant read to the field of the class it names`() {
+        val projectDir = Paths.get("$exchangePath/test21").toAbsolutePath().toString()
+
+        val spoonWrapper = SpoonWrapper(projectDir)
+
+        val endpoints: List<Endpoint> = spoonWrapper.analyzeInvocations()
+
+        // BASE_URL and ENDPOINT are declared by both clients; ORDERS by OrderClient and ApiPaths
+        val expectedEndpoints = listOf(
+            Endpoint("/users", HttpMethod.GET),
+            Endpoint("/orders", HttpMethod.GET),
+            Endpoint("/legacy-orders/1", HttpMethod.DELETE)
+        )
+
+        assertEndpointsEqual(expectedEndpoints, endpoints)
+    }
+
+    @Test
+    fun `25) Wrapper summaries - should resolve each wrapper call with the URL parameter and HTTP method of its callee`() {
+        val projectDir = Paths.get("$exchangePath/test22").toAbsolutePath().toString()
+
+        val spoonWrapper = SpoonWrapper(projectDir)
+
+        val endpoints: List<Endpoint> = spoonWrapper.analyzeInvocations()
+
+        // UserApi and OrderApi declare get() and send() with other HTTP methods and URL positions
+        val expectedEndpoints = listOf(
+            Endpoint("/users", HttpMethod.GET),
+            Endpoint("/users", HttpMethod.POST),
+            Endpoint("/users/1", HttpMethod.PUT),
+            Endpoint("/users/1", HttpMethod.DELETE),
+            Endpoint("/orders", HttpMethod.GET),
+            Endpoint("/orders", HttpMethod.PUT)
+        )
+
+        assertEndpointsEqual(expectedEndpoints, endpoints)
+    }
+
+    @Test
+    fun `26) Shared endpoints - should report an endpoint once under every file calling it`() {
+        val projectDir = Paths.get("$exchangePath/test23").toAbsolutePath().toString()
+
+        val spoonWrapper = SpoonWrapper(projectDir)
+
+        val endpoints: List<Endpoint> = spoonWrapper.analyzeInvocations()
+
+        val users = endpoints.single { it.path == "/users" && it.method == HttpMethod.GET }
+        assertEquals(setOf("UserClient23.java", "AdminClient23.java"), setOfNotNull(users.sourceFile) + users.otherSourceFiles)
+        val removal = endpoints.single { it.method == HttpMethod.DELETE }
+        assertEquals("AdminClient23.java", removal.sourceFile)
+        assertEquals(emptySet<String>(), removal.otherSourceFiles)
+    }
+}
@@ -0,0 +1,174 @@
+package org.example.infraestructure.daemon
+
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertThrows
+import org.junit.jupiter.api.Assertions.assertTimeoutPreemptively
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Assumptions.assumeTrue
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.io.ByteArrayOutputStream
+import java.io.File
+import java.io.PrintStream
+import java.net.UnixDomainSocketAddress
+import java.nio.channels.SocketChannel
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.attribute.PosixFilePermissions
+import java.time.Duration
+
+class DaemonServerTest {
+
+    @TempDir
+    lateinit var tempDir: Path
+
+    @Test
+    fun `should run command lines sent by clients and reuse the model of the previous run`() {
+        val socket = tempDir.resolve("daemon.sock")
+        val daemon = startDaemon(socket, DaemonServer(socket, Duration.ZERO, Long.MAX_VALUE))
+        val client = DaemonClient(socket)
+
+        val report = tempDir.resolve("report.json")
+        // Relative paths are resolved against the client's working directory
+        val args = arrayOf("-s", "src/test/resources/code/get/test1", "-p", "src/test/resources/pacts", "-o", report.toString(), "--verbose")
+        val (firstExit, _) = runCapturingErrors(client, args)
+        val (secondExit, secondErrors) = runCapturingErrors(client, args)
+
+        assertEquals(0, firstExit)
+        assertEquals(0, secondExit)
+        assertTrue(Files.exists(report))
+        assertTrue("reused from memory" in secondErrors, secondErrors)
+
+        assertTrue(client.stop())
+        daemon.join(Duration.ofSeconds(30).toMillis())
+        assertFalse(daemon.isAlive)
+        assertFalse(client.isRunning())
+    }
+
+    @Test
+    fun `should run with the environment of the client`() {
+        val socket = tempDir.resolve("daemon.sock")
+        val daemon = startDaemon(socket, DaemonServer(socket, Duration.ZERO, Long.MAX_VALUE))
+        val client = DaemonClient(socket)
+
+        val args = arrayOf("-s", "src/test/resources/code/get/test1", "-p", "src/test/resources/pacts", "-o", tempDir.resolve("report.json").toString(), "--threshold", "0")
+        val colored = runCapturingOutput(client, args, mapOf("TERM" to "xterm"))
+        val plain = runCapturingOutput(client, args, emptyMap())
+
+        assertTrue("\u001B[32m✓ Threshold met" in colored, colored)
+        assertTrue("✓ Threshold met" in plain, plain)
+        assertFalse("\u001B[" in plain, plain)
+
+        assertTrue(client.stop())
+        daemon.join(Duration.ofSeconds(30).toMillis())
+    }
+
+    @Test
+    fun `should take command lines from the launcher's client without a JVM`() {
+        assumeTrue(isOnPath("python3"))
+        val socket = tempDir.resolve("daemon.sock")
+        val daemon = startDaemon(socket, DaemonServer(socket, Duration.ZERO, Long.MAX_VALUE))
+
+        val (exitCode, output) = runLauncherClient(socket, "--version")
+        val (missingExitCode, _) = runLauncherClient(tempDir.resolve("none.sock"), "--version")
+
+        assertEquals(0, exitCode)
+        assertEquals("1.0-SNAPSHOT", output.trim())
+        // No daemon took it: the launcher starts the JVM
+        assertEquals(125, missingExitCode)
+
+        assertTrue(DaemonClient(socket).stop())
+        daemon.join(Duration.ofSeconds(30).toMillis())
+    }
+
+    @Test
+    fun `should leave the run to the caller when no daemon is listening`() {
+        val client = DaemonClient(tempDir.resolve("none.sock"))
+
+        assertEquals(null, client.run(arrayOf("--help"), File("").absoluteFile))
+        assertFalse(client.stop())
+    }
+
+    @Test
+    fun `should drop a client that connects without sending a request`() {
+        val socket = tempDir.resolve("daemon.sock")
+        val daemon = startDaemon(socket, DaemonServer(socket, Duration.ZERO, Long.MAX_VALUE, requestTimeout = Duration.ofMillis(200)))
+        val client = DaemonClient(socket)
+
+        SocketChannel.open(UnixDomainSocketAddress.of(socket)).use {
+            assertTimeoutPreemptively(Duration.ofSeconds(10)) {
+                assertTrue(client.stop())
+                daemon.join()
+            }
+        }
+    }
+
+    @Test
+    fun `should create the socket directory for the user alone and refuse one open to others`() {
+        assumeTrue("posix" in tempDir.fileSystem.supportedFileAttributeViews())
+        val created = tempDir.resolve("private/daemon.sock")
+        val daemon = startDaemon(created, DaemonServer(created, Duration.ZERO, Long.MAX_VALUE))
+
+        assertEquals("rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(created.parent)))
+        assertTrue(DaemonClient(created).stop())
+        daemon.join(Duration.ofSeconds(30).toMillis())
+
+        val shared = Files.createDirectory(tempDir.resolve("shared"))
+        Files.setPosixFilePermissions(shared, PosixFilePermissions.fromString("rwxrwxrwx"))
+        assertThrows(IllegalStateException::class.java) {
+            DaemonServer(shared.resolve("daemon.sock"), Duration.ZERO, Long.MAX_VALUE).serve()
+        }
+        assertFalse(Files.exists(shared.resolve("daemon.sock")))
+    }
+
+    private fun startDaemon(socket: Path, server: DaemonServer): Thread {
+        val daemon = Thread { server.serve() }
+        daemon.start()
+        val client = DaemonClient(socket)
+        val deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos()
+        while (!client.isRunning() && System.nanoTime() < deadline) {
+            Thread.sleep(50)
+        }
+        return daemon
+    }
+
+    private fun runLauncherClient(socket: Path, vararg args: String): Pair<Int, String> {
+        val process = ProcessBuilder(listOf("python3", "src/main/launcher/daemon-client.py") + args)
+            .redirectErrorStream(true)
+            .apply {
+                environment()["CONTRACT_COVERAGE_SOCKET"] = socket.toString()
+                environment().remove("CONTRACT_COVERAGE_DAEMON")
+            }
+            .start()
+        val output = process.inputStream.bufferedReader().use { it.readText() }
+        return process.waitFor() to output
+    }
+
+    private fun isOnPath(command: String): Boolean {
+        return System.getenv("PATH").orEmpty().split(File.pathSeparator).any { File(it, command).canExecute() }
+    }
+
+    private fun runCapturingOutput(client: DaemonClient, args: Array<String>, environment: Map<String, String>): String {
+        val processOut = System.out
+        val output = ByteArrayOutputStream()
+        System.setOut(PrintStream(output, true, Charsets.UTF_8))
+        try {
+            assertEquals(0, client.run(args, File("").absoluteFile, environment))
+            return output.toString(Charsets.UTF_8)
+        } finally {
+            System.setOut(processOut)
+        }
+    }
+
+    private fun runCapturingErrors(client: DaemonClient, args: Array<String>): Pair<Int?, String> {
+        val processErr = System.err
+        val errors = ByteArrayOutputStream()
+        System.setErr(PrintStream(errors, true, Charsets.UTF_8))
+        try {
+            return client.run(args, File("").absoluteFile) to errors.toString(Charsets.UTF_8)
+        } finally {
+            System.setErr(processErr)
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package web;
+
+import client.GenericClient;
+
+public class Admin {
+    private final GenericClient generic = new GenericClient();
+
+    public String audit() {
+        return generic.get("/audit");
+    }
+}
@@ -0,0 +1,5 @@
+package config;
+
+public final class ApiPaths {
+    public static final String ORDERS = "http://orders/v2/orders";
+}
@@ -0,0 +1,11 @@
+package web;
+
+import client.GenericClient;
+
+public class Controller {
+    private final GenericClient generic = new GenericClient();
+
+    public String handle() {
+        return generic.get("/products");
+    }
+}
@@ -0,0 +1,12 @@
+package client;
+
+import config.ApiPaths;
+import org.springframework.web.client.RestTemplate;
+
+public class OrderClient {
+    private final RestTemplate restTemplate = new RestTemplate();
+
+    private String orders() {
+        return restTemplate.getForObject(ApiPaths.ORDERS, String.class);
+    }
+}
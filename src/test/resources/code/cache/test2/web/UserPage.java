@@ -0,0 +1,11 @@
+package web;
+
+import client.GenericClient;
+
+public class UserPage {
+    private final GenericClient generic = new GenericClient();
+
+    public String users() {
+        return generic.get("/users");
+    }
+}
@@ -0,0 +1,4 @@
+package client;
+
+public class ApiClient {
+}
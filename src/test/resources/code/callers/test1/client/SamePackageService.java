@@ -0,0 +1,5 @@
+package client;
+
+public class SamePackageService {
+    ApiClient client;
+}
@@ -0,0 +1,7 @@
+package other;
+
+import client.*;
+
+public class WildcardService {
+    ApiClient client;
+}
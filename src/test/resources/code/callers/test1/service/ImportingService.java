@@ -0,0 +1,7 @@
+package service;
+
+import client.ApiClient;
+
+public class ImportingService {
+    ApiClient client;
+}
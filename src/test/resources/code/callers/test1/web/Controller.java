@@ -0,0 +1,7 @@
+package web;
+
+import service.ImportingService;
+
+public class Controller {
+    ImportingService service;
+}
@@ -0,0 +1,7 @@
+package web;
+
+import java.util.List;
+
+public class Unrelated {
+    List<String> apiClient;
+}
@@ -0,0 +1,6 @@
+package config;
+
+class Cycle {
+    static final String A = B + "/a";
+    static final String B = A + "/b";
+}
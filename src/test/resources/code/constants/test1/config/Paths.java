@@ -0,0 +1,19 @@
+package config;
+
+import static config.Hosts.API;
+
+public final class Paths {
+    @Deprecated
+    public static final String V1 = API + "/v1", USERS = (V1 + "/users");
+    public static final String ORDERS = Nested.PREFIX + "/orders";
+    private final String instance = "/not-a-constant";
+    static final String NOW = String.valueOf(System.currentTimeMillis());
+
+    static class Nested {
+        static final String PREFIX = Paths.V1;
+    }
+
+    void method() {
+        final String local = "/local";
+    }
+}
@@ -0,0 +1,5 @@
+package config;
+
+public interface Hosts {
+    String API = "http://api.example.org";
+}
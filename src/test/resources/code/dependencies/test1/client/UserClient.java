@@ -0,0 +1,12 @@
+package client;
+
+import config.Paths;
+import org.springframework.web.client.RestTemplate;
+
+public class UserClient {
+    private final RestTemplate restTemplate = new RestTemplate();
+
+    public String user(String id) {
+        return restTemplate.getForObject(Paths.USERS + "/" + id, String.class);
+    }
+}
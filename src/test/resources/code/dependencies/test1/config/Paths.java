@@ -0,0 +1,7 @@
+package config;
+
+import static config.Hosts.API;
+
+public final class Paths {
+    public static final String USERS = API + "/users";
+}
@@ -0,0 +1,11 @@
+package web;
+
+import client.UserClient;
+
+public class Controller {
+    private final UserClient users = new UserClient();
+
+    public String handle(Request request) {
+        return users.user(request.id());
+    }
+}
@@ -0,0 +1,5 @@
+package web;
+
+public class Request {
+    public String id() { return "1"; }
+}
@@ -0,0 +1,3 @@
+public class ApiClient {
+    public String get(String path) { return restTemplate.getForObject(path, String.class); }
+}
@@ -0,0 +1,9 @@
+public class UserController {
+    public String users() {
+        return service.load();
+    }
+
+    public String health() {
+        return "ok";
+    }
+}
@@ -0,0 +1,19 @@
+public class UserService {
+    private static final String USERS = "/users";
+    private String prefix = "";
+
+    public UserService(String prefix) {
+        this.prefix = prefix;
+    }
+
+    public String load() {
+        return client.get(prefix + USERS);
+    }
+
+    @Deprecated(since = "2")
+    public int count(java.util.List<String> items) {
+        int total = 0;
+        for (String item : items) { total++; }
+        return total;
+    }
+}
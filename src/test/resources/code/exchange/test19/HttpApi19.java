@@ -0,0 +1,10 @@
+package instrument.test19;
+
+import org.springframework.http.HttpMethod;
+
+/**
+ * This interface is used to represent a client that callers only know by its interface.
+ */
+public interface HttpApi19 {
+    void doRequest(String url, HttpMethod method);
+}
@@ -0,0 +1,13 @@
+package instrument.test19;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.RestTemplate;
+
+public class HttpClient19 implements HttpApi19 {
+    private final RestTemplate restTemplate = new RestTemplate();
+
+    @Override
+    public void doRequest(String url, HttpMethod method) {
+        restTemplate.exchange(url, method, null, String.class);
+    }
+}
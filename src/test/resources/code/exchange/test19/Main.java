@@ -0,0 +1,25 @@
+package instrument.test19;
+
+import org.springframework.http.HttpMethod;
+
+/**
+ * This class calls the client through its interface, with the same call expression in two methods. In our test,
+ * both calls need to be registred as Endpoint(path="/users", method="GET") and Endpoint(path="/orders", method="GET").
+ */
+public class Main {
+    private final HttpApi19 api = new HttpClient19();
+
+    public void users(String url) {
+        api.doRequest(url, HttpMethod.GET);
+    }
+
+    public void orders(String url) {
+        api.doRequest(url, HttpMethod.GET);
+    }
+
+    public static void main(String[] args) {
+        Main main = new Main();
+        main.users("http://localhost:8080/users");
+        main.orders("http://localhost:8080/orders");
+    }
+}
@@ -0,0 +1,13 @@
+package instrument.test20;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.RestTemplate;
+
+public class HealthCheck {
+
+    private final RestTemplate restTemplate = new RestTemplate();
+
+    public String check() {
+        return restTemplate.exchange("/health", HttpMethod.GET, null, String.class).getBody();
+    }
+}
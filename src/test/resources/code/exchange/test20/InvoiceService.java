@@ -0,0 +1,16 @@
+package instrument.test20;
+
+public class InvoiceService {
+
+    private static final String INVOICES_ENDPOINT = "/invoices";
+
+    private final ApiClient client;
+
+    public InvoiceService(ApiClient client) {
+        this.client = client;
+    }
+
+    public String updateInvoice(Object invoice) {
+        return client.put(invoice, INVOICES_ENDPOINT, String.class);
+    }
+}
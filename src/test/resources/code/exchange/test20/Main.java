@@ -0,0 +1,14 @@
+package instrument.test20;
+
+public class Main {
+    public static void main(String[] args) {
+        ApiClient client = new ApiClient();
+
+        new UserService(client).listUsers();
+        new UserService(client).createUser(new Object());
+        new OrderService(client).listOrders();
+        new OrderService(client).cancelOrders();
+        new InvoiceService(client).updateInvoice(new Object());
+        new HealthCheck().check();
+    }
+}
@@ -0,0 +1,20 @@
+package instrument.test20;
+
+public class OrderService {
+
+    private static final String ORDERS_ENDPOINT = "/orders";
+
+    private final ApiClient client;
+
+    public OrderService(ApiClient client) {
+        this.client = client;
+    }
+
+    public String listOrders() {
+        return client.get(ORDERS_ENDPOINT, String.class);
+    }
+
+    public void cancelOrders() {
+        client.delete(ORDERS_ENDPOINT);
+    }
+}
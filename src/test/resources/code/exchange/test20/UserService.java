@@ -0,0 +1,20 @@
+package instrument.test20;
+
+public class UserService {
+
+    private static final String USERS_ENDPOINT = "/users";
+
+    private final ApiClient client;
+
+    public UserService(ApiClient client) {
+        this.client = client;
+    }
+
+    public String listUsers() {
+        return client.get(USERS_ENDPOINT, String.class);
+    }
+
+    public String createUser(Object user) {
+        return client.post(user, USERS_ENDPOINT, String.class);
+    }
+}
@@ -0,0 +1,5 @@
+package instrument.test21;
+
+public final class ApiPaths {
+    public static final String ORDERS = "/orders";
+}
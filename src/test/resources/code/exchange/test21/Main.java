@@ -0,0 +1,9 @@
+package instrument.test21;
+
+public class Main {
+    public static void main(String[] args) {
+        new UserClient().listUsers();
+        new OrderClient().listOrders();
+        new OrderClient().cancelLegacyOrder();
+    }
+}
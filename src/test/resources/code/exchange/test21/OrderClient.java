@@ -0,0 +1,20 @@
+package instrument.test21;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.RestTemplate;
+
+public class OrderClient {
+    private static final String BASE_URL = "http://orders.example.com";
+    private static final String ENDPOINT = "/legacy-orders";
+    private static final String ORDERS = "/not-this-one";
+
+    private final RestTemplate restTemplate = new RestTemplate();
+
+    public void listOrders() {
+        restTemplate.exchange(BASE_URL + ApiPaths.ORDERS, HttpMethod.GET, null, String.class);
+    }
+
+    public void cancelLegacyOrder() {
+        restTemplate.exchange(BASE_URL + ENDPOINT + "/1", HttpMethod.DELETE, null, String.class);
+    }
+}
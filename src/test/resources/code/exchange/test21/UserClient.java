@@ -0,0 +1,19 @@
+package instrument.test21;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Declares constants with the same names as OrderClient: each read must resolve to the field of
+ * the class it names, not to the first field of that name in the model.
+ */
+public class UserClient {
+    private static final String BASE_URL = "http://users.example.com";
+    private static final String ENDPOINT = "/users";
+
+    private final RestTemplate restTemplate = new RestTemplate();
+
+    public void listUsers() {
+        restTemplate.exchange(BASE_URL + ENDPOINT, HttpMethod.GET, null, String.class);
+    }
+}
@@ -0,0 +1,14 @@
+package instrument.test22;
+
+public class Main {
+    public static void main(String[] args) {
+        UserApi users = new UserApi();
+        OrderApi orders = new OrderApi();
+
+        users.get("/users");
+        users.send(new Object(), "/users");
+        users.sync("/users/1");
+        orders.get("/orders");
+        orders.send("/orders", new Object());
+    }
+}
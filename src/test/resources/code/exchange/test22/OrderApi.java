@@ -0,0 +1,20 @@
+package instrument.test22;
+
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Wrappers named like those of UserApi, with other HTTP methods and parameter positions.
+ */
+public class OrderApi {
+    private final RestTemplate restTemplate = new RestTemplate();
+
+    public String get(String path) {
+        return restTemplate.exchange(path, HttpMethod.GET, null, String.class).getBody();
+    }
+
+    public void send(String path, Object body) {
+        restTemplate.exchange(path, HttpMethod.PUT, new HttpEntity<>(body), String.class);
+    }
+}
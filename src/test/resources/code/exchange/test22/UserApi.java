@@ -0,0 +1,26 @@
+package instrument.test22;
+
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Generic wrappers taking the URL at different parameter positions; sync() makes two calls
+ * with the same URL parameter.
+ */
+public class UserApi {
+    private final RestTemplate restTemplate = new RestTemplate();
+
+    public String get(String path) {
+        return restTemplate.exchange(path, HttpMethod.GET, null, String.class).getBody();
+    }
+
+    public void send(Object body, String path) {
+        restTemplate.exchange(path, HttpMethod.POST, new HttpEntity<>(body), String.class);
+    }
+
+    public void sync(String path) {
+        restTemplate.exchange(path, HttpMethod.PUT, null, String.class);
+        restTemplate.exchange(path, HttpMethod.DELETE, null, String.class);
+    }
+}
@@ -0,0 +1,16 @@
+package instrument.test23;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.RestTemplate;
+
+public class AdminClient23 {
+    private final RestTemplate restTemplate = new RestTemplate();
+
+    private void listUsers() {
+        restTemplate.exchange("http://localhost:8080/users", HttpMethod.GET, null, String.class);
+    }
+
+    private void removeUsers() {
+        restTemplate.exchange("http://localhost:8080/users", HttpMethod.DELETE, null, String.class);
+    }
+}
@@ -0,0 +1,16 @@
+package instrument.test23;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * This class calls the same endpoint as AdminClient23. In our test, the Endpoint(path="/users", method="GET") is
+ * reported once, under both files.
+ */
+public class UserClient23 {
+    private final RestTemplate restTemplate = new RestTemplate();
+
+    private void listUsers() {
+        restTemplate.exchange("http://localhost:8080/users", HttpMethod.GET, null, String.class);
+    }
+}
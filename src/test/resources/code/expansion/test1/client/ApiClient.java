@@ -0,0 +1,12 @@
+package client;
+
+import org.springframework.web.client.RestTemplate;
+
+public class ApiClient {
+    private static final String BASE_URL = "http://localhost:8080";
+    private final RestTemplate restTemplate = new RestTemplate();
+
+    public String get(String path) {
+        return restTemplate.getForObject(BASE_URL + path, String.class);
+    }
+}
@@ -0,0 +1,11 @@
+package service;
+
+import client.ApiClient;
+
+public class UserService {
+    private final ApiClient client = new ApiClient();
+
+    public String load(String path) {
+        return client.get(path);
+    }
+}
@@ -0,0 +1,7 @@
+package web;
+
+public class HealthController {
+    public String health() {
+        return "ok";
+    }
+}
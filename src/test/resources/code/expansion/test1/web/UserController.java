@@ -0,0 +1,11 @@
+package web;
+
+import service.UserService;
+
+public class UserController {
+    private final UserService service = new UserService();
+
+    public String users() {
+        return service.load("/users");
+    }
+}
@@ -0,0 +1,12 @@
+package client;
+
+import org.springframework.web.client.RestTemplate;
+import config.ApiPaths;
+
+public class OrderClient {
+    private final RestTemplate restTemplate = new RestTemplate();
+
+    public String orders() {
+        return restTemplate.getForObject(ApiPaths.ORDERS, String.class);
+    }
+}
@@ -0,0 +1,6 @@
+package config;
+
+public final class ApiPaths {
+    public static final String BASE = "http://localhost:8080";
+    public static final String ORDERS = BASE + "/orders";
+}
@@ -0,0 +1,5 @@
+package graph;
+
+public interface Api {
+    String fetch(String path);
+}
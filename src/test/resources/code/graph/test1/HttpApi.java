@@ -0,0 +1,7 @@
+package graph;
+
+public class HttpApi implements Api {
+    public String fetch(String path) {
+        return path;
+    }
+}
@@ -0,0 +1,15 @@
+package graph;
+
+public class Main {
+    public String useApi(Api api) {
+        return api.fetch("/users");
+    }
+
+    public String useApiAgain(Api api) {
+        return api.fetch("/users");
+    }
+
+    public String useCache(Cache cache) {
+        return cache.fetch("users");
+    }
+}
@@ -0,0 +1,5 @@
+package web;
+
+import client.UserClient;
+
+class Admin { UserClient users; }
@@ -0,0 +1,11 @@
+package web;
+
+import client.OrderClient;
+import client.UserClient;
+
+public class Controller {
+    public void handle() {
+        new OrderClient().get("/orders");
+        new UserClient().user();
+    }
+}
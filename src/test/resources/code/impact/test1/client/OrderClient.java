@@ -0,0 +1,11 @@
+package client;
+
+import org.springframework.web.client.RestTemplate;
+
+public class OrderClient {
+    private final RestTemplate restTemplate = new RestTemplate();
+
+    public String get(String path) {
+        return restTemplate.getForObject("http://orders" + path, String.class);
+    }
+}
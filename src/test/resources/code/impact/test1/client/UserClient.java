@@ -0,0 +1,11 @@
+package client;
+
+import org.springframework.web.client.RestTemplate;
+
+public class UserClient {
+    private final RestTemplate restTemplate = new RestTemplate();
+
+    private String user() {
+        return restTemplate.getForObject("http://users/users", String.class);
+    }
+}
@@ -0,0 +1,9 @@
+package web;
+
+import client.OrderClient;
+
+public class Controller {
+    public String handle() {
+        return new OrderClient().get("/orders");
+    }
+}
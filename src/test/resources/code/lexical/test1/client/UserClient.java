@@ -0,0 +1,30 @@
+package client;
+
+import config.ApiPaths;
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.RestTemplate;
+
+public class UserClient {
+    private static final String BASE = "http://users";
+    private final RestTemplate restTemplate = new RestTemplate();
+    private final Map<String, String> headers = new HashMap<>();
+
+    public String user(String id) {
+        headers.put("id", id);
+        return restTemplate.getForObject(BASE + "/users/{id}", String.class, id);
+    }
+
+    public void orders() {
+        restTemplate.exchange(ApiPaths.ORDERS, HttpMethod.GET, null, String.class);
+    }
+
+    private void remove() {
+        restTemplate.delete(BASE + "/users/1");
+    }
+
+    public void unused() {
+        restTemplate.put("/unused", null);
+    }
+}
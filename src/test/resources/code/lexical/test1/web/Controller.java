@@ -0,0 +1,15 @@
+package web;
+
+import client.GenericClient;
+import client.UserClient;
+
+public class Controller {
+    private final UserClient users = new UserClient();
+    private final GenericClient generic = new GenericClient();
+
+    public void handle() {
+        users.user("1");
+        users.orders();
+        generic.get("/items");
+    }
+}
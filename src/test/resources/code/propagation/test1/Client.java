@@ -0,0 +1,97 @@
+package flow;
+
+public class Client {
+    private static final String HOST = "https://api.example.com";
+    private static final String BASE_URL = HOST + "/v1";
+    private static final String STATIC_HOST;
+    private final String configured;
+    private String mutable = "/first";
+
+    static {
+        STATIC_HOST = "https://static.example.com";
+    }
+
+    public Client() {
+        configured = "/configured";
+    }
+
+    public void users() {
+        level1("/users");
+    }
+
+    String level1(String path) {
+        return level2(path);
+    }
+
+    String level2(String path) {
+        return level3(path);
+    }
+
+    String level3(String path) {
+        return level4(path);
+    }
+
+    String level4(String path) {
+        return level5(path);
+    }
+
+    String level5(String path) {
+        return level6(path);
+    }
+
+    String level6(String path) {
+        return level7(path);
+    }
+
+    String level7(String path) {
+        return level8(path);
+    }
+
+    String level8(String path) {
+        return level9(path);
+    }
+
+    String level9(String path) {
+        send(BASE_URL + path);
+        return path;
+    }
+
+    void send(String url) {
+        exchange(url);
+    }
+
+    void first() {
+        sendEither("/a");
+    }
+
+    void second() {
+        sendEither("/b");
+    }
+
+    void sendEither(String url) {
+        exchange(url);
+    }
+
+    void sendLooped(int count) {
+        String url = "/items";
+        for (int i = 0; i < count; i++) {
+            url = url + "/" + i;
+        }
+        exchange(url);
+    }
+
+    void sendConfigured() {
+        exchange(STATIC_HOST + configured);
+    }
+
+    void setMutable(String value) {
+        mutable = value;
+    }
+
+    void sendMutable() {
+        exchange(mutable);
+    }
+
+    void exchange(String url) {
+    }
+}
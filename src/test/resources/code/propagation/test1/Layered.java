@@ -0,0 +1,333 @@
+package flow;
+
+/**
+ * Callers of sendLayered pass values that settle one after another, one per round of the worklist.
+ */
+public class Layered {
+    String url0() {
+        return "https://api.example.com/layered";
+    }
+
+    String url1() {
+        return url0();
+    }
+
+    String url2() {
+        return url1();
+    }
+
+    String url3() {
+        return url2();
+    }
+
+    String url4() {
+        return url3();
+    }
+
+    String url5() {
+        return url4();
+    }
+
+    String url6() {
+        return url5();
+    }
+
+    String url7() {
+        return url6();
+    }
+
+    String url8() {
+        return url7();
+    }
+
+    String url9() {
+        return url8();
+    }
+
+    String url10() {
+        return url9();
+    }
+
+    String url11() {
+        return url10();
+    }
+
+    String url12() {
+        return url11();
+    }
+
+    String url13() {
+        return url12();
+    }
+
+    String url14() {
+        return url13();
+    }
+
+    String url15() {
+        return url14();
+    }
+
+    String url16() {
+        return url15();
+    }
+
+    String url17() {
+        return url16();
+    }
+
+    String url18() {
+        return url17();
+    }
+
+    String url19() {
+        return url18();
+    }
+
+    String url20() {
+        return url19();
+    }
+
+    String url21() {
+        return url20();
+    }
+
+    String url22() {
+        return url21();
+    }
+
+    String url23() {
+        return url22();
+    }
+
+    String url24() {
+        return url23();
+    }
+
+    String url25() {
+        return url24();
+    }
+
+    String url26() {
+        return url25();
+    }
+
+    String url27() {
+        return url26();
+    }
+
+    String url28() {
+        return url27();
+    }
+
+    String url29() {
+        return url28();
+    }
+
+    String url30() {
+        return url29();
+    }
+
+    String url31() {
+        return url30();
+    }
+
+    String url32() {
+        return url31();
+    }
+
+    String url33() {
+        return url32();
+    }
+
+    String url34() {
+        return url33();
+    }
+
+    String url35() {
+        return url34();
+    }
+
+    String url36() {
+        return url35();
+    }
+
+    String url37() {
+        return url36();
+    }
+
+    String url38() {
+        return url37();
+    }
+
+    String url39() {
+        return url38();
+    }
+
+    void call0() {
+        sendLayered(url0());
+    }
+
+    void call1() {
+        sendLayered(url1());
+    }
+
+    void call2() {
+        sendLayered(url2());
+    }
+
+    void call3() {
+        sendLayered(url3());
+    }
+
+    void call4() {
+        sendLayered(url4());
+    }
+
+    void call5() {
+        sendLayered(url5());
+    }
+
+    void call6() {
+        sendLayered(url6());
+    }
+
+    void call7() {
+        sendLayered(url7());
+    }
+
+    void call8() {
+        sendLayered(url8());
+    }
+
+    void call9() {
+        sendLayered(url9());
+    }
+
+    void call10() {
+        sendLayered(url10());
+    }
+
+    void call11() {
+        sendLayered(url11());
+    }
+
+    void call12() {
+        sendLayered(url12());
+    }
+
+    void call13() {
+        sendLayered(url13());
+    }
+
+    void call14() {
+        sendLayered(url14());
+    }
+
+    void call15() {
+        sendLayered(url15());
+    }
+
+    void call16() {
+        sendLayered(url16());
+    }
+
+    void call17() {
+        sendLayered(url17());
+    }
+
+    void call18() {
+        sendLayered(url18());
+    }
+
+    void call19() {
+        sendLayered(url19());
+    }
+
+    void call20() {
+        sendLayered(url20());
+    }
+
+    void call21() {
+        sendLayered(url21());
+    }
+
+    void call22() {
+        sendLayered(url22());
+    }
+
+    void call23() {
+        sendLayered(url23());
+    }
+
+    void call24() {
+        sendLayered(url24());
+    }
+
+    void call25() {
+        sendLayered(url25());
+    }
+
+    void call26() {
+        sendLayered(url26());
+    }
+
+    void call27() {
+        sendLayered(url27());
+    }
+
+    void call28() {
+        sendLayered(url28());
+    }
+
+    void call29() {
+        sendLayered(url29());
+    }
+
+    void call30() {
+        sendLayered(url30());
+    }
+
+    void call31() {
+        sendLayered(url31());
+    }
+
+    void call32() {
+        sendLayered(url32());
+    }
+
+    void call33() {
+        sendLayered(url33());
+    }
+
+    void call34() {
+        sendLayered(url34());
+    }
+
+    void call35() {
+        sendLayered(url35());
+    }
+
+    void call36() {
+        sendLayered(url36());
+    }
+
+    void call37() {
+        sendLayered(url37());
+    }
+
+    void call38() {
+        sendLayered(url38());
+    }
+
+    void call39() {
+        sendLayered(url39());
+    }
+
+    void sendLayered(String url) {
+        exchange(url);
+    }
+
+    void exchange(String url) {
+    }
+}
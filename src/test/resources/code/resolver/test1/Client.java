@@ -0,0 +1,32 @@
+package instrument.resolver1;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.RestTemplate;
+
+public class Client {
+    private final RestTemplate restTemplate = new RestTemplate();
+
+    public void first() {
+        level3("/a");
+    }
+
+    public void second() {
+        level3("/b");
+    }
+
+    void level3(String path) {
+        level2(path);
+    }
+
+    void level2(String path) {
+        level1(path);
+    }
+
+    void level1(String path) {
+        send(path);
+    }
+
+    void send(String url) {
+        restTemplate.exchange(url, HttpMethod.GET, null, String.class);
+    }
+}
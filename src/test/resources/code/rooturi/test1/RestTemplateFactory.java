@@ -0,0 +1,12 @@
+package instrument.rooturi1;
+
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.web.client.RestTemplate;
+
+public class RestTemplateFactory {
+    private static final String BASE_URL = "https://api.example.com/v1";
+
+    public RestTemplate create() {
+        return new RestTemplateBuilder().rootUri(BASE_URL).build();
+    }
+}
@@ -0,0 +1,15 @@
+package instrument.rooturi1;
+
+import org.springframework.web.client.RestTemplate;
+
+public class UserClient {
+    private final RestTemplate restTemplate = new RestTemplateFactory().create();
+
+    public String list() {
+        return restTemplate.getForObject("/", String.class);
+    }
+
+    public String count() {
+        return restTemplate.getForObject("/", String.class);
+    }
+}
@@ -0,0 +1,20 @@
+package instrument.rooturi2;
+
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.web.client.RestTemplate;
+
+public class ConfigurableClient {
+    private final String baseUrl;
+
+    public ConfigurableClient(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public String list() {
+        return restTemplate(baseUrl).getForObject("/", String.class);
+    }
+
+    private RestTemplate restTemplate(String rootUri) {
+        return new RestTemplateBuilder().rootUri(rootUri).build();
+    }
+}
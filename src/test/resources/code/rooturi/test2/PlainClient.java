@@ -0,0 +1,11 @@
+package instrument.rooturi2;
+
+import org.springframework.web.client.RestTemplate;
+
+public class PlainClient {
+    private final RestTemplate restTemplate = new RestTemplate();
+
+    public String items() {
+        return restTemplate.getForObject("http://plain.example.com/items", String.class);
+    }
+}
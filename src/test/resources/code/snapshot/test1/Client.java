@@ -0,0 +1,9 @@
+import org.springframework.web.client.RestTemplate;
+
+public class Client {
+    private final RestTemplate restTemplate = new RestTemplate();
+
+    private String call() {
+        return restTemplate.getForObject("http://api/users", String.class);
+    }
+}